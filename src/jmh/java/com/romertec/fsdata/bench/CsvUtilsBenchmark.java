@@ -0,0 +1,69 @@
+package com.romertec.fsdata.bench;
+
+import com.romertec.fsdata.support.CsvUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CsvUtils.clean contra la versión original (unescapeHtml4 + trim en cada campo) y parseFullAddress.
+ * <p>
+ * plain: campo normal (el caso común); padded: con espacios a los lados; entities: con &amp;amp; / &amp;#39;.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvUtilsBenchmark {
+
+    @Param({"plain", "padded", "entities"})
+    public String input;
+
+    private String value;
+    private String address;
+
+    @Setup
+    public void setup() {
+        value = switch (input) {
+            case "plain" -> "Grilled chicken, rice, beans and pico de gallo";
+            case "padded" -> "   Grilled chicken, rice, beans and pico de gallo  ";
+            case "entities" -> "Grilled chicken, rice, beans &amp; Chef&#39;s pico de gallo";
+            default -> throw new IllegalArgumentException(input);
+        };
+        address = switch (input) {
+            case "plain" -> "224 Daniel Payne Drive, Birmingham, AL, 35207";
+            case "padded" -> " 1024 20th Street South Unit 101 ,  Birmingham , AL , 35205 ";
+            case "entities" -> "1024 20th Street South Unit 101, Birmingham &amp; Co, AL, 35205-1234";
+            default -> throw new IllegalArgumentException(input);
+        };
+    }
+
+    @Benchmark
+    public String clean() {
+        return CsvUtils.clean(value);
+    }
+
+    @Benchmark
+    public String cleanOriginal() {
+        String v = StringEscapeUtils.unescapeHtml4(value).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    @Benchmark
+    public CsvUtils.AddressParts parseFullAddress() {
+        return CsvUtils.parseFullAddress(address, "35207");
+    }
+}
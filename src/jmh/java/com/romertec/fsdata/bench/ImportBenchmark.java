@@ -0,0 +1,366 @@
+package com.romertec.fsdata.bench;
+
+import com.romertec.fsdata.FsdataApplication;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Benchmark end-to-end del import: genera datos sintéticos (SyntheticDataGenerator), levanta la aplicación con el
+ * perfil bench (H2 en modo MySQL, ver application-bench.properties), corre foodDataImportJob una vez y reporta por
+ * step: filas leídas / escritas / filtradas / salteadas, tiempo de pared y filas/s; del job: tiempo total, filas/s,
+ * pico de heap y GC.
+ * <p>
+ * El resultado va a stdout y se agrega una línea a &lt;data-dir&gt;/bench-results.csv para comparar corridas
+ * (--label identifica la variante). Cualquier otro --clave=valor se pasa a Spring, p. ej.:
+ * <pre>
+ * --restaurants=50000 --menus=2000000 --label=mapped --fooddata.reader.mode=mapped
+ * --label=partitioned --fooddata.partition.enabled=true --fooddata.partition.grid-size=8
+ * </pre>
+ * Los archivos solo se regeneran si cambian restaurants / menus / seed (o con --regenerate); la BD se borra en
+ * cada corrida. --input=gz | zst corre sobre copias comprimidas (BGZF / zstd multi-frame) en &lt;data-dir&gt;/&lt;input&gt;.
+ * --shards=N parte restaurant-menus.csv en N shards desparejos (fooddata.input.menus=restaurant-menus-*.csv), solo con
+ * --input=csv.
+ * <p>
+ * --workers=N corre el job con fooddata.partition.mode=remote y N procesos worker (misma aplicación, mismo
+ * classpath) sobre la misma BD H2 en modo AUTO_SERVER; su salida queda en &lt;data-dir&gt;/workers/worker-&lt;n&gt;.log.
+ * --kill-worker-after-ms=T mata el worker 1 a los T ms para probar la reasignación (conviene bajar
+ * fooddata.partition.remote.lease-timeout-ms). Las cifras absolutas son de H2, no de MySQL: sirven para comparar
+ * variantes entre sí.
+ */
+public final class ImportBenchmark {
+
+    private static final String MARKER_FILE = ".generated";
+    private static final String RESULTS_FILE = "bench-results.csv";
+    private static final String SHARD_PREFIX = "restaurant-menus";
+    private static final String H2_AUTO_SERVER = "--bench.h2-options=;AUTO_SERVER=TRUE";
+
+    public static void main(String[] args) throws Exception {
+        Path dataDir = Path.of("target/bench-data");
+        int restaurants = 10_000;
+        long menus = 500_000;
+        long seed = 42;
+        boolean regenerate = false;
+        String label = "default";
+        String input = "csv";
+        int shards = 0;
+        int workers = 0;
+        long killWorkerAfterMs = 0;
+        List<String> springArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--data-dir=")) dataDir = Path.of(value(arg));
+            else if (arg.startsWith("--restaurants=")) restaurants = Integer.parseInt(value(arg).replace("_", ""));
+            else if (arg.startsWith("--menus=")) menus = Long.parseLong(value(arg).replace("_", ""));
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value(arg));
+            else if (arg.equals("--regenerate")) regenerate = true;
+            else if (arg.startsWith("--label=")) label = value(arg);
+            else if (arg.startsWith("--input=")) input = value(arg);
+            else if (arg.startsWith("--shards=")) shards = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--workers=")) workers = Integer.parseInt(value(arg));
+            else if (arg.startsWith("--kill-worker-after-ms=")) killWorkerAfterMs = Long.parseLong(value(arg));
+            else springArgs.add(arg);
+        }
+        dataDir = dataDir.toAbsolutePath();
+
+        prepareData(dataDir, restaurants, menus, seed, regenerate);
+        Path runDir = "csv".equals(input) ? dataDir : prepareCompressed(dataDir, input);
+        if (shards > 0) {
+            if (!"csv".equals(input)) {
+                throw new IllegalArgumentException("--shards only works with --input=csv");
+            }
+            runDir = prepareShards(dataDir, shards);
+            springArgs.add("--fooddata.input.menus=" + SHARD_PREFIX + "-*.csv");
+        }
+        FileSystemUtils.deleteRecursively(runDir.resolve("db"));
+
+        springArgs.add("--fooddata.base-dir=" + runDir);
+        if (workers > 0) {
+            springArgs.add(H2_AUTO_SERVER);
+        }
+        List<String> managerArgs = new ArrayList<>(springArgs);
+        if (workers > 0) {
+            managerArgs.add("--fooddata.partition.mode=remote");
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FsdataApplication.class)
+                .profiles("bench")
+                .run(managerArgs.toArray(String[]::new));
+
+        JobExecution execution;
+        Snapshot before;
+        Snapshot after;
+        // después del contexto del manager: el esquema (negocio y BATCH_*) ya está creado
+        List<Process> workerProcesses = startWorkers(dataDir, springArgs, workers);
+        if (killWorkerAfterMs > 0 && !workerProcesses.isEmpty()) {
+            killLater(workerProcesses.get(0), killWorkerAfterMs);
+        }
+        try {
+            Job job = context.getBean("foodDataImportJob", Job.class);
+            JobLauncher launcher = context.getBean(JobLauncher.class);
+
+            System.gc();
+            resetHeapPeaks();
+            before = Snapshot.take();
+            execution = launcher.run(job, new JobParametersBuilder()
+                    .addLong("run.id", System.currentTimeMillis())
+                    .toJobParameters());
+            after = Snapshot.take();
+            // recargada: con workers remotos las particiones en memoria son las del split (STARTING, sin conteos)
+            execution = context.getBean(JobExplorer.class).getJobExecution(execution.getId());
+        } finally {
+            for (Process worker : workerProcesses) {
+                worker.destroy();
+            }
+            for (Process worker : workerProcesses) {
+                worker.waitFor();
+            }
+            context.close();
+        }
+
+        String report = report(execution, before, after, label, restaurants, menus);
+        System.out.println(report);
+        appendResult(dataDir.resolve(RESULTS_FILE), execution, before, after, label, restaurants, menus);
+
+        System.exit(execution.getStatus() == BatchStatus.COMPLETED ? 0 : 1);
+    }
+
+    private static String value(String arg) {
+        return arg.substring(arg.indexOf('=') + 1);
+    }
+
+    // ========= datos =========
+
+    private static void prepareData(Path dataDir, int restaurants, long menus, long seed, boolean regenerate)
+            throws IOException {
+        String expected = "restaurants=" + restaurants + " menus=" + menus + " seed=" + seed;
+        Path marker = dataDir.resolve(MARKER_FILE);
+        if (!regenerate && Files.exists(marker)
+                && expected.equals(Files.readString(marker, StandardCharsets.UTF_8).trim())
+                && Files.exists(dataDir.resolve(SyntheticDataGenerator.RESTAURANTS_FILE))
+                && Files.exists(dataDir.resolve(SyntheticDataGenerator.MENUS_FILE))) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Files.deleteIfExists(marker);
+        new SyntheticDataGenerator(seed).generate(dataDir, restaurants, menus);
+        Files.writeString(marker, expected + "\n", StandardCharsets.UTF_8);
+        System.out.printf(Locale.ROOT, "Generated %s in %s (%.1f s)%n",
+                expected, dataDir, (System.currentTimeMillis() - start) / 1000.0);
+    }
+
+    /** Copias .gz / .zst de los CSV en data-dir/&lt;input&gt; (se rehacen si los CSV son más nuevos). */
+    private static Path prepareCompressed(Path dataDir, String input) throws IOException {
+        if (!"gz".equals(input) && !"zst".equals(input)) {
+            throw new IllegalArgumentException("--input must be csv, gz or zst: " + input);
+        }
+        Path dir = Files.createDirectories(dataDir.resolve(input));
+        for (String file : List.of(SyntheticDataGenerator.RESTAURANTS_FILE, SyntheticDataGenerator.MENUS_FILE)) {
+            Path source = dataDir.resolve(file);
+            Path target = dir.resolve(file + "." + input);
+            if (Files.exists(target)
+                    && Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(source)) > 0) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
+            SyntheticDataGenerator.compress(source, target);
+            System.out.printf(Locale.ROOT, "Compressed %s -> %s (%,d bytes, %.1f s)%n", file, target, Files.size(target),
+                    (System.currentTimeMillis() - start) / 1000.0);
+        }
+        return dir;
+    }
+
+    /**
+     * restaurant-menus.csv partido en {@code shards} archivos de tamaños desparejos en data-dir/shards-&lt;n&gt;, más una
+     * copia de restaurants.csv (se rehacen si los CSV son más nuevos).
+     */
+    private static Path prepareShards(Path dataDir, int shards) throws IOException {
+        Path dir = Files.createDirectories(dataDir.resolve("shards-" + shards));
+        Path restaurants = dataDir.resolve(SyntheticDataGenerator.RESTAURANTS_FILE);
+        Path menus = dataDir.resolve(SyntheticDataGenerator.MENUS_FILE);
+        Path first = dir.resolve(SHARD_PREFIX + "-000.csv");
+        if (Files.exists(first) && Files.getLastModifiedTime(first).compareTo(Files.getLastModifiedTime(menus)) > 0) {
+            return dir;
+        }
+        long start = System.currentTimeMillis();
+        Files.copy(restaurants, dir.resolve(SyntheticDataGenerator.RESTAURANTS_FILE),
+                StandardCopyOption.REPLACE_EXISTING);
+        SyntheticDataGenerator.shard(menus, dir, SHARD_PREFIX, shards);
+        System.out.printf(Locale.ROOT, "Split %s into %d shards in %s (%.1f s)%n", SyntheticDataGenerator.MENUS_FILE,
+                shards, dir, (System.currentTimeMillis() - start) / 1000.0);
+        return dir;
+    }
+
+    // ========= workers remotos =========
+
+    /** {@code count} JVMs worker con el classpath de esta (perfil bench, mismos --clave=valor que el manager). */
+    private static List<Process> startWorkers(Path dataDir, List<String> springArgs, int count) throws IOException {
+        List<Process> processes = new ArrayList<>();
+        if (count == 0) {
+            return processes;
+        }
+        Path logs = Files.createDirectories(dataDir.resolve("workers"));
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int i = 1; i <= count; i++) {
+            List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+                    FsdataApplication.class.getName(), "--spring.profiles.active=bench"));
+            command.addAll(springArgs);
+            command.add("--fooddata.partition.mode=remote");
+            command.add("--fooddata.worker.enabled=true");
+            // el manager ya creó el esquema
+            command.add("--spring.sql.init.mode=never");
+            command.add("--spring.batch.jdbc.initialize-schema=never");
+            // cada worker con sus archivos de rechazos / reporte de precios
+            command.add("--fooddata.orphans.reject-file=" + logs.resolve("worker-" + i + "-orphan-menus.csv"));
+            command.add("--fooddata.price.report-file=" + logs.resolve("worker-" + i + "-unparseable-prices.csv"));
+            Path log = logs.resolve("worker-" + i + ".log");
+            processes.add(new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start());
+        }
+        System.out.printf(Locale.ROOT, "Started %d workers (logs in %s)%n", count, logs);
+        return processes;
+    }
+
+    private static void killLater(Process worker, long afterMillis) {
+        Thread killer = new Thread(() -> {
+            try {
+                Thread.sleep(afterMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.printf(Locale.ROOT, "Killing worker pid %d after %,d ms%n", worker.pid(), afterMillis);
+            worker.destroyForcibly();
+        }, "bench-kill-worker");
+        killer.setDaemon(true);
+        killer.start();
+    }
+
+    // ========= medición =========
+
+    private static void resetHeapPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /** GC acumulado y pico de heap (suma de los picos de cada pool; cota superior del pico real). */
+    private record Snapshot(long gcCount, long gcMillis, long peakHeapBytes) {
+
+        static Snapshot take() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                millis += Math.max(0, gc.getCollectionTime());
+            }
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            return new Snapshot(count, millis, peak);
+        }
+    }
+
+    // ========= reporte =========
+
+    private static long wallMillis(LocalDateTime start, LocalDateTime end) {
+        return start == null || end == null ? 0 : Duration.between(start, end).toMillis();
+    }
+
+    private static double perSecond(long rows, long millis) {
+        return millis <= 0 ? 0 : rows * 1000.0 / millis;
+    }
+
+    /** Steps de primer nivel: los workers de una partición ya están sumados en su manager. */
+    private static List<StepExecution> topLevelSteps(JobExecution execution) {
+        return execution.getStepExecutions().stream()
+                .filter(s -> !s.getStepName().contains(":"))
+                .sorted(Comparator.comparing(StepExecution::getStartTime,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    private static String report(JobExecution execution, Snapshot before, Snapshot after, String label,
+                                 int restaurants, long menus) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream p = new PrintStream(out, true, StandardCharsets.UTF_8);
+
+        p.printf(Locale.ROOT, "%n=== Import benchmark [%s]: %,d restaurants / %,d menus -> %s ===%n",
+                label, restaurants, menus, execution.getStatus());
+        p.printf(Locale.ROOT, "%-48s %-10s %12s %12s %10s %8s %10s %12s%n",
+                "step", "status", "read", "written", "filtered", "skipped", "wall ms", "rows/s");
+        for (StepExecution s : execution.getStepExecutions().stream()
+                .sorted(Comparator.comparing(StepExecution::getStartTime,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList()) {
+            long wall = wallMillis(s.getStartTime(), s.getEndTime());
+            p.printf(Locale.ROOT, "%-48s %-10s %,12d %,12d %,10d %,8d %,10d %,12.0f%n",
+                    s.getStepName(), s.getStatus(), s.getReadCount(), s.getWriteCount(), s.getFilterCount(),
+                    s.getSkipCount(), wall, perSecond(s.getReadCount(), wall));
+        }
+
+        long jobMillis = wallMillis(execution.getStartTime(), execution.getEndTime());
+        long read = topLevelSteps(execution).stream().mapToLong(StepExecution::getReadCount).sum();
+        long written = topLevelSteps(execution).stream().mapToLong(StepExecution::getWriteCount).sum();
+        p.printf(Locale.ROOT, "job: %,d ms, %,d rows read (%,.0f rows/s), %,d rows written (%,.0f rows/s)%n",
+                jobMillis, read, perSecond(read, jobMillis), written, perSecond(written, jobMillis));
+        p.printf(Locale.ROOT, "heap: peak %,d MB (max %,d MB); gc: %,d collections, %,d ms%n",
+                after.peakHeapBytes() >> 20, Runtime.getRuntime().maxMemory() >> 20,
+                after.gcCount() - before.gcCount(), after.gcMillis() - before.gcMillis());
+        for (Throwable failure : execution.getAllFailureExceptions()) {
+            p.println("failure: " + failure);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void appendResult(Path file, JobExecution execution, Snapshot before, Snapshot after,
+                                     String label, int restaurants, long menus) throws IOException {
+        StringBuilder line = new StringBuilder();
+        if (!Files.exists(file)) {
+            line.append("timestamp,label,restaurants,menus,status,job_ms,rows_read,rows_per_s,peak_heap_mb,gc_count,gc_ms,steps\n");
+        }
+        long jobMillis = wallMillis(execution.getStartTime(), execution.getEndTime());
+        long read = topLevelSteps(execution).stream().mapToLong(StepExecution::getReadCount).sum();
+        StringBuilder steps = new StringBuilder();
+        for (StepExecution s : topLevelSteps(execution)) {
+            if (!steps.isEmpty()) steps.append(' ');
+            steps.append(s.getStepName()).append('=').append(wallMillis(s.getStartTime(), s.getEndTime()));
+        }
+        line.append(String.format(Locale.ROOT, "%s,%s,%d,%d,%s,%d,%d,%.0f,%d,%d,%d,%s%n",
+                LocalDateTime.now().withNano(0), label, restaurants, menus, execution.getStatus(), jobMillis, read,
+                perSecond(read, jobMillis), after.peakHeapBytes() >> 20, after.gcCount() - before.gcCount(),
+                after.gcMillis() - before.gcMillis(), steps));
+        Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,54 @@
+package com.romertec.fsdata.bench;
+
+import com.romertec.fsdata.support.CsvUtils;
+import com.romertec.fsdata.support.PriceParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PriceParser.normalize contra la versión original (replaceAll + split) y parse a unidades menores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PriceParserBenchmark {
+
+    @Param({"15.99 USD", "3.99 usd", "  1,299.00   USD ", "$4.50"})
+    public String price;
+
+    @Benchmark
+    public String normalize() {
+        return PriceParser.normalize(price);
+    }
+
+    @Benchmark
+    public String normalizeOriginal() {
+        String v = CsvUtils.clean(price);
+        if (v == null) return null;
+        v = v.replaceAll("\\s+", " ").trim();
+        String[] parts = v.split(" ");
+        if (parts.length >= 2) {
+            return parts[0] + " " + parts[1].toUpperCase(Locale.ROOT);
+        }
+        return v;
+    }
+
+    @Benchmark
+    public PriceParser.Price normalizeAndParse() {
+        return PriceParser.parse(PriceParser.normalize(price), "USD");
+    }
+}
@@ -0,0 +1,83 @@
+package com.romertec.fsdata.bench;
+
+import com.romertec.fsdata.policy.CsvRecordLexer;
+import com.romertec.fsdata.policy.QuoteBalancedRecordSeparatorPolicy;
+import com.romertec.fsdata.policy.QuotedMultilineRecordSeparatorPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Armado de un record multi-línea como lo hace FlatFileItemReader: se acumulan líneas mientras la policy diga que
+ * el record no terminó (preProcess(record) + línea nueva) y al final postProcess. lexerBuilder: como
+ * CsvFileItemReader, las líneas se agregan a un StringBuilder.
+ * <p>
+ * short: menu con descripción de 3 líneas. long: descripción de 200 líneas de ~80 caracteres (el caso O(n²) de las
+ * policies que re-escanean el record entero por cada línea).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordSeparatorBenchmark {
+
+    @Param({"short", "long"})
+    public String record;
+
+    @Param({"quoteBalanced", "quotedMultiline", "lexer", "lexerBuilder"})
+    public String policy;
+
+    private String[] lines;
+    private RecordSeparatorPolicy separator;
+    private final StringBuilder builder = new StringBuilder();
+
+    @Setup
+    public void setup() {
+        int descriptionLines = "short".equals(record) ? 3 : 200;
+        lines = new String[descriptionLines];
+        lines[0] = "1024,Burritos,\"Chicken \"\"Supreme\"\" Burrito\",\"Grilled chicken, rice, beans,";
+        for (int i = 1; i < descriptionLines - 1; i++) {
+            lines[i] = "line " + i + " of the description: pico de gallo, sour cream, cheese, lettuce & guac";
+        }
+        lines[descriptionLines - 1] = "wrapped in a flour tortilla.\",12.99 USD";
+
+        separator = switch (policy) {
+            case "quoteBalanced" -> new QuoteBalancedRecordSeparatorPolicy('"');
+            case "quotedMultiline" -> new QuotedMultilineRecordSeparatorPolicy();
+            case "lexer", "lexerBuilder" -> new CsvRecordLexer(',', '"');
+            default -> throw new IllegalArgumentException(policy);
+        };
+    }
+
+    @Benchmark
+    public String assemble() {
+        if (separator instanceof CsvRecordLexer lexer && "lexerBuilder".equals(policy)) {
+            builder.setLength(0);
+            builder.append(lines[0]);
+            int next = 1;
+            while (!lexer.isEndOfRecord(builder)) {
+                builder.append(lines[next++]);
+            }
+            return lexer.toRecord(builder);
+        }
+        String current = lines[0];
+        int next = 1;
+        while (!separator.isEndOfRecord(current)) {
+            current = separator.preProcess(current) + lines[next++];
+        }
+        return separator.postProcess(current);
+    }
+}
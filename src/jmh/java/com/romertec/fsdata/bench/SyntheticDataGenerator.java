@@ -0,0 +1,420 @@
+package com.romertec.fsdata.bench;
+
+import io.airlift.compress.zstd.ZstdOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Genera restaurants.csv y restaurant-menus.csv sintéticos con la forma de los archivos reales, para correr el
+ * import completo sin los datos de producción. Misma semilla = mismos archivos.
+ * <p>
+ * Incluye lo que ejercita los caminos caros del import:
+ * - campos entre comillas con comas y "" escapadas; descripciones multi-línea y algunas muy largas (2-5 KB);
+ * - entidades HTML (&amp;amp; &amp;#39; &amp;quot; &amp;eacute;) en nombres, categorías y descripciones;
+ * - precios en varias formas (minúsculas, espacios de más, "$4.50") y algunos no parseables ("Market price");
+ * - restaurants con score / coordenadas vacías, direcciones incompletas y con "Unit";
+ * - menus malformados: restaurant_id no numérico (FlatFileParseException, se saltean) y huérfanos (restaurant
+ *   inexistente, los rechaza el filtro de huérfanos).
+ * <p>
+ * Los menus van agrupados por restaurant en orden de id (como el archivo real). Escribe en streaming: sirve para
+ * decenas de millones de filas.
+ * <p>
+ * Uso: SyntheticDataGenerator &lt;dir&gt; &lt;restaurants&gt; &lt;menus&gt; [seed]
+ */
+public final class SyntheticDataGenerator {
+
+    public static final String RESTAURANTS_FILE = "restaurants.csv";
+    public static final String MENUS_FILE = "restaurant-menus.csv";
+
+    // Proporciones de casos especiales (por fila)
+    private static final double MULTILINE_DESCRIPTION = 0.05;
+    private static final double LONG_DESCRIPTION = 0.005;
+    private static final double HTML_ENTITIES = 0.05;
+    private static final double MALFORMED_MENU = 0.0005;
+    private static final double ORPHAN_MENU = 0.0005;
+    private static final double UNPARSEABLE_PRICE = 0.005;
+
+    private record City(String name, String state, String zipPrefix, double lat, double lng) {}
+
+    private static final City[] CITIES = {
+            new City("Birmingham", "AL", "352", 33.5186, -86.8104),
+            new City("Houston", "TX", "770", 29.7604, -95.3698),
+            new City("Austin", "TX", "787", 30.2672, -97.7431),
+            new City("Chicago", "IL", "606", 41.8781, -87.6298),
+            new City("New York", "NY", "100", 40.7128, -74.0060),
+            new City("Brooklyn", "NY", "112", 40.6782, -73.9442),
+            new City("Los Angeles", "CA", "900", 34.0522, -118.2437),
+            new City("San Francisco", "CA", "941", 37.7749, -122.4194),
+            new City("Seattle", "WA", "981", 47.6062, -122.3321),
+            new City("Denver", "CO", "802", 39.7392, -104.9903),
+            new City("Miami", "FL", "331", 25.7617, -80.1918),
+            new City("Atlanta", "GA", "303", 33.7490, -84.3880),
+            new City("Boston", "MA", "021", 42.3601, -71.0589),
+            new City("Phoenix", "AZ", "850", 33.4484, -112.0740),
+            new City("Portland", "OR", "972", 45.5152, -122.6784),
+            new City("Nashville", "TN", "372", 36.1627, -86.7816),
+    };
+
+    private static final String[] NAME_FIRST = {
+            "Golden", "Happy", "Little", "Big", "Red", "Blue", "Green", "Lucky", "Royal", "Urban", "Old Town",
+            "Sunny", "Smoky", "Fresh", "Spicy", "Sweet", "Rustic", "Corner", "Downtown", "Hometown"
+    };
+    private static final String[] NAME_SECOND = {
+            "Dragon", "Taco", "Burger", "Pizza", "Grill", "Kitchen", "Bistro", "Cafe", "Diner", "Noodle House",
+            "Sushi Bar", "Deli", "Bakery", "Cantina", "Smokehouse", "Wok", "Curry House", "Creamery", "Tavern"
+    };
+    private static final String[] CATEGORIES = {
+            "American", "Burgers", "Mexican", "Pizza", "Chinese", "Japanese", "Sushi", "Thai", "Indian", "Italian",
+            "Sandwiches", "Breakfast and Brunch", "Desserts", "Healthy", "Vegan", "Fast Food", "BBQ", "Seafood",
+            "Salads", "Coffee and Tea", "Chicken", "Wings", "Bakery", "Mediterranean", "Korean"
+    };
+    private static final String[] PRICE_RANGES = {"$", "$", "$$", "$$", "$$$", ""};
+    private static final String[] STREETS = {
+            "Main Street", "Oak Avenue", "Daniel Payne Drive", "20th Street South", "Elm Street", "Park Boulevard",
+            "Broadway", "Market Street", "Highland Avenue", "Lakeshore Drive", "Maple Road", "Sunset Boulevard"
+    };
+    private static final String[] MENU_CATEGORIES = {
+            "Picked for you", "Popular Items", "Appetizers", "Entrees", "Sides", "Drinks", "Desserts", "Combos",
+            "Salads", "Soups", "Kids Menu", "Breakfast", "Burritos", "Tacos", "Sandwiches", "Bowls", "Specials"
+    };
+    private static final String[] DISH_ADJECTIVES = {
+            "Grilled", "Crispy", "Spicy", "Classic", "Smoked", "Roasted", "Fried", "Steamed", "Loaded", "House",
+            "Honey Garlic", "Buffalo", "Teriyaki", "Lemon Pepper", "Chipotle", "Vegan", "Double"
+    };
+    private static final String[] DISH_NOUNS = {
+            "Chicken Sandwich", "Cheeseburger", "Burrito", "Taco Plate", "Pad Thai", "Fried Rice", "Ramen",
+            "Caesar Salad", "Wings", "Quesadilla", "Pepperoni Pizza", "Salmon Roll", "Curry", "Brisket",
+            "Fries", "Milkshake", "Lemonade", "Brownie", "Nachos", "Pho", "Gyro", "Poke Bowl", "Dumplings"
+    };
+    private static final String[] DESCRIPTION_WORDS = {
+            "served", "with", "fresh", "lettuce", "tomato", "onions", "pickles", "cheddar", "jack", "cheese",
+            "rice", "beans", "salsa", "sour", "cream", "guacamole", "house-made", "sauce", "on", "a", "toasted",
+            "brioche", "bun", "topped", "cilantro", "lime", "garlic", "aioli", "side", "of", "fries", "choice",
+            "your", "protein", "grilled", "chicken", "steak", "shrimp", "tofu", "served", "hot", "and", "crispy"
+    };
+    private static final String[] ENTITIES = {"&amp;", "&#39;", "&quot;", "&eacute;", "&ntilde;", "&reg;"};
+
+    private final SplittableRandom random;
+    private final StringBuilder line = new StringBuilder(8192);
+
+    public SyntheticDataGenerator(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("usage: SyntheticDataGenerator <dir> <restaurants> <menus> [seed]");
+            System.exit(2);
+        }
+        Path dir = Path.of(args[0]);
+        int restaurants = Integer.parseInt(args[1].replace("_", ""));
+        long menus = Long.parseLong(args[2].replace("_", ""));
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+        long start = System.currentTimeMillis();
+        new SyntheticDataGenerator(seed).generate(dir, restaurants, menus);
+        System.out.printf(Locale.ROOT, "Generated %,d restaurants / %,d menus in %s (%.1f s)%n",
+                restaurants, menus, dir.toAbsolutePath(), (System.currentTimeMillis() - start) / 1000.0);
+    }
+
+    public void generate(Path dir, int restaurants, long menus) throws IOException {
+        if (restaurants < 1) {
+            throw new IllegalArgumentException("restaurants must be >= 1: " + restaurants);
+        }
+        Files.createDirectories(dir);
+        try (Writer out = writer(dir.resolve(RESTAURANTS_FILE))) {
+            out.write("id,position,name,score,ratings,category,price_range,full_address,zip_code,lat,lng\n");
+            for (int id = 1; id <= restaurants; id++) {
+                writeRestaurant(out, id);
+            }
+        }
+        try (Writer out = writer(dir.resolve(MENUS_FILE))) {
+            out.write("restaurant_id,category,name,description,price\n");
+            // grupos de tamaño variable alrededor del promedio; si sobran menus se vuelve a empezar por el 1
+            double average = Math.max(1.0, (double) menus / restaurants);
+            long written = 0;
+            int restaurantId = 1;
+            while (written < menus) {
+                long group = Math.min(menus - written, 1 + random.nextInt((int) Math.max(1, Math.ceil(2 * average - 1))));
+                for (long i = 0; i < group; i++) {
+                    writeMenu(out, restaurantId, restaurants);
+                }
+                written += group;
+                restaurantId = restaurantId == restaurants ? 1 : restaurantId + 1;
+            }
+        }
+    }
+
+    // ========= shards =========
+
+    /**
+     * Parte un CSV generado en {@code shards} archivos &lt;prefix&gt;-000.csv, -001.csv... en {@code dir}, cada uno con
+     * el header. Los tamaños crecen con el número de shard (el último ~N veces el primero), como shards reales
+     * desparejos; los cortes caen entre records (nunca dentro de un campo entrecomillado multi-línea).
+     */
+    public static void shard(Path source, Path dir, String prefix, int shards) throws IOException {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be >= 1: " + shards);
+        }
+        Files.createDirectories(dir);
+        long total = Files.size(source);
+        long weights = (long) shards * (shards + 1) / 2;
+        try (BufferedReader in = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            String header = in.readLine();
+            String l = null;
+            long consumed = 0;
+            for (int i = 0; i < shards; i++) {
+                // shard i: (i + 1) / weights del archivo, acumulado para no perder el resto en el último
+                long limit = i == shards - 1 ? Long.MAX_VALUE : total * ((long) (i + 1) * (i + 2) / 2) / weights;
+                try (Writer out = writer(dir.resolve(String.format(Locale.ROOT, "%s-%03d.csv", prefix, i)))) {
+                    out.write(header + "\n");
+                    boolean quoted = false;
+                    while ((quoted || consumed < limit) && (l = in.readLine()) != null) {
+                        out.write(l);
+                        out.write('\n');
+                        consumed += l.length() + 1;
+                        for (int c = 0; c < l.length(); c++) {
+                            if (l.charAt(c) == '"') quoted = !quoted;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // ========= copias comprimidas =========
+
+    /**
+     * Copia comprimida de un CSV generado, en el formato que se decodifica en paralelo: .gz = BGZF (miembros de
+     * 64 KB, como bgzip), .zst = frames de {@code ZSTD_FRAME} bytes sin comprimir (como zstd -B / pzstd).
+     */
+    public static void compress(Path source, Path target) throws IOException {
+        String name = target.getFileName().toString();
+        try (InputStream in = Files.newInputStream(source);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), 1 << 20)) {
+            if (name.endsWith(".gz")) {
+                writeBgzf(in, out);
+            } else if (name.endsWith(".zst")) {
+                writeZstdFrames(in, out);
+            } else {
+                throw new IllegalArgumentException("Unknown compressed extension: " + target);
+            }
+        }
+    }
+
+    private static final int BGZF_BLOCK = 65280;
+    private static final int ZSTD_FRAME = 4 * 1024 * 1024;
+
+    private static void writeBgzf(InputStream in, OutputStream out) throws IOException {
+        byte[] block = new byte[BGZF_BLOCK];
+        byte[] deflated = new byte[BGZF_BLOCK + 1024];
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        CRC32 crc = new CRC32();
+        try {
+            while (true) {
+                int n = in.readNBytes(block, 0, block.length);
+                deflater.reset();
+                deflater.setInput(block, 0, n);
+                deflater.finish();
+                int length = deflater.deflate(deflated);
+                crc.reset();
+                crc.update(block, 0, n);
+
+                int blockSize = 18 + length + 8 - 1;           // BSIZE: largo total del miembro - 1
+                out.write(new byte[]{0x1F, (byte) 0x8B, 8, 4, 0, 0, 0, 0, 0, (byte) 0xFF, 6, 0, 'B', 'C', 2, 0,
+                        (byte) blockSize, (byte) (blockSize >>> 8)});
+                out.write(deflated, 0, length);
+                writeIntLE(out, (int) crc.getValue());
+                writeIntLE(out, n);
+                if (n == 0) break;                             // miembro vacío final = marca de EOF de BGZF
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeZstdFrames(InputStream in, OutputStream out) throws IOException {
+        byte[] frame = new byte[ZSTD_FRAME];
+        int n;
+        while ((n = in.readNBytes(frame, 0, frame.length)) > 0) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(n / 2);
+            try (ZstdOutputStream zstd = new ZstdOutputStream(compressed)) {
+                zstd.write(frame, 0, n);
+            }
+            compressed.writeTo(out);
+        }
+    }
+
+    private static void writeIntLE(OutputStream out, int v) throws IOException {
+        out.write(v);
+        out.write(v >>> 8);
+        out.write(v >>> 16);
+        out.write(v >>> 24);
+    }
+
+    private static Writer writer(Path file) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 20);
+    }
+
+    // ========= restaurants =========
+
+    private void writeRestaurant(Writer out, int id) throws IOException {
+        City city = pick(CITIES);
+        StringBuilder b = line;
+        b.setLength(0);
+
+        b.append(id).append(',').append(1 + random.nextInt(200)).append(',');
+
+        // nombre: a veces con la dirección entre paréntesis, comas o entidades
+        int number = 1 + random.nextInt(9999);
+        String street = pick(STREETS);
+        String name = pick(NAME_FIRST) + " " + pick(NAME_SECOND);
+        if (chance(HTML_ENTITIES)) name = name.replace(" ", " &amp; ");
+        else if (chance(0.05)) name = "Joe&#39;s " + name;
+        if (chance(0.3)) name = name + " (" + number + " " + street + ")";
+        if (chance(0.05)) name = name + ", " + city.name;
+        quoted(b, name).append(',');
+
+        if (chance(0.3)) {
+            b.append(",,");                                    // sin score ni ratings
+        } else {
+            b.append(String.format(Locale.ROOT, "%.1f", 3.0 + random.nextDouble() * 2)).append(',')
+                    .append(random.nextInt(500)).append(',');
+        }
+
+        int categories = 1 + random.nextInt(3);
+        StringBuilder category = new StringBuilder();
+        for (int i = 0; i < categories; i++) {
+            if (i > 0) category.append(", ");
+            category.append(pick(CATEGORIES));
+        }
+        quoted(b, category.toString()).append(',');
+        b.append(pick(PRICE_RANGES)).append(',');
+
+        String zip = city.zipPrefix + String.format(Locale.ROOT, "%02d", random.nextInt(100));
+        String address;
+        if (chance(0.005)) {
+            address = city.name + ", " + city.state;           // incompleta: sin calle ni zip
+        } else {
+            address = number + " " + street + (chance(0.1) ? " Unit " + (1 + random.nextInt(400)) : "")
+                    + ", " + city.name + ", " + city.state + ", " + zip;
+        }
+        quoted(b, address).append(',');
+        b.append(zip).append(',');
+
+        if (chance(0.01)) {
+            b.append(',');                                     // sin coordenadas
+        } else if (chance(0.002)) {
+            b.append("n/a,n/a");                               // coordenadas inválidas
+        } else {
+            b.append(String.format(Locale.ROOT, "%.6f,%.6f",
+                    city.lat + (random.nextDouble() - 0.5) * 0.3, city.lng + (random.nextDouble() - 0.5) * 0.3));
+        }
+        b.append('\n');
+        out.append(b);
+    }
+
+    // ========= menus =========
+
+    private void writeMenu(Writer out, int restaurantId, int restaurants) throws IOException {
+        StringBuilder b = line;
+        b.setLength(0);
+
+        if (chance(MALFORMED_MENU)) {
+            b.append("id-").append(restaurantId);              // no numérico: FlatFileParseException
+        } else if (chance(ORPHAN_MENU)) {
+            b.append(restaurants + 1_000_000 + random.nextInt(1000)); // restaurant inexistente
+        } else {
+            b.append(restaurantId);
+        }
+        b.append(',');
+
+        String category = pick(MENU_CATEGORIES);
+        if (chance(HTML_ENTITIES)) category = category + " &amp; More";
+        quoted(b, category).append(',');
+
+        String name = pick(DISH_ADJECTIVES) + " " + pick(DISH_NOUNS);
+        if (chance(0.03)) name = name + " \"Supreme\"";        // comillas escapadas
+        if (chance(0.05)) name = name + ", Large";
+        quoted(b, name).append(',');
+
+        description(b);
+        b.append(',');
+        price(b);
+        b.append('\n');
+        out.append(b);
+    }
+
+    private void description(StringBuilder b) {
+        if (chance(0.3)) {
+            return;                                            // vacía
+        }
+        int words = chance(LONG_DESCRIPTION) ? 300 + random.nextInt(600) : 6 + random.nextInt(20);
+        boolean multiline = chance(MULTILINE_DESCRIPTION);
+        boolean entities = chance(HTML_ENTITIES);
+
+        b.append('"');
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                if (multiline && random.nextInt(8) == 0) b.append('\n');
+                else if (random.nextInt(7) == 0) b.append(", ");
+                else b.append(' ');
+            }
+            if (entities && random.nextInt(6) == 0) {
+                b.append(pick(ENTITIES));
+            } else {
+                b.append(pick(DESCRIPTION_WORDS));
+            }
+        }
+        if (random.nextInt(20) == 0) b.append(" (\"\"chef's pick\"\")");
+        b.append('.').append('"');
+    }
+
+    private void price(StringBuilder b) {
+        if (chance(UNPARSEABLE_PRICE)) {
+            b.append(random.nextBoolean() ? "Market price" : "5-7 USD");
+            return;
+        }
+        int cents = 99 + random.nextInt(4000);
+        String amount = (cents / 100) + "." + String.format(Locale.ROOT, "%02d", cents % 100);
+        int form = random.nextInt(100);
+        if (form < 90) b.append(amount).append(" USD");
+        else if (form < 94) b.append(amount).append(" usd");
+        else if (form < 97) b.append("\"  ").append(amount).append("   USD \"");
+        else b.append('$').append(amount);
+    }
+
+    // ========= helpers =========
+
+    /** Campo entre comillas con "" escapadas. */
+    private static StringBuilder quoted(StringBuilder b, String value) {
+        b.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') b.append('"');
+            b.append(c);
+        }
+        return b.append('"');
+    }
+
+    private boolean chance(double p) {
+        return random.nextDouble() < p;
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
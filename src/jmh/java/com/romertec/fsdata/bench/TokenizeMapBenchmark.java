@@ -0,0 +1,106 @@
+package com.romertec.fsdata.bench;
+
+import com.romertec.fsdata.policy.CsvRecordLexer;
+import com.romertec.fsdata.support.MenuCsvRow;
+import com.romertec.fsdata.support.MenuCsvRowFieldSetMapper;
+import com.romertec.fsdata.support.RestaurantCsvRow;
+import com.romertec.fsdata.support.RestaurantCsvRowFieldSetMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Línea -> fila: DelimitedLineTokenizer + BeanWrapperFieldSetMapper (como estaban los readers originalmente)
+ * contra CsvRecordLexer + mapper por posición (lo que usan hoy).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenizeMapBenchmark {
+
+    private static final String[] MENU_NAMES = {"restaurantId", "category", "itemName", "description", "price"};
+    private static final String[] RESTAURANT_NAMES = {
+            "id", "position", "name", "score", "ratings", "category",
+            "priceRange", "fullAddress", "zipCode", "lat", "lng"
+    };
+
+    private static final String MENU_LINE =
+            "1024,Burritos,\"Chicken \"\"Supreme\"\" Burrito\",\"Grilled chicken, rice, beans &amp; pico de gallo\",12.99 USD";
+    private static final String RESTAURANT_LINE =
+            "1024,19,\"PJ Fresh (224 Daniel Payne Drive)\",4.5,12,\"Burritos, Mexican, Healthy\",$,"
+                    + "\"224 Daniel Payne Drive, Birmingham, AL, 35207\",35207,33.562365,-86.8304";
+
+    private DelimitedLineTokenizer menuTokenizer;
+    private BeanWrapperFieldSetMapper<MenuCsvRow> menuBeanMapper;
+    private CsvRecordLexer menuLexer;
+    private MenuCsvRowFieldSetMapper menuMapper;
+
+    private DelimitedLineTokenizer restaurantTokenizer;
+    private BeanWrapperFieldSetMapper<RestaurantCsvRow> restaurantBeanMapper;
+    private CsvRecordLexer restaurantLexer;
+    private RestaurantCsvRowFieldSetMapper restaurantMapper;
+
+    @Setup
+    public void setup() throws Exception {
+        menuTokenizer = tokenizer(MENU_NAMES);
+        menuBeanMapper = new BeanWrapperFieldSetMapper<>();
+        menuBeanMapper.setTargetType(MenuCsvRow.class);
+        menuBeanMapper.afterPropertiesSet();
+        menuLexer = new CsvRecordLexer(',', '"');
+        menuLexer.setNames(MENU_NAMES);
+        menuMapper = new MenuCsvRowFieldSetMapper();
+
+        restaurantTokenizer = tokenizer(RESTAURANT_NAMES);
+        restaurantTokenizer.setIncludedFields(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        restaurantBeanMapper = new BeanWrapperFieldSetMapper<>();
+        restaurantBeanMapper.setTargetType(RestaurantCsvRow.class);
+        restaurantBeanMapper.afterPropertiesSet();
+        restaurantLexer = new CsvRecordLexer(',', '"');
+        restaurantLexer.setNames(RESTAURANT_NAMES);
+        restaurantLexer.setIncludedFields(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        restaurantMapper = new RestaurantCsvRowFieldSetMapper();
+    }
+
+    private static DelimitedLineTokenizer tokenizer(String[] names) {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setDelimiter(",");
+        tokenizer.setQuoteCharacter('"');
+        tokenizer.setStrict(false);
+        tokenizer.setNames(names);
+        return tokenizer;
+    }
+
+    @Benchmark
+    public MenuCsvRow menuBeanWrapper() throws Exception {
+        return menuBeanMapper.mapFieldSet(menuTokenizer.tokenize(MENU_LINE));
+    }
+
+    @Benchmark
+    public MenuCsvRow menuLexerPositional() {
+        return menuMapper.mapFieldSet(menuLexer.tokenize(MENU_LINE));
+    }
+
+    @Benchmark
+    public RestaurantCsvRow restaurantBeanWrapper() throws Exception {
+        return restaurantBeanMapper.mapFieldSet(restaurantTokenizer.tokenize(RESTAURANT_LINE));
+    }
+
+    @Benchmark
+    public RestaurantCsvRow restaurantLexerPositional() {
+        return restaurantMapper.mapFieldSet(restaurantLexer.tokenize(RESTAURANT_LINE));
+    }
+}
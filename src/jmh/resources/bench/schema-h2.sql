@@ -0,0 +1,32 @@
+-- Tablas de negocio para el benchmark (H2 en modo MySQL). Mismas columnas que las entidades; price_amount /
+-- price_currency, latitude / longitude / geohash y sus índices los agregan MenuPriceEncoder y RestaurantGeoEncoder.
+CREATE TABLE IF NOT EXISTS restaurants (
+    id INT NOT NULL PRIMARY KEY,
+    category VARCHAR(255),
+    city VARCHAR(255),
+    lat VARCHAR(255),
+    lng VARCHAR(255),
+    name VARCHAR(255),
+    position VARCHAR(255),
+    price_range VARCHAR(255),
+    raitings VARCHAR(255),
+    score VARCHAR(255),
+    state VARCHAR(255),
+    street VARCHAR(255),
+    unit VARCHAR(255),
+    zip VARCHAR(255)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS menu (
+    id INT NOT NULL PRIMARY KEY,
+    category VARCHAR(255),
+    description LONGTEXT,
+    name VARCHAR(255),
+    price VARCHAR(255),
+    restaurant_id INT,
+    CONSTRAINT fk_menu_restaurant FOREIGN KEY (restaurant_id) REFERENCES restaurants (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS menu_seq (
+    next_val BIGINT DEFAULT NULL
+) ENGINE=InnoDB;
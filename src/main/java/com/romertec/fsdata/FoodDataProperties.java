@@ -0,0 +1,171 @@
+package com.romertec.fsdata;
+
+import com.romertec.fsdata.support.InputFiles;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+
+/**
+ * Configuración fooddata.* (ver application.properties), leída una sola vez. Los defaults son los de un import
+ * mínimo: todo lo opcional apagado.
+ */
+@ConfigurationProperties("fooddata")
+public record FoodDataProperties(
+        String baseDir,
+        @DefaultValue Input input,
+        @DefaultValue Reader reader,
+        @DefaultValue Writer writer,
+        @DefaultValue Load load,
+        @DefaultValue Staging staging,
+        @DefaultValue Partition partition,
+        @DefaultValue Worker worker,
+        @DefaultValue Pipeline pipeline,
+        @DefaultValue Menus menus,
+        @DefaultValue MenuIds menu,
+        @DefaultValue Chunk chunk,
+        @DefaultValue ChangeDetection changeDetection,
+        @DefaultValue Manifest manifest,
+        @DefaultValue Orphans orphans,
+        @DefaultValue Dictionary dictionary,
+        @DefaultValue Price price,
+        @DefaultValue Geo geo,
+        @DefaultValue Search search,
+        @DefaultValue Metrics metrics,
+        @DefaultValue Api api
+) {
+
+    /** Archivos de entrada relativos a base-dir (un glob toma todos los shards). */
+    public record Input(@DefaultValue("restaurants.csv") String restaurants,
+                        @DefaultValue("restaurant-menus.csv") String menus,
+                        @DefaultValue("4") int decodeThreads) {
+    }
+
+    /** flat (CsvFileItemReader) o mapped (MappedCsvItemReader). */
+    public record Reader(@DefaultValue("flat") String mode) {
+        public boolean mapped() { return "mapped".equals(mode); }
+    }
+
+    /** jdbc (JdbcBatchItemWriter) o load-data (LOAD DATA LOCAL INFILE), por tabla. */
+    public record Writer(@DefaultValue("jdbc") String restaurants,
+                         @DefaultValue("jdbc") String menus,
+                         @DefaultValue LoadData loadData) {
+        public boolean restaurantsLoadData() { return "load-data".equals(restaurants); }
+
+        public boolean menusLoadData() { return "load-data".equals(menus); }
+    }
+
+    public record LoadData(@DefaultValue("merge") String duplicates) {
+    }
+
+    /** direct (upsert sobre las tablas reales) o staging (tablas *_stage + merge final). */
+    public record Load(@DefaultValue("direct") String mode) {
+        public boolean staging() { return "staging".equals(mode); }
+    }
+
+    public record Staging(boolean deleteMissing) {
+    }
+
+    /** local (threads de esta JVM) o remote (workers en otras JVMs, ver JobRepositoryPartitions). */
+    public record Partition(boolean enabled,
+                            @DefaultValue("4") int gridSize,
+                            @DefaultValue("local") String mode,
+                            @DefaultValue Remote remote) {
+        public boolean isRemote() { return "remote".equals(mode); }
+
+        /** enabled, modo remote (las filas las procesan los workers) o un input con glob (un shard por partición). */
+        public boolean runs(String input) {
+            return enabled || isRemote() || InputFiles.isPattern(input);
+        }
+    }
+
+    public record Remote(@DefaultValue("1000") long pollIntervalMs,
+                         @DefaultValue("60000") long leaseTimeoutMs) {
+    }
+
+    public record Worker(boolean enabled, @DefaultValue("2") int threads) {
+    }
+
+    public record Pipeline(boolean enabled, @DefaultValue("2000") int bufferSize) {
+    }
+
+    public record Menus(@DefaultValue Async async) {
+    }
+
+    public record Async(boolean enabled, @DefaultValue("4") int threads, boolean virtualThreads) {
+    }
+
+    public record MenuIds(@DefaultValue("1000") int idBlockSize) {
+    }
+
+    public record Chunk(@DefaultValue Adaptive adaptive) {
+    }
+
+    public record Adaptive(boolean enabled,
+                           @DefaultValue("500") long targetCommitMs,
+                           @DefaultValue("100") int minSize,
+                           @DefaultValue("20000") int maxSize,
+                           @DefaultValue("8388608") long maxBytes) {
+    }
+
+    public record ChangeDetection(boolean enabled, String storeDir) {
+    }
+
+    public record Manifest(boolean enabled, @DefaultValue("true") boolean trustMtime) {
+    }
+
+    public record Orphans(@DefaultValue Toggle filter, String rejectFile) {
+    }
+
+    public record Dictionary(@DefaultValue Intern intern, boolean lookupTables, @DefaultValue("true") boolean keepText) {
+    }
+
+    public record Intern(@DefaultValue("true") boolean enabled, @DefaultValue("4096") int cacheSize) {
+    }
+
+    public record Price(boolean enabled, boolean migrateSchema, @DefaultValue("USD") String defaultCurrency,
+                        String reportFile) {
+    }
+
+    public record Geo(boolean enabled, boolean migrateSchema) {
+    }
+
+    public record Search(@DefaultValue Toggle index, String indexFile) {
+    }
+
+    public record Metrics(boolean enabled, String reportFile) {
+    }
+
+    public record Api(@DefaultValue Cache cache, @DefaultValue("30000") long refreshIntervalMs) {
+    }
+
+    public record Cache(@DefaultValue("200000") long maxRows) {
+    }
+
+    public record Toggle(boolean enabled) {
+    }
+
+    // ========= paths (por defecto dentro de base-dir) =========
+
+    public Path baseDirectory() {
+        if (!StringUtils.hasText(baseDir)) {
+            throw new IllegalArgumentException("fooddata.base-dir is empty");
+        }
+        return Path.of(baseDir.trim().replace("\\", "/"));
+    }
+
+    public Path changeDetectionStoreDir() { return pathOr(changeDetection.storeDir(), ".fingerprints"); }
+
+    public Path orphanRejectFile() { return pathOr(orphans.rejectFile(), "rejects/orphan-menus.csv"); }
+
+    public Path priceReportFile() { return pathOr(price.reportFile(), "rejects/unparseable-prices.csv"); }
+
+    public Path searchIndexFile() { return pathOr(search.indexFile(), "index/menu-search.idx"); }
+
+    public Path metricsReportFile() { return pathOr(metrics.reportFile(), "metrics/import-metrics.txt"); }
+
+    private Path pathOr(String path, String underBaseDir) {
+        return path != null ? Path.of(path) : baseDirectory().resolve(underBaseDir);
+    }
+}
@@ -0,0 +1,148 @@
+package com.romertec.fsdata.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.repeat.RepeatContext;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.batch.repeat.context.RepeatContextSupport;
+import org.springframework.batch.repeat.policy.DefaultResultCompletionPolicy;
+
+import java.util.function.ToIntFunction;
+
+/**
+ * Tamaño de chunk que se ajusta solo para que write + commit tarde alrededor de {@code targetMillis}.
+ * <p>
+ * Después de cada chunk se mide el tiempo desde el primer write hasta el commit, los items leídos y los bytes
+ * escritos (estimados con {@code itemBytes}). El próximo tamaño sale de extrapolar ese tiempo por item al objetivo,
+ * acotado a la mitad / el doble del actual (no salta por un chunk raro), a [minSize, maxSize] y a maxBytes por
+ * chunk. Solo se cambia si la diferencia es de al menos 10%; cada cambio se loguea.
+ * <p>
+ * Se registra en el step como CompletionPolicy y como listener (ChunkListener + ItemWriteListener). Con particiones
+ * el step worker es el mismo para todas: el tamaño se comparte y las mediciones son por thread. El tamaño aprendido
+ * se mantiene entre corridas del job en la misma JVM.
+ */
+public class AdaptiveChunkSizePolicy extends DefaultResultCompletionPolicy
+        implements ChunkListener, ItemWriteListener<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveChunkSizePolicy.class);
+
+    // Cambios menores a esto no se aplican (evita oscilar y llenar el log)
+    private static final double MIN_CHANGE = 0.10;
+
+    private final String name;
+    private final long targetNanos;
+    private final int minSize;
+    private final int maxSize;
+    private final long maxBytes;
+    private final ToIntFunction<Object> itemBytes;
+
+    private volatile int chunkSize;
+
+    // Medición del chunk en curso (un chunk por thread a la vez)
+    private final ThreadLocal<Measure> current = new ThreadLocal<>();
+
+    private static final class Measure {
+        final RepeatContextSupport context;
+        long writeStart;
+        int written;
+        long bytes;
+
+        Measure(RepeatContextSupport context) {
+            this.context = context;
+        }
+    }
+
+    public AdaptiveChunkSizePolicy(String name, int initialSize, int minSize, int maxSize,
+                                   long targetMillis, long maxBytes, ToIntFunction<Object> itemBytes) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Invalid chunk size bounds: [" + minSize + ", " + maxSize + "]");
+        }
+        if (targetMillis < 1) {
+            throw new IllegalArgumentException("target commit time must be >= 1 ms: " + targetMillis);
+        }
+        this.name = name;
+        this.chunkSize = Math.max(minSize, Math.min(maxSize, initialSize));
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetNanos = targetMillis * 1_000_000L;
+        this.maxBytes = maxBytes;
+        this.itemBytes = itemBytes;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    // ========= CompletionPolicy =========
+
+    @Override
+    public RepeatContext start(RepeatContext parent) {
+        RepeatContextSupport context = new RepeatContextSupport(parent);
+        current.set(new Measure(context));
+        return context;
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context, RepeatStatus result) {
+        return super.isComplete(context, result) || isComplete(context);
+    }
+
+    @Override
+    public boolean isComplete(RepeatContext context) {
+        return context.getStartedCount() >= chunkSize;
+    }
+
+    @Override
+    public void update(RepeatContext context) {
+        ((RepeatContextSupport) context).increment();
+    }
+
+    // ========= medición =========
+
+    @Override
+    public void beforeWrite(Chunk<?> items) {
+        Measure m = current.get();
+        if (m == null || m.writeStart != 0) return; // re-scan item por item después de un error: cuenta el primero
+        m.writeStart = System.nanoTime();
+        m.written = items.size();
+        long bytes = 0;
+        for (Object item : items) bytes += itemBytes.applyAsInt(item);
+        m.bytes = bytes;
+    }
+
+    @Override
+    public void afterChunk(ChunkContext context) {
+        Measure m = current.get();
+        current.remove();
+        if (m == null || m.writeStart == 0) return; // nada que escribir (todo filtrado)
+        adjust(context.getStepContext().getStepName(), m, System.nanoTime() - m.writeStart);
+    }
+
+    @Override
+    public void afterChunkError(ChunkContext context) {
+        current.remove(); // un rollback no dice nada del costo normal del commit
+    }
+
+    private synchronized void adjust(String stepName, Measure m, long elapsedNanos) {
+        int read = m.context.getStartedCount();
+        if (read == 0) return;
+        int size = chunkSize;
+
+        double ideal = elapsedNanos <= 0 ? maxSize : (double) targetNanos * read / elapsedNanos;
+        if (maxBytes > 0 && m.bytes > 0) {
+            ideal = Math.min(ideal, (double) maxBytes * read / m.bytes);
+        }
+        ideal = Math.max(size / 2.0, Math.min(size * 2.0, ideal));
+        int next = (int) Math.max(minSize, Math.min(maxSize, Math.round(ideal)));
+
+        if (Math.abs(next - size) < Math.max(1, size * MIN_CHANGE)) return;
+        chunkSize = next;
+        log.info("Chunk size {} -> {} for {} ({}): last chunk {} read / {} written, {} KB, {} ms to commit (target {} ms)",
+                size, next, stepName, name, read, m.written, m.bytes / 1024, elapsedNanos / 1_000_000,
+                targetNanos / 1_000_000);
+    }
+}
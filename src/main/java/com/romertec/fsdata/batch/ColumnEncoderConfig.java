@@ -0,0 +1,69 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.FoodDataProperties;
+import com.romertec.fsdata.support.StringInterner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/** Columnas derivadas del CSV: diccionarios, precio numérico, coordenadas e índice de búsqueda de menus. */
+@Configuration
+public class ColumnEncoderConfig {
+
+    private final FoodDataProperties properties;
+
+    public ColumnEncoderConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
+    // ========= DICTIONARIES (fooddata.dictionary.*) =========
+
+    @Bean
+    public DictionaryEncoder dictionaryEncoder(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationContext context
+    ) {
+        FoodDataProperties.Dictionary dictionary = properties.dictionary();
+        // la API (/api) lee y filtra por las columnas de texto: sin keep-text saldrían sin category / city / ...
+        if (dictionary.lookupTables() && !dictionary.keepText() && context instanceof WebServerApplicationContext) {
+            throw new IllegalStateException("fooddata.dictionary.keep-text=false writes NULL text columns that the"
+                    + " read API serves: set keep-text=true or run the import with spring.main.web-application-type=none");
+        }
+        // 255 = largo de dict_*.value; más largo no es un valor de diccionario
+        return new DictionaryEncoder(jdbcTemplate, transactionManager,
+                new StringInterner(dictionary.intern().cacheSize(), 255),
+                dictionary.intern().enabled(), dictionary.lookupTables(), dictionary.keepText());
+    }
+
+    // ========= PRECIO NUMÉRICO (menu.price_amount / price_currency) =========
+
+    @Bean
+    public MenuPriceEncoder menuPriceEncoder(DataSource dataSource) {
+        FoodDataProperties.Price price = properties.price();
+        return new MenuPriceEncoder(dataSource, price.defaultCurrency(), properties.priceReportFile(),
+                price.migrateSchema());
+    }
+
+    // ========= COORDENADAS (restaurants.latitude / longitude / geohash) =========
+
+    @Bean
+    public RestaurantGeoEncoder restaurantGeoEncoder(DataSource dataSource) {
+        return new RestaurantGeoEncoder(dataSource, properties.geo().migrateSchema());
+    }
+
+    // ========= BÚSQUEDA DE MENUS (fooddata.search.index.enabled) =========
+
+    @Bean
+    public MenuSearchIndexer menuSearchIndexer(DataSource dataSource) {
+        // para reconstruir en un restart: con staging lo de esta corrida está en menu_stage
+        List<String> sources = properties.load().staging() ? List.of("menu_stage", "menu") : List.of("menu");
+        return new MenuSearchIndexer(dataSource, sources, properties.searchIndexFile());
+    }
+}
@@ -0,0 +1,275 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.policy.CsvRecordLexer;
+import com.romertec.fsdata.support.CompressedInput;
+import com.romertec.fsdata.support.ParallelBlockInputStream;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * Reader de CSV sobre un .gz / .zst, descomprimido en memoria mientras se lee (sin archivo temporal).
+ * <p>
+ * Mismo contrato que el FlatFileItemReader de los steps: líneas físicas (\n, \r o \r\n) en UTF-8, comentarios '#'
+ * al inicio de record, records multi-línea armados con el CsvRecordLexer y mapeados con el LineMapper; los errores
+ * son FlatFileParseException con el mismo mensaje. Como {@link CsvFileItemReader}, las líneas de un record se
+ * agregan a un StringBuilder (sin copiar el record por cada línea).
+ * <p>
+ * La descompresión la hace {@link ParallelBlockInputStream} (frames zstd / miembros BGZF en paralelo en
+ * {@code executor}). Restart: además de read.count se guarda la posición descomprimida del próximo record y el
+ * bloque comprimido desde el que se llega a ella; al reabrir se arranca en ese bloque y se saltea hasta la posición,
+ * sin volver a parsear ni a mapear lo ya leído.
+ */
+public class CompressedCsvItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private static final String POSITION = "position";
+    private static final String BLOCK_OFFSET = "block.offset";
+    private static final String BLOCK_START = "block.start";
+    private static final String LINE_COUNT = "line.count";
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    // ===== configuración =====
+    private Path path;
+    private int linesToSkip = 0;
+    private CsvRecordLexer lexer;
+    private LineMapper<T> lineMapper;
+    private Executor executor;
+    private int maxInFlight = 8;
+
+    // ===== estado =====
+    private ParallelBlockInputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPos;
+    private int bufferLimit;
+    private boolean eof;
+    private byte[] line = new byte[4096];
+    private final StringBuilder record = new StringBuilder();
+    private long position;              // posición descomprimida del próximo byte sin consumir
+    private long recordStart;           // posición descomprimida del próximo record
+    private int lineCount;
+
+    private long restartPosition = -1;
+    private long restartBlockOffset;
+    private long restartBlockStart;
+    private int restartLineCount;
+
+    public CompressedCsvItemReader() {
+        setName("compressedCsvItemReader");
+    }
+
+    public void setPath(Path path) { this.path = path; }
+
+    public void setLinesToSkip(int linesToSkip) { this.linesToSkip = linesToSkip; }
+
+    /** Separa los records; el mismo lexer suele ser el LineTokenizer del lineMapper. */
+    public void setLexer(CsvRecordLexer lexer) { this.lexer = lexer; }
+
+    public void setLineMapper(LineMapper<T> lineMapper) { this.lineMapper = lineMapper; }
+
+    /** Executor de la descompresión en paralelo; hasta maxInFlight bloques decodificados por adelantado. */
+    public void setExecutor(Executor executor, int maxInFlight) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    // ========= ItemStream =========
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        restartPosition = -1;
+        if (isSaveState() && executionContext.containsKey(getExecutionContextKey(POSITION))) {
+            restartPosition = executionContext.getLong(getExecutionContextKey(POSITION));
+            restartBlockOffset = executionContext.getLong(getExecutionContextKey(BLOCK_OFFSET));
+            restartBlockStart = executionContext.getLong(getExecutionContextKey(BLOCK_START));
+            restartLineCount = executionContext.getInt(getExecutionContextKey(LINE_COUNT), 0);
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState() && in != null) {
+            ParallelBlockInputStream.Checkpoint checkpoint = in.checkpoint(recordStart);
+            executionContext.putLong(getExecutionContextKey(POSITION), recordStart);
+            executionContext.putLong(getExecutionContextKey(BLOCK_OFFSET), checkpoint.compressedOffset());
+            executionContext.putLong(getExecutionContextKey(BLOCK_START), checkpoint.decodedStart());
+            executionContext.putInt(getExecutionContextKey(LINE_COUNT), lineCount);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        Assert.notNull(path, "Input path must be set");
+        Assert.notNull(lexer, "CsvRecordLexer must be set");
+        Assert.notNull(lineMapper, "LineMapper must be set");
+        Assert.notNull(executor, "Executor must be set");
+
+        CompressedInput.Format format = CompressedInput.detect(path);
+        Assert.state(format != CompressedInput.Format.NONE, () -> "Not a .gz / .zst file: " + path.toAbsolutePath());
+
+        bufferPos = bufferLimit = 0;
+        eof = false;
+        if (restartPosition >= 0) {
+            // restart: directo al bloque del checkpoint, sin header ni records ya procesados
+            in = new ParallelBlockInputStream(path, format, restartBlockOffset, restartBlockStart, executor, maxInFlight);
+            position = restartBlockStart;
+            skipBytes(restartPosition - restartBlockStart);
+            lineCount = restartLineCount;
+        } else {
+            in = new ParallelBlockInputStream(path, format, 0, 0, executor, maxInFlight);
+            position = 0;
+            lineCount = 0;
+            for (int i = 0; i < linesToSkip && readPhysicalLine() != null; i++) {
+                lineCount++;
+            }
+        }
+        recordStart = position;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (restartPosition >= 0) {
+            return;                                         // doOpen ya se posicionó
+        }
+        for (int i = 0; i < itemIndex && readRecord() != null; i++) {
+            recordStart = position;
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (in != null) {
+            in.close();
+            in = null;
+        }
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        if (in == null) {
+            return null;
+        }
+        String record = readRecord();
+        recordStart = position;
+        if (record == null) {
+            return null;
+        }
+        try {
+            return lineMapper.mapLine(record, lineCount);
+        } catch (Exception ex) {
+            throw new FlatFileParseException("Parsing error at line: " + lineCount + " in resource=["
+                    + path.toAbsolutePath() + "], input=[" + record + "]", ex, record, lineCount);
+        }
+    }
+
+    // ========= records (igual que FlatFileItemReader) =========
+
+    private String readRecord() throws Exception {
+        String first = readLine();
+        if (first == null) {
+            return null;
+        }
+        record.setLength(0);
+        record.append(first);
+        while (!lexer.isEndOfRecord(record)) {
+            String next = readPhysicalLine();
+            if (next == null) {
+                if (StringUtils.hasText(record)) {
+                    throw new FlatFileParseException("Unexpected end of file before record complete",
+                            record.toString(), lineCount);
+                }
+                break;
+            }
+            lineCount++;
+            record.append(next);
+        }
+        return lexer.toRecord(record);
+    }
+
+    /** Primera línea de un record: saltea comentarios. */
+    private String readLine() throws Exception {
+        while (true) {
+            String l = readPhysicalLine();
+            if (l == null) {
+                return null;
+            }
+            lineCount++;
+            if (!l.startsWith("#")) {
+                return l;
+            }
+        }
+    }
+
+    // ========= líneas físicas sobre los bytes descomprimidos =========
+
+    private String readPhysicalLine() throws Exception {
+        int length = 0;
+        while (true) {
+            if (bufferPos >= bufferLimit && !fill()) {
+                return length == 0 ? null : decode(length);
+            }
+            int p = bufferPos;
+            while (p < bufferLimit && buffer[p] != '\n' && buffer[p] != '\r') p++;
+            length = append(length, bufferPos, p);
+            position += p - bufferPos;
+            bufferPos = p;
+            if (p < bufferLimit) {
+                byte terminator = buffer[bufferPos++];
+                position++;
+                if (terminator == '\r' && (bufferPos < bufferLimit || fill()) && buffer[bufferPos] == '\n') {
+                    bufferPos++;
+                    position++;
+                }
+                return decode(length);
+            }
+        }
+    }
+
+    private int append(int length, int from, int to) {
+        int n = to - from;
+        if (length + n > line.length) {
+            line = Arrays.copyOf(line, Math.max(length + n, line.length * 2));
+        }
+        System.arraycopy(buffer, from, line, length, n);
+        return length + n;
+    }
+
+    private String decode(int length) {
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private boolean fill() throws Exception {
+        if (eof) {
+            return false;
+        }
+        int n = in.read(buffer, 0, buffer.length);
+        if (n < 0) {
+            eof = true;
+            bufferPos = bufferLimit = 0;
+            return false;
+        }
+        bufferPos = 0;
+        bufferLimit = n;
+        return true;
+    }
+
+    private void skipBytes(long n) throws Exception {
+        long skipped = in.skip(n);
+        if (skipped < n) {
+            throw new ItemStreamException("Restart position " + restartPosition + " is past the end of "
+                    + path.toAbsolutePath());
+        }
+        position += n;
+    }
+}
@@ -0,0 +1,179 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.policy.CsvRecordLexer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ReaderNotOpenException;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.NonTransientFlatFileException;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.core.io.Resource;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader de CSV sobre un Resource (archivo o {@link com.romertec.fsdata.support.ByteRangeResource}) para
+ * fooddata.reader.mode=flat.
+ * <p>
+ * Mismo contrato que FlatFileItemReader con el CsvRecordLexer como separador: líneas de BufferedReader.readLine en
+ * UTF-8, comentarios '#' al inicio de record, linesToSkip en records, strict, los mismos mensajes de
+ * FlatFileParseException y restart por read.count (mismas claves: un restart puede venir de un FlatFileItemReader).
+ * La diferencia es el armado de un record multi-línea: FlatFileItemReader hace record + línea por cada línea nueva,
+ * O(n²) en caracteres para una descripción larga; acá las líneas se agregan a un StringBuilder y el lexer solo
+ * mira lo nuevo.
+ */
+public class CsvFileItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvFileItemReader.class);
+
+    // ===== configuración =====
+    private Resource resource;
+    private int linesToSkip = 0;
+    private boolean strict = true;
+    private CsvRecordLexer lexer;
+    private LineMapper<T> lineMapper;
+
+    // ===== estado =====
+    private BufferedReader reader;
+    private final StringBuilder record = new StringBuilder();
+    private int lineCount;
+    private boolean noInput;
+
+    public CsvFileItemReader() {
+        setName("csvFileItemReader");
+    }
+
+    public void setResource(Resource resource) { this.resource = resource; }
+
+    public void setLinesToSkip(int linesToSkip) { this.linesToSkip = linesToSkip; }
+
+    public void setStrict(boolean strict) { this.strict = strict; }
+
+    /** Separa los records; el mismo lexer suele ser el LineTokenizer del lineMapper (tokeniza sin re-escanear). */
+    public void setLexer(CsvRecordLexer lexer) { this.lexer = lexer; }
+
+    public void setLineMapper(LineMapper<T> lineMapper) { this.lineMapper = lineMapper; }
+
+    // ========= ItemStream =========
+
+    @Override
+    protected void doOpen() throws Exception {
+        Assert.notNull(resource, "Input resource must be set");
+        Assert.notNull(lexer, "CsvRecordLexer must be set");
+        Assert.notNull(lineMapper, "LineMapper must be set");
+
+        noInput = true;
+        if (!resource.exists()) {
+            if (strict) {
+                throw new IllegalStateException("Input resource must exist (reader is in 'strict' mode): " + resource);
+            }
+            log.warn("Input resource does not exist {}", resource.getDescription());
+            return;
+        }
+        if (!resource.isReadable()) {
+            if (strict) {
+                throw new IllegalStateException("Input resource must be readable (reader is in 'strict' mode): "
+                        + resource);
+            }
+            log.warn("Input resource is not readable {}", resource.getDescription());
+            return;
+        }
+
+        reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8));
+        lineCount = 0;
+        for (int i = 0; i < linesToSkip; i++) {
+            readRecord();
+        }
+        noInput = false;
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        // restart: los records ya procesados se arman pero no se mapean
+        for (int i = 0; i < itemIndex; i++) {
+            if (readRecord() == null) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        lineCount = 0;
+        if (reader != null) {
+            reader.close();
+            reader = null;
+        }
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        if (noInput) {
+            return null;
+        }
+        String line = readRecord();
+        if (line == null) {
+            return null;
+        }
+        try {
+            return lineMapper.mapLine(line, lineCount);
+        } catch (Exception ex) {
+            throw new FlatFileParseException("Parsing error at line: " + lineCount + " in resource=["
+                    + resource.getDescription() + "], input=[" + line + "]", ex, line, lineCount);
+        }
+    }
+
+    // ========= records =========
+
+    private String readRecord() {
+        if (reader == null) {
+            throw new ReaderNotOpenException("Reader must be open before it can be read.");
+        }
+        String line = null;
+        try {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+            record.setLength(0);
+            record.append(line);
+            while (!lexer.isEndOfRecord(record)) {
+                line = reader.readLine();
+                if (line == null) {
+                    if (StringUtils.hasText(record)) {
+                        throw new FlatFileParseException("Unexpected end of file before record complete",
+                                record.toString(), lineCount);
+                    }
+                    break;
+                }
+                lineCount++;
+                record.append(line);
+            }
+            return lexer.toRecord(record);
+        } catch (IOException e) {
+            noInput = true;
+            throw new NonTransientFlatFileException("Unable to read from resource: [" + resource + "]", e, line,
+                    lineCount);
+        }
+    }
+
+    /** Primera línea de un record: saltea comentarios. */
+    private String readLine() throws IOException {
+        while (true) {
+            String l = reader.readLine();
+            if (l == null) {
+                return null;
+            }
+            lineCount++;
+            if (!l.startsWith("#")) {
+                return l;
+            }
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.entity.Menu;
+import com.romertec.fsdata.entity.Restaurant;
+import com.romertec.fsdata.support.MySqlSchema;
+import com.romertec.fsdata.support.StringInterner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Capa de diccionario para las columnas de baja cardinalidad: restaurants.category / city / state / price_range y
+ * menu.category.
+ * <p>
+ * - Interning (siempre que esté habilitado): los valores pasan por un {@link StringInterner} acotado que se limpia
+ *   al empezar cada job; millones de filas comparten unas pocas instancias en los chunks y buffers del import.
+ * - lookupTables=true: cada columna tiene su tabla dict_* (id, value) y la fila guarda además el id
+ *   ({@code category_id}, {@code city_id}, ...) con FK a esa tabla. Con keepText=false la columna de texto se
+ *   escribe NULL (solo en las filas que se escriben en esta corrida).
+ * - dict_*.value es utf8mb4_bin: valores que difieren solo en mayúsculas / acentos son valores distintos, con su
+ *   propio id (con la collation por defecto compartían fila y el SELECT devolvía el id del otro). Un valor de más
+ *   de {@value #MAX_VALUE_LENGTH} caracteres no es de diccionario: queda sin id y la fila conserva el texto aunque
+ *   keepText=false.
+ * <p>
+ * beforeJob: crea las tablas dict_* y las columnas *_id si faltan (consulta information_schema antes de cada
+ * ALTER) y carga los diccionarios en memoria. Una columna recién agregada se completa desde el texto existente
+ * (si no, las filas que la detección de cambios no reescribe quedarían sin id). Una tabla dict_* creada con otra
+ * collation se pasa a utf8mb4_bin y los ids de las filas existentes se recalculan desde su texto.
+ * <p>
+ * Un valor nuevo se inserta en su propia transacción (REQUIRES_NEW), igual que los bloques de menu_seq: el id
+ * queda commiteado antes de que lo use un chunk y un rollback no deja ids en memoria sin fila en dict_*.
+ */
+public class DictionaryEncoder implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DictionaryEncoder.class);
+
+    /** Largo de dict_*.value (caracteres). */
+    public static final int MAX_VALUE_LENGTH = 255;
+    private static final String VALUE_COLLATION = "utf8mb4_bin";
+    private static final String VALUE_TYPE =
+            "VARCHAR(" + MAX_VALUE_LENGTH + ") CHARACTER SET utf8mb4 COLLATE " + VALUE_COLLATION + " NOT NULL";
+
+    public enum Dictionary {
+        RESTAURANT_CATEGORY("restaurants", "category", "category_id", "dict_restaurant_category"),
+        CITY("restaurants", "city", "city_id", "dict_city"),
+        STATE("restaurants", "state", "state_id", "dict_state"),
+        PRICE_RANGE("restaurants", "price_range", "price_range_id", "dict_price_range"),
+        MENU_CATEGORY("menu", "category", "category_id", "dict_menu_category");
+
+        final String table;
+        final String textColumn;
+        final String idColumn;
+        final String dictTable;
+
+        Dictionary(String table, String textColumn, String idColumn, String dictTable) {
+            this.table = table;
+            this.textColumn = textColumn;
+            this.idColumn = idColumn;
+            this.dictTable = dictTable;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StringInterner interner;
+    private final boolean intern;
+    private final boolean lookupTables;
+    private final boolean keepText;
+
+    private final Map<Dictionary, Map<String, Integer>> ids = new EnumMap<>(Dictionary.class);
+    private final LongAdder tooLong = new LongAdder();
+
+    public DictionaryEncoder(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             StringInterner interner,
+                             boolean intern,
+                             boolean lookupTables,
+                             boolean keepText) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.interner = interner;
+        this.intern = intern;
+        this.lookupTables = lookupTables;
+        this.keepText = keepText;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (Dictionary d : Dictionary.values()) {
+            ids.put(d, new ConcurrentHashMap<>());
+        }
+    }
+
+    public boolean lookupTables() {
+        return lookupTables;
+    }
+
+    // ========= job =========
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        interner.clear();
+        tooLong.reset();
+        if (!lookupTables) {
+            return;
+        }
+        for (Dictionary d : Dictionary.values()) {
+            ensureSchema(d);
+            Map<String, Integer> values = ids.get(d);
+            values.clear();
+            jdbcTemplate.query("SELECT id, value FROM " + d.dictTable, rs -> {
+                values.put(rs.getString(2), rs.getInt(1));
+            });
+        }
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        if (intern) {
+            long hits = interner.hits();
+            long total = hits + interner.misses();
+            log.info("Dictionary intern cache: {} hits / {} lookups ({}%)",
+                    hits, total, total == 0 ? 0 : hits * 100 / total);
+        }
+        if (lookupTables) {
+            ids.forEach((d, values) -> log.info("Dictionary {}: {} values", d.dictTable, values.size()));
+            if (tooLong.sum() > 0) {
+                log.warn("{} values longer than {} characters were kept as text without a dictionary id",
+                        tooLong.sum(), MAX_VALUE_LENGTH);
+            }
+        }
+    }
+
+    // ========= filas =========
+
+    /** Interna los valores y, con lookup tables, resuelve sus ids. El texto queda (lo usan fingerprint y claves). */
+    public void encode(Restaurant r) {
+        r.setCategory(intern(r.getCategory()));
+        r.setCity(intern(r.getCity()));
+        r.setState(intern(r.getState()));
+        r.setPriceRange(intern(r.getPriceRange()));
+        if (lookupTables) {
+            r.setCategoryId(id(Dictionary.RESTAURANT_CATEGORY, r.getCategory()));
+            r.setCityId(id(Dictionary.CITY, r.getCity()));
+            r.setStateId(id(Dictionary.STATE, r.getState()));
+            r.setPriceRangeId(id(Dictionary.PRICE_RANGE, r.getPriceRange()));
+        }
+    }
+
+    public void encode(Menu m) {
+        m.setCategory(intern(m.getCategory()));
+        if (lookupTables) {
+            m.setCategoryId(id(Dictionary.MENU_CATEGORY, m.getCategory()));
+        }
+    }
+
+    /**
+     * keepText=false: el texto ya está en dict_*, la fila solo lleva el id. Un valor sin id (demasiado largo) se
+     * conserva. Llamar justo antes del write.
+     */
+    public void stripText(Restaurant r) {
+        if (lookupTables && !keepText) {
+            if (r.getCategoryId() != null) r.setCategory(null);
+            if (r.getCityId() != null) r.setCity(null);
+            if (r.getStateId() != null) r.setState(null);
+            if (r.getPriceRangeId() != null) r.setPriceRange(null);
+        }
+    }
+
+    public void stripText(Menu m) {
+        if (lookupTables && !keepText && m.getCategoryId() != null) {
+            m.setCategory(null);
+        }
+    }
+
+    private String intern(String value) {
+        return intern ? interner.intern(value) : value;
+    }
+
+    private Integer id(Dictionary d, String value) {
+        if (value == null) return null;
+        if (value.length() > MAX_VALUE_LENGTH && value.codePointCount(0, value.length()) > MAX_VALUE_LENGTH) {
+            tooLong.increment();
+            return null;
+        }
+        Map<String, Integer> values = ids.get(d);
+        Integer id = values.get(value);
+        return id != null ? id : values.computeIfAbsent(value, v -> insert(d, v));
+    }
+
+    private Integer insert(Dictionary d, String value) {
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("INSERT IGNORE INTO " + d.dictTable + " (value) VALUES (?)", value);
+            return jdbcTemplate.queryForObject("SELECT id FROM " + d.dictTable + " WHERE value = ?", Integer.class, value);
+        });
+    }
+
+    // ========= esquema =========
+
+    private void ensureSchema(Dictionary d) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + d.dictTable + " ("
+                + " id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,"
+                + " value " + VALUE_TYPE + ","
+                + " UNIQUE KEY uk_" + d.dictTable + "_value (value))");
+
+        boolean hasIdColumn = MySqlSchema.hasColumn(jdbcTemplate, d.table, d.idColumn);
+        String collation = MySqlSchema.columnCollation(jdbcTemplate, d.dictTable, "value");
+        if (collation != null && !VALUE_COLLATION.equalsIgnoreCase(collation)) {
+            // creada antes con la collation por defecto: valores que solo difieren en mayúsculas compartían id
+            jdbcTemplate.execute("ALTER TABLE " + d.dictTable + " MODIFY value " + VALUE_TYPE);
+            if (hasIdColumn) {
+                long start = System.currentTimeMillis();
+                int fixed = backfill(d);
+                log.info("Converted {}.value to {}: {} {} rows re-linked in {} ms",
+                        d.dictTable, VALUE_COLLATION, fixed, d.table, System.currentTimeMillis() - start);
+            }
+        }
+        if (hasIdColumn) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("ALTER TABLE " + d.table + " ADD COLUMN " + d.idColumn + " INT NULL");
+        jdbcTemplate.execute("ALTER TABLE " + d.table
+                + " ADD CONSTRAINT fk_" + d.table + "_" + d.idColumn
+                + " FOREIGN KEY (" + d.idColumn + ") REFERENCES " + d.dictTable + " (id)");
+        int filled = backfill(d);
+        log.info("Added {}.{} referencing {}: {} rows filled in {} ms",
+                d.table, d.idColumn, d.dictTable, filled, System.currentTimeMillis() - start);
+    }
+
+    /** Ids desde el texto que ya está en la tabla (las filas con keepText=false no tienen texto: quedan igual). */
+    private int backfill(Dictionary d) {
+        // sin DISTINCT: con la collation de la tabla "Pizza" y "pizza" serían un solo valor; el unique key
+        // (utf8mb4_bin) deduplica
+        jdbcTemplate.update("INSERT IGNORE INTO " + d.dictTable + " (value)"
+                + " SELECT " + d.textColumn + " FROM " + d.table + " WHERE " + d.textColumn + " IS NOT NULL"
+                + " AND CHAR_LENGTH(" + d.textColumn + ") <= " + MAX_VALUE_LENGTH);
+        // x.value = t.<texto> compara en utf8mb4_bin (la collation _bin gana contra la de la columna)
+        return jdbcTemplate.update("UPDATE " + d.table + " t SET " + d.idColumn + " ="
+                + " (SELECT x.id FROM " + d.dictTable + " x WHERE x.value = t." + d.textColumn + ")"
+                + " WHERE " + d.textColumn + " IS NOT NULL");
+    }
+}
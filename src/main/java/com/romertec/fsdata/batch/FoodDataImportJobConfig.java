@@ -1,316 +1,370 @@
 package com.romertec.fsdata.batch;
 
+import com.romertec.fsdata.FoodDataProperties;
 import com.romertec.fsdata.entity.Menu;
 import com.romertec.fsdata.entity.Restaurant;
-import com.romertec.fsdata.policy.QuoteBalancedRecordSeparatorPolicy;
-import com.romertec.fsdata.policy.QuotedMultilineRecordSeparatorPolicy;
-import com.romertec.fsdata.support.CsvUtils;
 import com.romertec.fsdata.support.MenuCsvRow;
-import com.romertec.fsdata.support.PriceParser;
 import com.romertec.fsdata.support.RestaurantCsvRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.batch.core.ChunkListener;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
-import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.job.builder.FlowBuilder;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.flow.Flow;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.core.partition.PartitionHandler;
 import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.FaultTolerantStepBuilder;
+import org.springframework.batch.core.step.builder.PartitionStepBuilder;
+import org.springframework.batch.core.step.builder.SimpleStepBuilder;
 import org.springframework.batch.item.ItemProcessor;
-import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
-import org.springframework.batch.item.database.JdbcBatchItemWriter;
-import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ItemWriter;
 import org.springframework.batch.item.file.FlatFileParseException;
-import org.springframework.batch.item.file.builder.FlatFileItemReaderBuilder;
-import org.springframework.batch.item.file.mapping.BeanWrapperFieldSetMapper;
-import org.springframework.batch.item.file.mapping.DefaultLineMapper;
-import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.batch.repeat.CompletionPolicy;
+import org.springframework.batch.repeat.policy.SimpleCompletionPolicy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.util.StringUtils;
 
-import javax.sql.DataSource;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
 
+/** Job y steps del import; readers, processors, writers y features opcionales en su propio *Config. */
 @Configuration
 public class FoodDataImportJobConfig {
 
-    // Ajusta el chunk según el tamaño real de los/player files
+    // Ajusta el chunk según el tamaño real de los/player files (con fooddata.chunk.adaptive.enabled es el inicial)
     private static final int CHUNK_SIZE = 1000;
 
+    private final FoodDataProperties properties;
+
+    public FoodDataImportJobConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
     // ========= JOB =========
 
     @Bean
     public Job foodDataImportJob(
             JobRepository jobRepository,
             Step importRestaurantsStep,
-            Step importMenusStep
+            Step importMenusStep,
+            Step importRestaurantsPartitionedStep,
+            Step importMenusPartitionedStep,
+            Step prepareStagingStep,
+            Step mergeStagingStep,
+            Step checkManifestStep,
+            Step saveManifestStep,
+            InputFileManifest inputFileManifest,
+            DictionaryEncoder dictionaryEncoder,
+            MenuPriceEncoder menuPriceEncoder,
+            RestaurantGeoEncoder restaurantGeoEncoder,
+            ImportMetrics importMetrics
     ) {
-        return new JobBuilder("foodDataImportJob", jobRepository)
-                .start(importRestaurantsStep)
-                .next(importMenusStep)
+        FoodDataProperties.Partition partition = properties.partition();
+        Step restaurants = partition.runs(properties.input().restaurants()) ? importRestaurantsPartitionedStep : importRestaurantsStep;
+        Step menus = partition.runs(properties.input().menus()) ? importMenusPartitionedStep : importMenusStep;
+        // diccionarios, precio y coordenadas: esquema + carga antes del primer step (también antes de las staging)
+        JobBuilder job = new JobBuilder("foodDataImportJob", jobRepository)
+                .listener(dictionaryEncoder);
+        if (properties.price().enabled()) {
+            job.listener(menuPriceEncoder);
+        }
+        if (properties.geo().enabled()) {
+            job.listener(restaurantGeoEncoder);
+        }
+        if (properties.metrics().enabled()) {
+            job.listener(importMetrics); // reporte de métricas por fase al terminar
+        }
+        boolean staging = properties.load().staging();
+
+        if (properties.manifest().enabled() && staging) {
+            // staging importa todo o nada: el merge (y delete-missing) necesita las dos staging completas
+            return job
+                    .flow(checkManifestStep)
+                    .next(skipIfUnchanged("stagingImportFlow",
+                            inputFileManifest.decider(ManifestConfig.INPUT_RESTAURANTS, ManifestConfig.INPUT_MENUS),
+                            prepareStagingStep, restaurants, menus, mergeStagingStep))
+                    .next(saveManifestStep)
+                    .end()
+                    .build();
+        }
+
+        if (properties.manifest().enabled()) {
+            // cada import se salta si su archivo no cambió desde la última corrida exitosa
+            return job
+                    .flow(checkManifestStep)
+                    .next(skipIfUnchanged("restaurantsImportFlow", inputFileManifest.decider(ManifestConfig.INPUT_RESTAURANTS), restaurants))
+                    .next(skipIfUnchanged("menusImportFlow", inputFileManifest.decider(ManifestConfig.INPUT_MENUS), menus))
+                    .next(saveManifestStep)
+                    .end()
+                    .build();
+        }
+
+        if (staging) {
+            return job
+                    .start(prepareStagingStep)
+                    .next(restaurants)
+                    .next(menus)
+                    .next(mergeStagingStep)
+                    .build();
+        }
+        return job
+                .start(restaurants)
+                .next(menus)
                 .build();
     }
 
+    /** decider -> UNCHANGED: termina el sub-flow sin correr nada; si no, corre los steps en orden. */
+    private static Flow skipIfUnchanged(String name, JobExecutionDecider decider, Step... steps) {
+        FlowBuilder<Flow> builder = new FlowBuilder<Flow>(name)
+                .start(decider)
+                .on(InputFileManifest.UNCHANGED.getName()).end()
+                .from(decider).on("*").to(steps[0]);
+        for (int i = 1; i < steps.length; i++) {
+            builder.next(steps[i]);
+        }
+        return builder.build();
+    }
+
     // ========= STEPS =========
 
     @Bean
     public Step importRestaurantsStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            FlatFileItemReader<RestaurantCsvRow> restaurantsReader,
+            ItemStreamReader<RestaurantCsvRow> restaurantsReader,
             ItemProcessor<RestaurantCsvRow, Restaurant> restaurantProcessor,
-            JdbcBatchItemWriter<Restaurant> restaurantWriter
+            ItemWriter<Restaurant> restaurantWriter,
+            ItemProcessor<Restaurant, Restaurant> restaurantIdentityProcessor,
+            ItemStreamReader<Restaurant> restaurantsPipelinedReader,
+            RowChangeTracker restaurantChangeTracker,
+            RestaurantIdRegistry restaurantIdRegistry,
+            AdaptiveChunkSizePolicy restaurantChunkPolicy,
+            ImportMetrics importMetrics
     ) {
-        return new org.springframework.batch.core.step.builder.StepBuilder("importRestaurantsStep", jobRepository)
-                .<RestaurantCsvRow, Restaurant>chunk(CHUNK_SIZE, transactionManager)
-                .reader(restaurantsReader)
-                .processor(restaurantProcessor)
-                .writer(restaurantWriter)
-                .build();
+        CompletionPolicy chunks = properties.chunk().adaptive().enabled() ? restaurantChunkPolicy
+                : new SimpleCompletionPolicy(CHUNK_SIZE);
+        ChunkListener stepMetrics = properties.metrics().enabled() ? importMetrics.step("importRestaurantsStep") : null;
+        // Con particiones estos listeners van en el manager (una carga/guardado por corrida, no por partición)
+        List<StepExecutionListener> listeners = properties.partition().runs(properties.input().restaurants()) ? List.of()
+                : restaurantRunListeners(restaurantChangeTracker, restaurantIdRegistry);
+
+        if (properties.pipeline().enabled()) {
+            // lectura + limpieza en el thread parser; diccionarios, registry y tracker en este thread, dentro del chunk
+            SimpleStepBuilder<Restaurant, Restaurant> builder =
+                    new org.springframework.batch.core.step.builder.StepBuilder("importRestaurantsStep", jobRepository)
+                            .<Restaurant, Restaurant>chunk(chunks, transactionManager)
+                            .reader(restaurantsPipelinedReader)
+                            .processor(restaurantIdentityProcessor)
+                            .writer(restaurantWriter);
+            listeners.forEach(builder::listener);
+            if (chunks instanceof ChunkListener l) builder.listener(l);
+            if (stepMetrics != null) builder.listener(stepMetrics);
+            return builder.build();
+        }
+
+        SimpleStepBuilder<RestaurantCsvRow, Restaurant> builder =
+                new org.springframework.batch.core.step.builder.StepBuilder("importRestaurantsStep", jobRepository)
+                        .<RestaurantCsvRow, Restaurant>chunk(chunks, transactionManager)
+                        .reader(restaurantsReader)
+                        .processor(restaurantProcessor)
+                        .writer(restaurantWriter);
+        listeners.forEach(builder::listener);
+        if (chunks instanceof ChunkListener l) builder.listener(l);
+        if (stepMetrics != null) builder.listener(stepMetrics);
+        return builder.build();
     }
 
     @Bean
     public Step importMenusStep(
             JobRepository jobRepository,
             PlatformTransactionManager transactionManager,
-            FlatFileItemReader<MenuCsvRow> menusReader,
+            ItemStreamReader<MenuCsvRow> menusReader,
             ItemProcessor<MenuCsvRow, Menu> menuProcessor,
-            JdbcBatchItemWriter<Menu> menuWriter
+            ItemWriter<Menu> menuWriter,
+            ItemProcessor<Menu, Menu> menuIdentityProcessor,
+            ItemStreamReader<Menu> menusPipelinedReader,
+            RowChangeTracker menuChangeTracker,
+            OrphanMenuFilter orphanMenuFilter,
+            MenuPriceEncoder menuPriceEncoder,
+            MenuSearchIndexer menuSearchIndexer,
+            AdaptiveChunkSizePolicy menuChunkPolicy,
+            ImportMetrics importMetrics
     ) {
-        return new org.springframework.batch.core.step.builder.StepBuilder("importMenusStep", jobRepository)
-                .<MenuCsvRow, Menu>chunk(CHUNK_SIZE, transactionManager)
-                .reader(menusReader)
-                .processor(menuProcessor)
-                .writer(menuWriter)
-                .faultTolerant()
-                .skip(FlatFileParseException.class)
-                .skipLimit(100000)
-                .build();
-    }
-
-    // ========= READERS =========
-
-    @Bean
-    @StepScope
-    public FlatFileItemReader<RestaurantCsvRow> restaurantsReader(
-            @Value("${fooddata.base-dir}") String baseDir
-    ) {
-        String path = normalizeDir(baseDir) + "restaurants.csv";
-
-        FlatFileItemReader<RestaurantCsvRow> reader = new FlatFileItemReader<>();
-        reader.setName("restaurantsCsvReader");      // estable para restart
-        reader.setResource(new FileSystemResource(path));
-        reader.setLinesToSkip(1);
-        reader.setSaveState(true);
-        reader.setStrict(true);
-
-        // CLAVE: soportar records multi-línea cuando hay \n dentro de campos "quoted"
-        reader.setRecordSeparatorPolicy(new QuoteBalancedRecordSeparatorPolicy('"'));
-
-        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
-        tokenizer.setDelimiter(",");
-        tokenizer.setQuoteCharacter('"');            // CLAVE: CSV con comillas
-        tokenizer.setStrict(false);
+        CompletionPolicy chunks = properties.chunk().adaptive().enabled() ? menuChunkPolicy
+                : new SimpleCompletionPolicy(CHUNK_SIZE);
+        List<ChunkListener> chunkListeners = new ArrayList<>();
+        if (chunks instanceof ChunkListener l) chunkListeners.add(l);
+        if (properties.orphans().filter().enabled()) chunkListeners.add(orphanMenuFilter.commits()); // también en cada partición
+        if (properties.metrics().enabled()) chunkListeners.add(importMetrics.step("importMenusStep"));
+        List<StepExecutionListener> listeners = properties.partition().runs(properties.input().menus()) ? List.of()
+                : menuRunListeners(menuChangeTracker, orphanMenuFilter, menuPriceEncoder, menuSearchIndexer);
+
+        if (properties.pipeline().enabled() || properties.menus().async().enabled()) {
+            // lectura + limpieza en el thread parser (async: limpieza en paralelo); ids, filtros y archivos en este
+            // thread, en el processor (como el step normal)
+            FaultTolerantStepBuilder<Menu, Menu> builder =
+                    new org.springframework.batch.core.step.builder.StepBuilder("importMenusStep", jobRepository)
+                            .<Menu, Menu>chunk(chunks, transactionManager)
+                            .reader(menusPipelinedReader)
+                            .processor(menuIdentityProcessor)
+                            .writer(menuWriter)
+                            .faultTolerant()
+                            .skip(FlatFileParseException.class)
+                            .skipLimit(100000)
+                            .processorNonTransactional();
+            listeners.forEach(builder::listener);
+            chunkListeners.forEach(builder::listener);
+            return builder.build();
+        }
 
-        // Si tu CSV trae EXACTAMENTE estas 11 columnas, esto está perfecto.
-        tokenizer.setNames(
-                "id", "position", "name", "score", "ratings", "category",
-                "priceRange", "fullAddress", "zipCode", "lat", "lng"
-        );
+        FaultTolerantStepBuilder<MenuCsvRow, Menu> builder =
+                new org.springframework.batch.core.step.builder.StepBuilder("importMenusStep", jobRepository)
+                        .<MenuCsvRow, Menu>chunk(chunks, transactionManager)
+                        .reader(menusReader)
+                        .processor(menuProcessor)
+                        .writer(menuWriter)
+                        .faultTolerant()
+                        .skip(FlatFileParseException.class)
+                        .skipLimit(100000)
+                        // el processor asigna ids: si el write hace rollback se reusan los items ya procesados
+                        .processorNonTransactional();
+        listeners.forEach(builder::listener);
+        chunkListeners.forEach(builder::listener);
+        return builder.build();
+    }
 
-        // OPCIONAL (recomendado): si el CSV a veces trae columnas extra, fija el mapping a las 11 esperadas
-        tokenizer.setIncludedFields(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+    // Listeners que cargan/guardan estado una vez por corrida del import (van en el step de más arriba)
+    private List<StepExecutionListener> restaurantRunListeners(RowChangeTracker changeTracker,
+                                                               RestaurantIdRegistry idRegistry) {
+        List<StepExecutionListener> listeners = new ArrayList<>();
+        if (properties.changeDetection().enabled()) listeners.add(changeTracker);
+        if (properties.orphans().filter().enabled()) listeners.add(idRegistry);
+        return listeners;
+    }
 
-        BeanWrapperFieldSetMapper<RestaurantCsvRow> mapper = new BeanWrapperFieldSetMapper<>();
-        mapper.setTargetType(RestaurantCsvRow.class);
+    private List<StepExecutionListener> menuRunListeners(RowChangeTracker changeTracker,
+                                                         OrphanMenuFilter orphanMenuFilter,
+                                                         MenuPriceEncoder priceEncoder,
+                                                         MenuSearchIndexer searchIndexer) {
+        List<StepExecutionListener> listeners = new ArrayList<>();
+        if (properties.changeDetection().enabled()) listeners.add(changeTracker);
+        if (properties.orphans().filter().enabled()) listeners.add(orphanMenuFilter);
+        if (properties.price().enabled()) listeners.add(priceEncoder);
+        if (properties.search().index().enabled()) listeners.add(searchIndexer);
+        return listeners;
+    }
 
-        DefaultLineMapper<RestaurantCsvRow> lineMapper = new DefaultLineMapper<>();
-        lineMapper.setLineTokenizer(tokenizer);
-        lineMapper.setFieldSetMapper(mapper);
+    // ========= CHUNK ADAPTATIVO (fooddata.chunk.adaptive.enabled) =========
 
-        reader.setLineMapper(lineMapper);
-        return reader;
+    @Bean
+    public AdaptiveChunkSizePolicy restaurantChunkPolicy() {
+        return adaptiveChunkPolicy("restaurants");
     }
 
-
     @Bean
-    @StepScope
-    public FlatFileItemReader<MenuCsvRow> menusReader(
-            @Value("${fooddata.base-dir}") String baseDir
-    ) {
-        String path = normalizeDir(baseDir) + "restaurant-menus.csv";
-
-        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
-        tokenizer.setDelimiter(",");
-        tokenizer.setStrict(false);
-
-        // CLAVE: el CSV tiene campos con comillas
-        tokenizer.setQuoteCharacter('"');
-
-        // Ajusta los nombres EXACTOS a tu CSV (ejemplo típico)
-        tokenizer.setNames(
-                "restaurantId",   // int
-                "category",       // string
-                "itemName",       // string
-                "description",    // string (puede traer saltos de línea / comas)
-                "price"           // string o decimal (según tu modelo)
-        );
-
-        BeanWrapperFieldSetMapper<MenuCsvRow> mapper = new BeanWrapperFieldSetMapper<>();
-        mapper.setTargetType(MenuCsvRow.class);
-
-        return new FlatFileItemReaderBuilder<MenuCsvRow>()
-                .name("menusCsvReader")                 // estable para restart
-                .resource(new FileSystemResource(path))
-                .linesToSkip(1)                         // header
-                .strict(true)
-                .saveState(true)
-                // CLAVE: recomponer líneas cuando un campo entrecomillado tiene \n
-                .recordSeparatorPolicy(new QuotedMultilineRecordSeparatorPolicy())
-                .lineTokenizer(tokenizer)
-                .fieldSetMapper(mapper)
-                .build();
+    public AdaptiveChunkSizePolicy menuChunkPolicy() {
+        return adaptiveChunkPolicy("menus");
     }
 
-    private static String normalizeDir(String baseDir) {
-        if (!StringUtils.hasText(baseDir)) {
-            throw new IllegalArgumentException("fooddata.base-dir is empty");
-        }
-        String d = baseDir.trim().replace("\\", "/");
-        if (!d.endsWith("/")) d += "/";
-        return d;
+    private AdaptiveChunkSizePolicy adaptiveChunkPolicy(String name) {
+        FoodDataProperties.Adaptive adaptive = properties.chunk().adaptive();
+        return new AdaptiveChunkSizePolicy(name, CHUNK_SIZE, adaptive.minSize(), adaptive.maxSize(),
+                adaptive.targetCommitMs(), adaptive.maxBytes(), FoodDataImportJobConfig::estimatedBytes);
     }
-    // ========= PROCESSORS =========
 
-    @Bean
-    public ItemProcessor<RestaurantCsvRow, Restaurant> restaurantProcessor() {
-        return row -> {
-            if (row == null || row.getId() == null) {
-                return null;
-            }
-
-            Restaurant r = new Restaurant();
-            r.setId(row.getId());
-            r.setName(CsvUtils.clean(row.getName()));
-            r.setCategory(CsvUtils.clean(row.getCategory()));
-            r.setPosition(CsvUtils.clean(row.getPosition()));
-            r.setScore(CsvUtils.clean(row.getScore()));
-            // DB column is `raitings` (typo en la tabla), CSV trae `ratings`
-            r.setRaitings(CsvUtils.clean(row.getRatings()));
-            r.setPriceRange(CsvUtils.clean(row.getPriceRange()));
-            r.setLat(CsvUtils.clean(row.getLat()));
-            r.setLng(CsvUtils.clean(row.getLng()));
-
-            CsvUtils.AddressParts ap = CsvUtils.parseFullAddress(row.getFullAddress(), row.getZipCode());
-            r.setStreet(ap.street());
-            r.setCity(ap.city());
-            r.setState(ap.state());
-            r.setZip(ap.zip());
-            r.setUnit(ap.unit());
-
-            return r;
-        };
+    // Bytes aproximados de una fila escrita (texto + ~8 por columna numérica)
+    private static int estimatedBytes(Object item) {
+        if (item instanceof Menu m) {
+            return len(m.getCategory()) + len(m.getName()) + len(m.getDescription()) + len(m.getPrice()) + 40;
+        }
+        if (item instanceof Restaurant r) {
+            return len(r.getName()) + len(r.getCategory()) + len(r.getPriceRange()) + len(r.getScore())
+                    + len(r.getRaitings()) + len(r.getStreet()) + len(r.getCity()) + len(r.getState())
+                    + len(r.getZip()) + len(r.getGeohash()) + 48;
+        }
+        return 0;
     }
 
-    @Bean
-    public ItemProcessor<MenuCsvRow, Menu> menuProcessor(JdbcTemplate jdbcTemplate) {
-        return row -> {
-            if (row == null || row.getRestaurantId() == null) {
-                return null;
-            }
-
-            Menu m = new Menu();
-            m.setId(nextIdFromSeqTable(jdbcTemplate, "menu_seq")); // genera id desde la tabla seq
-            m.setRestaurantId(row.getRestaurantId());
-            m.setCategory(CsvUtils.clean(row.getCategory()));
-            m.setName(CsvUtils.clean(row.getName()));
-            m.setDescription(CsvUtils.clean(row.getDescription()));
-            m.setPrice(PriceParser.normalize(row.getPrice()));
-
-            return m;
-        };
+    private static int len(String s) {
+        return s == null ? 0 : s.length();
     }
 
-    // ========= WRITERS (JDBC batch) =========
+    // ========= PARTITIONS (rangos de bytes o un shard por partición; mode=remote: workers en otras JVMs) =========
 
+    // OJO: cada partición local toma una conexión para el chunk; el pool de Hikari debe dar abasto
     @Bean
-    public JdbcBatchItemWriter<Restaurant> restaurantWriter(DataSource dataSource) {
-        JdbcBatchItemWriter<Restaurant> writer = new JdbcBatchItemWriter<>();
-        writer.setDataSource(dataSource);
-        writer.setSql("""
-                INSERT INTO restaurants
-                (id, category, city, lat, lng, name, position, price_range, raitings, score, state, street, unit, zip)
-                VALUES
-                (:id, :category, :city, :lat, :lng, :name, :position, :priceRange, :raitings, :score, :state, :street, :unit, :zip)
-                ON DUPLICATE KEY UPDATE
-                category=VALUES(category),
-                city=VALUES(city),
-                lat=VALUES(lat),
-                lng=VALUES(lng),
-                name=VALUES(name),
-                position=VALUES(position),
-                price_range=VALUES(price_range),
-                raitings=VALUES(raitings),
-                score=VALUES(score),
-                state=VALUES(state),
-                street=VALUES(street),
-                unit=VALUES(unit),
-                zip=VALUES(zip)
-                """);
-
-        writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>());
-        return writer;
+    public Step importRestaurantsPartitionedStep(
+            JobRepository jobRepository,
+            Step importRestaurantsStep,
+            TaskExecutor partitionTaskExecutor,
+            JobRepositoryPartitions jobRepositoryPartitions,
+            RowChangeTracker restaurantChangeTracker,
+            RestaurantIdRegistry restaurantIdRegistry
+    ) {
+        PartitionHandler handler = partitionHandler(importRestaurantsStep, partitionTaskExecutor, jobRepositoryPartitions);
+        PartitionStepBuilder builder =
+                new org.springframework.batch.core.step.builder.StepBuilder("importRestaurantsPartitionedStep", jobRepository)
+                        .partitioner("importRestaurantsStep",
+                                new ShardPartitioner(properties.baseDirectory(), properties.input().restaurants()))
+                        .partitionHandler(handler);
+        if (handler instanceof StepExecutionListener l) builder.listener(l); // antes que los de corrida
+        restaurantRunListeners(restaurantChangeTracker, restaurantIdRegistry).forEach(builder::listener);
+        return builder.build();
     }
 
     @Bean
-    public JdbcBatchItemWriter<Menu> menuWriter(DataSource dataSource) {
-        JdbcBatchItemWriter<Menu> writer = new JdbcBatchItemWriter<>();
-        writer.setDataSource(dataSource);
-        writer.setSql("""
-                INSERT INTO menu
-                (id, category, description, name, price, restaurant_id)
-                VALUES
-                (:id, :category, :description, :name, :price, :restaurantId)
-                ON DUPLICATE KEY UPDATE
-                description=VALUES(description)
-                """);
-
-        writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>());
-        return writer;
+    public Step importMenusPartitionedStep(
+            JobRepository jobRepository,
+            Step importMenusStep,
+            TaskExecutor partitionTaskExecutor,
+            JobRepositoryPartitions jobRepositoryPartitions,
+            RowChangeTracker menuChangeTracker,
+            OrphanMenuFilter orphanMenuFilter,
+            MenuPriceEncoder menuPriceEncoder,
+            MenuSearchIndexer menuSearchIndexer
+    ) {
+        PartitionHandler handler = partitionHandler(importMenusStep, partitionTaskExecutor, jobRepositoryPartitions);
+        PartitionStepBuilder builder =
+                new org.springframework.batch.core.step.builder.StepBuilder("importMenusPartitionedStep", jobRepository)
+                        .partitioner("importMenusStep",
+                                new ShardPartitioner(properties.baseDirectory(), properties.input().menus()))
+                        .partitionHandler(handler);
+        if (handler instanceof StepExecutionListener l) builder.listener(l); // antes que los de corrida
+        menuRunListeners(menuChangeTracker, orphanMenuFilter, menuPriceEncoder, menuSearchIndexer)
+                .forEach(builder::listener);
+        return builder.build();
     }
 
-    // ========= SEQ ID (MySQL table seq con 1 fila, col: next_val) =========
-
-    /**
-     * Genera un id incremental usando una tabla tipo:
-     * CREATE TABLE menu_seq (next_val bigint DEFAULT NULL);
-     * <p>
-     * Estrategia:
-     * - Asume 1 sola fila en la tabla.
-     * - Si está vacía, inserta next_val=1.
-     * - Hace SELECT ... FOR UPDATE dentro de la transacción del chunk.
-     */
-    private int nextIdFromSeqTable(JdbcTemplate jdbcTemplate, String seqTableName) {
-        String update = "UPDATE " + seqTableName + " SET next_val = LAST_INSERT_ID(next_val + 1)";
-        String select = "SELECT LAST_INSERT_ID()";
-
-        int updated = jdbcTemplate.update(update);
-        if (updated == 0) {
-            jdbcTemplate.update("INSERT INTO " + seqTableName + " (next_val) VALUES (1)");
-            jdbcTemplate.update(update);
+    private PartitionHandler partitionHandler(Step step, TaskExecutor taskExecutor, JobRepositoryPartitions partitions) {
+        int gridSize = properties.partition().gridSize();
+        if (properties.partition().isRemote()) {
+            return new JobRepositoryPartitionHandler(partitions, step.getName(), gridSize);
         }
+        LargestFirstPartitionHandler handler = new LargestFirstPartitionHandler();
+        handler.setStep(step);
+        handler.setGridSize(gridSize);
+        handler.setTaskExecutor(taskExecutor);
+        return handler;
+    }
 
-        Long newVal = jdbcTemplate.queryForObject(select, Long.class);
-        long id = (newVal == null) ? 0 : (newVal - 1); // porque incrementamos antes
-        if (id <= 0) id = 1;
-
-        if (id > Integer.MAX_VALUE) {
-            throw new IllegalStateException("Sequence overflow in " + seqTableName + ": " + id);
-        }
-        return (int) id;
+    @Bean
+    public TaskExecutor partitionTaskExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("import-partition-");
+        executor.setConcurrencyLimit(properties.partition().gridSize());
+        return executor;
     }
 
-}
\ No newline at end of file
+    // ========= MÉTRICAS (fooddata.metrics.enabled) =========
+
+    @Bean
+    public ImportMetrics importMetrics(MeterRegistry meterRegistry) {
+        return new ImportMetrics(meterRegistry, properties.metricsReportFile());
+    }
+}
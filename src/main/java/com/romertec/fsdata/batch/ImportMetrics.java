@@ -0,0 +1,344 @@
+package com.romertec.fsdata.batch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ItemProcessListener;
+import org.springframework.batch.core.ItemReadListener;
+import org.springframework.batch.core.ItemWriteListener;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.SkipListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.batch.item.file.transform.LineTokenizer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Métricas de Micrometer por fase del import (tag step = importRestaurantsStep / importMenusStep):
+ * <p>
+ * - fooddata.import.phase (Timer, tag phase): read (todo el reader: I/O + tokenize + map), tokenize, map, process
+ *   y write (el writer).
+ * - fooddata.import.commit y fooddata.import.chunk (Timers con histograma): del fin del write al commit, y el chunk
+ *   completo. fooddata.import.chunk.items: items escritos por chunk.
+ * - fooddata.import.read.bytes, fooddata.import.records, fooddata.import.records.multiline: lo que arman los readers.
+ * - fooddata.import.items (tag outcome: read / filtered / written) y fooddata.import.skipped (tag phase).
+ * <p>
+ * Se ven en /actuator/prometheus y /actuator/metrics. Además, al terminar el job se escribe {@code reportFile} con
+ * lo de esta corrida (contadores y tiempos totales como diferencia contra el inicio del job; max y percentiles tal
+ * cual los da el registry).
+ * <p>
+ * Con el step async el processor solo encola (process = tiempo de submit y no se ven los filtrados); con el
+ * pipeline el processor corre dentro del reader (queda en read).
+ */
+public class ImportMetrics implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportMetrics.class);
+
+    public static final String PREFIX = "fooddata.import";
+
+    private final MeterRegistry registry;
+    private final Path reportFile;
+    private final Map<String, StepMetrics> steps = new ConcurrentHashMap<>();
+
+    private volatile Map<Meter.Id, Map<Statistic, Double>> baseline = Map.of();
+
+    public ImportMetrics(MeterRegistry registry, Path reportFile) {
+        this.registry = registry;
+        this.reportFile = reportFile;
+    }
+
+    /** Métricas de un step (una instancia por nombre; las particiones del mismo step la comparten). */
+    public StepMetrics step(String stepName) {
+        return steps.computeIfAbsent(stepName, name -> new StepMetrics(registry, name));
+    }
+
+    // ========= reporte al final del job =========
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        baseline = snapshot();
+    }
+
+    @Override
+    public void afterJob(JobExecution jobExecution) {
+        Map<Meter.Id, Map<Statistic, Double>> start = baseline;
+        List<Meter> meters = new ArrayList<>();
+        for (Meter meter : registry.getMeters()) {
+            if (meter.getId().getName().startsWith(PREFIX)) meters.add(meter);
+        }
+        meters.sort(Comparator.comparing((Meter m) -> m.getId().getName()).thenComparing(m -> tags(m.getId())));
+
+        try {
+            Files.createDirectories(reportFile.toAbsolutePath().getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                out.write("# job " + jobExecution.getJobInstance().getJobName() + " execution " + jobExecution.getId()
+                        + " " + jobExecution.getStatus() + " " + Instant.now());
+                out.newLine();
+                for (Meter meter : meters) {
+                    Map<Statistic, Double> before = start.getOrDefault(meter.getId(), Map.of());
+                    StringBuilder line = new StringBuilder(meter.getId().getName()).append(tags(meter.getId()));
+                    for (Measurement m : meter.measure()) {
+                        double value = m.getValue();
+                        if (cumulative(m.getStatistic())) value -= before.getOrDefault(m.getStatistic(), 0.0);
+                        line.append(' ').append(m.getStatistic().getTagValueRepresentation()).append('=').append(value);
+                    }
+                    out.write(line.toString());
+                    out.newLine();
+                }
+            }
+            log.info("Import metrics for execution {} written to {}", jobExecution.getId(), reportFile);
+        } catch (IOException e) {
+            // el reporte no tiene que cambiar el resultado del job
+            log.warn("Could not write import metrics to {}: {}", reportFile, e.toString());
+        }
+    }
+
+    private Map<Meter.Id, Map<Statistic, Double>> snapshot() {
+        Map<Meter.Id, Map<Statistic, Double>> values = new HashMap<>();
+        for (Meter meter : registry.getMeters()) {
+            if (!meter.getId().getName().startsWith(PREFIX)) continue;
+            Map<Statistic, Double> stats = new EnumMap<>(Statistic.class);
+            for (Measurement m : meter.measure()) {
+                if (cumulative(m.getStatistic())) stats.put(m.getStatistic(), m.getValue());
+            }
+            values.put(meter.getId(), stats);
+        }
+        return values;
+    }
+
+    private static boolean cumulative(Statistic statistic) {
+        return statistic == Statistic.COUNT || statistic == Statistic.TOTAL || statistic == Statistic.TOTAL_TIME;
+    }
+
+    private static String tags(Meter.Id id) {
+        return id.getTags().stream()
+                .map(t -> t.getKey() + "=" + t.getValue())
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+
+    // ========= por step =========
+
+    /**
+     * Listener del step (chunk + read + process + write + skip; se registra como ChunkListener y el builder lo
+     * agrega como los demás) y {@link RecordMetrics} para los readers. Los tiempos en curso son por thread.
+     */
+    public static final class StepMetrics implements RecordMetrics, ChunkListener, ItemReadListener<Object>,
+            ItemProcessListener<Object, Object>, ItemWriteListener<Object>, SkipListener<Object, Object> {
+
+        private final Timer read;
+        private final Timer tokenize;
+        private final Timer map;
+        private final Timer process;
+        private final Timer write;
+        private final Timer commit;
+        private final Timer chunk;
+        private final DistributionSummary chunkItems;
+        private final Counter bytes;
+        private final Counter records;
+        private final Counter multiline;
+        private final Counter itemsRead;
+        private final Counter filtered;
+        private final Counter written;
+        private final Counter skippedRead;
+        private final Counter skippedProcess;
+        private final Counter skippedWrite;
+
+        private final ThreadLocal<long[]> started = ThreadLocal.withInitial(() -> new long[5]);
+        private static final int READ = 0, PROCESS = 1, WRITE = 2, WRITE_END = 3, CHUNK = 4;
+
+        StepMetrics(MeterRegistry registry, String step) {
+            List<Tag> stepTag = List.of(Tag.of("step", step));
+            read = phase(registry, stepTag, "read");
+            tokenize = phase(registry, stepTag, "tokenize");
+            map = phase(registry, stepTag, "map");
+            process = phase(registry, stepTag, "process");
+            write = phase(registry, stepTag, "write");
+            commit = Timer.builder(PREFIX + ".commit").tags(stepTag)
+                    .description("Del fin del write al commit del chunk")
+                    .publishPercentiles(0.5, 0.95, 0.99).publishPercentileHistogram().register(registry);
+            chunk = Timer.builder(PREFIX + ".chunk").tags(stepTag)
+                    .description("Chunk completo: read + process + write + commit")
+                    .publishPercentiles(0.5, 0.95, 0.99).publishPercentileHistogram().register(registry);
+            chunkItems = DistributionSummary.builder(PREFIX + ".chunk.items").tags(stepTag)
+                    .publishPercentileHistogram().register(registry);
+            bytes = Counter.builder(PREFIX + ".read.bytes").tags(stepTag).baseUnit("bytes").register(registry);
+            records = Counter.builder(PREFIX + ".records").tags(stepTag).register(registry);
+            multiline = Counter.builder(PREFIX + ".records.multiline").tags(stepTag).register(registry);
+            itemsRead = items(registry, stepTag, "read");
+            filtered = items(registry, stepTag, "filtered");
+            written = items(registry, stepTag, "written");
+            skippedRead = skipped(registry, stepTag, "read");
+            skippedProcess = skipped(registry, stepTag, "process");
+            skippedWrite = skipped(registry, stepTag, "write");
+        }
+
+        private static Timer phase(MeterRegistry registry, List<Tag> stepTag, String phase) {
+            return Timer.builder(PREFIX + ".phase").tags(stepTag).tag("phase", phase).register(registry);
+        }
+
+        private static Counter items(MeterRegistry registry, List<Tag> stepTag, String outcome) {
+            return Counter.builder(PREFIX + ".items").tags(stepTag).tag("outcome", outcome).register(registry);
+        }
+
+        private static Counter skipped(MeterRegistry registry, List<Tag> stepTag, String phase) {
+            return Counter.builder(PREFIX + ".skipped").tags(stepTag).tag("phase", phase).register(registry);
+        }
+
+        /** LineMapper para los readers de líneas (flat, comprimido): tokenize + map medidos por separado. */
+        public <T> LineMapper<T> lineMapper(LineTokenizer tokenizer, FieldSetMapper<T> mapper) {
+            return new MeteredLineMapper<>(tokenizer, mapper, this);
+        }
+
+        // ========= RecordMetrics =========
+
+        @Override
+        public void record(long recordBytes, int lines, long tokenizeNanos, long mapNanos) {
+            bytes.increment(recordBytes);
+            records.increment();
+            if (lines > 1) multiline.increment();
+            tokenize.record(tokenizeNanos, TimeUnit.NANOSECONDS);
+            map.record(mapNanos, TimeUnit.NANOSECONDS);
+        }
+
+        // ========= chunk =========
+
+        @Override
+        public void beforeChunk(ChunkContext context) {
+            long[] t = started.get();
+            t[CHUNK] = System.nanoTime();
+            t[WRITE_END] = 0;
+        }
+
+        @Override
+        public void afterChunk(ChunkContext context) {
+            long[] t = started.get();
+            long now = System.nanoTime();
+            if (t[WRITE_END] != 0) commit.record(now - t[WRITE_END], TimeUnit.NANOSECONDS);
+            if (t[CHUNK] != 0) chunk.record(now - t[CHUNK], TimeUnit.NANOSECONDS);
+            t[CHUNK] = t[WRITE_END] = 0;
+        }
+
+        @Override
+        public void afterChunkError(ChunkContext context) {
+            long[] t = started.get();
+            t[CHUNK] = t[WRITE_END] = 0;
+        }
+
+        // ========= items =========
+
+        @Override
+        public void beforeRead() {
+            started.get()[READ] = System.nanoTime();
+        }
+
+        @Override
+        public void afterRead(Object item) {
+            read.record(System.nanoTime() - started.get()[READ], TimeUnit.NANOSECONDS);
+            itemsRead.increment();
+        }
+
+        @Override
+        public void beforeProcess(Object item) {
+            started.get()[PROCESS] = System.nanoTime();
+        }
+
+        @Override
+        public void afterProcess(Object item, Object result) {
+            process.record(System.nanoTime() - started.get()[PROCESS], TimeUnit.NANOSECONDS);
+            if (result == null) filtered.increment();
+        }
+
+        @Override
+        public void beforeWrite(Chunk<?> items) {
+            started.get()[WRITE] = System.nanoTime();
+        }
+
+        @Override
+        public void afterWrite(Chunk<?> items) {
+            long[] t = started.get();
+            long now = System.nanoTime();
+            write.record(now - t[WRITE], TimeUnit.NANOSECONDS);
+            written.increment(items.size());
+            chunkItems.record(items.size());
+            t[WRITE_END] = now;
+        }
+
+        // ========= skips =========
+
+        @Override
+        public void onSkipInRead(Throwable t) {
+            skippedRead.increment();
+        }
+
+        @Override
+        public void onSkipInProcess(Object item, Throwable t) {
+            skippedProcess.increment();
+        }
+
+        @Override
+        public void onSkipInWrite(Object item, Throwable t) {
+            skippedWrite.increment();
+        }
+    }
+
+    /**
+     * Los readers de líneas no cuentan bytes ni exponen las líneas de cada record: las líneas salen de la diferencia de
+     * lineNumber entre records (incluye comentarios salteados) y los bytes son caracteres + un salto por línea
+     * (exacto para ASCII; el reader mapeado informa bytes reales).
+     */
+    private static final class MeteredLineMapper<T> implements LineMapper<T> {
+
+        private final LineTokenizer tokenizer;
+        private final FieldSetMapper<T> mapper;
+        private final RecordMetrics metrics;
+        private int lastLineNumber = -1;
+
+        MeteredLineMapper(LineTokenizer tokenizer, FieldSetMapper<T> mapper, RecordMetrics metrics) {
+            this.tokenizer = tokenizer;
+            this.mapper = mapper;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public T mapLine(String line, int lineNumber) throws Exception {
+            long t0 = System.nanoTime();
+            FieldSet fieldSet = tokenizer.tokenize(line);
+            long t1 = System.nanoTime();
+            T item = mapper.mapFieldSet(fieldSet);
+            long t2 = System.nanoTime();
+
+            // primer record (o después de un restart): no hay referencia, se cuenta como 1 línea
+            int lines = lastLineNumber < 0 ? 1 : Math.max(1, lineNumber - lastLineNumber);
+            lastLineNumber = lineNumber;
+            metrics.record((long) line.length() + lines, lines, t1 - t0, t2 - t1);
+            return item;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.FoodDataProperties;
+import com.romertec.fsdata.entity.Menu;
+import com.romertec.fsdata.entity.Restaurant;
+import com.romertec.fsdata.support.CsvUtils;
+import com.romertec.fsdata.support.IdAllocator;
+import com.romertec.fsdata.support.MenuCsvRow;
+import com.romertec.fsdata.support.PriceParser;
+import com.romertec.fsdata.support.RestaurantCsvRow;
+import com.romertec.fsdata.support.RowFingerprint;
+import com.romertec.fsdata.support.SeqTableIdAllocator;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** Processors de restaurants y menus: limpieza (sin estado) e identidad (ids, filtros, diccionarios). */
+@Configuration
+public class ImportProcessorConfig {
+
+    private final FoodDataProperties properties;
+
+    public ImportProcessorConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
+    // ========= PROCESSORS =========
+
+    /** Limpieza + registro / detección de cambios (el step normal lo hace todo en el processor). */
+    @Bean
+    public ItemProcessor<RestaurantCsvRow, Restaurant> restaurantProcessor(
+            RestaurantGeoEncoder restaurantGeoEncoder,
+            ItemProcessor<Restaurant, Restaurant> restaurantIdentityProcessor
+    ) {
+        RestaurantGeoEncoder geoEncoder = properties.geo().enabled() ? restaurantGeoEncoder : null;
+        return row -> {
+            Restaurant r = cleanRestaurant(row, geoEncoder);
+            return r == null ? null : restaurantIdentityProcessor.process(r);
+        };
+    }
+
+    // Sin estado ni BD ni filtro: se puede correr adelantado (thread parser del pipeline). geoEncoder null: sin geo
+    static Restaurant cleanRestaurant(RestaurantCsvRow row, RestaurantGeoEncoder geoEncoder) {
+        if (row == null) {
+            return null;
+        }
+
+        Restaurant r = new Restaurant();
+        r.setId(row.getId());
+        r.setName(CsvUtils.clean(row.getName()));
+        r.setCategory(CsvUtils.clean(row.getCategory()));
+        r.setPosition(CsvUtils.clean(row.getPosition()));
+        r.setScore(CsvUtils.clean(row.getScore()));
+        // DB column is `raitings` (typo en la tabla), CSV trae `ratings`
+        r.setRaitings(CsvUtils.clean(row.getRatings()));
+        r.setPriceRange(CsvUtils.clean(row.getPriceRange()));
+        r.setLat(CsvUtils.clean(row.getLat()));
+        r.setLng(CsvUtils.clean(row.getLng()));
+        if (geoEncoder != null) geoEncoder.encode(r);
+
+        CsvUtils.AddressParts ap = CsvUtils.parseFullAddress(row.getFullAddress(), row.getZipCode());
+        r.setStreet(ap.street());
+        r.setCity(ap.city());
+        r.setState(ap.state());
+        r.setZip(ap.zip());
+        r.setUnit(ap.unit());
+        return r;
+    }
+
+    /** Filtra filas sin id, resuelve diccionarios y registra el restaurant; corre en el thread del step. */
+    @Bean
+    public ItemProcessor<Restaurant, Restaurant> restaurantIdentityProcessor(
+            RowChangeTracker restaurantChangeTracker,
+            RestaurantIdRegistry restaurantIdRegistry,
+            DictionaryEncoder dictionaryEncoder
+    ) {
+        boolean changeDetection = properties.changeDetection().enabled();
+        boolean orphanFilter = properties.orphans().filter().enabled();
+        return r -> {
+            if (r.getId() == null) {
+                return null;
+            }
+            dictionaryEncoder.encode(r);
+
+            if (orphanFilter) {
+                restaurantIdRegistry.add(r.getId()); // antes del filtro de cambios: sin cambios también existe
+            }
+            if (changeDetection && restaurantChangeTracker.track(r.getId(), restaurantFingerprint(r), r::getId) == null) {
+                return null; // igual que en la corrida anterior: no se escribe
+            }
+            dictionaryEncoder.stripText(r); // después del fingerprint: se calcula sobre el texto
+            return r;
+        };
+    }
+
+    private static long restaurantFingerprint(Restaurant r) {
+        long h = RowFingerprint.start();
+        h = RowFingerprint.add(h, r.getCategory());
+        h = RowFingerprint.add(h, r.getCity());
+        h = RowFingerprint.add(h, r.getLat());
+        h = RowFingerprint.add(h, r.getLng());
+        h = RowFingerprint.add(h, r.getName());
+        h = RowFingerprint.add(h, r.getPosition());
+        h = RowFingerprint.add(h, r.getPriceRange());
+        h = RowFingerprint.add(h, r.getRaitings());
+        h = RowFingerprint.add(h, r.getScore());
+        h = RowFingerprint.add(h, r.getState());
+        h = RowFingerprint.add(h, r.getStreet());
+        h = RowFingerprint.add(h, r.getUnit());
+        h = RowFingerprint.add(h, r.getZip());
+        return RowFingerprint.finish(h);
+    }
+
+    /** Limpieza + asignación de id (el step normal lo hace todo en el processor). */
+    @Bean
+    public ItemProcessor<MenuCsvRow, Menu> menuProcessor(ItemProcessor<Menu, Menu> menuIdentityProcessor) {
+        return row -> {
+            Menu m = cleanMenu(row);
+            return m == null ? null : menuIdentityProcessor.process(m);
+        };
+    }
+
+    // Sin estado ni BD ni filtro: se puede correr en paralelo (modo async) o adelantado (pipeline)
+    static Menu cleanMenu(MenuCsvRow row) {
+        if (row == null) {
+            return null;
+        }
+
+        Menu m = new Menu();
+        m.setRestaurantId(row.getRestaurantId());
+        m.setCategory(CsvUtils.clean(row.getCategory()));
+        m.setName(CsvUtils.clean(row.getName()));
+        m.setDescription(CsvUtils.clean(row.getDescription()));
+        m.setPrice(PriceParser.normalize(row.getPrice()));
+        return m;
+    }
+
+    /** Asigna el id del menu o lo filtra; depende del orden de llegada: corre en el thread del step. */
+    @Bean
+    public ItemProcessor<Menu, Menu> menuIdentityProcessor(
+            IdAllocator menuIdAllocator,
+            RowChangeTracker menuChangeTracker,
+            OrphanMenuFilter orphanMenuFilter,
+            DictionaryEncoder dictionaryEncoder,
+            MenuPriceEncoder menuPriceEncoder,
+            MenuSearchIndexer menuSearchIndexer
+    ) {
+        boolean changeDetection = properties.changeDetection().enabled();
+        boolean orphanFilter = properties.orphans().filter().enabled();
+        boolean price = properties.price().enabled();
+        boolean searchIndex = properties.search().index().enabled();
+        return m -> {
+            if (m.getRestaurantId() == null) {
+                return null;
+            }
+            if (price) menuPriceEncoder.encode(m); // antes de los demás filtros: el reporte cuenta todas las filas leídas
+            if (orphanFilter && !orphanMenuFilter.accept(m)) {
+                return null; // restaurant inexistente: al archivo de rechazos, sin id ni write (ni rollback por FK)
+            }
+            if (!changeDetection) {
+                m.setId(menuIdAllocator.nextId()); // id desde bloques reservados en menu_seq
+                if (searchIndex) menuSearchIndexer.add(m);
+                return encoded(m, dictionaryEncoder);
+            }
+
+            // key = identidad del plato; un plato ya conocido conserva su id (el upsert lo actualiza en su lugar)
+            long key = RowFingerprint.start();
+            key = RowFingerprint.add(key, m.getRestaurantId());
+            key = RowFingerprint.add(key, m.getCategory());
+            key = RowFingerprint.add(key, m.getName());
+            key = RowFingerprint.finish(key);
+
+            long h = RowFingerprint.start();
+            h = RowFingerprint.add(h, m.getDescription());
+            h = RowFingerprint.add(h, m.getPrice());
+
+            // el índice de búsqueda se arma entero: también con las filas sin cambios
+            Integer id = menuChangeTracker.track(key, RowFingerprint.finish(h), menuIdAllocator::nextId,
+                    searchIndex ? unchangedId -> menuSearchIndexer.add(unchangedId, m) : null);
+            if (id == null) {
+                return null; // igual que en la corrida anterior: no se escribe
+            }
+            m.setId(id);
+            if (searchIndex) menuSearchIndexer.add(m);
+            return encoded(m, dictionaryEncoder);
+        };
+    }
+
+    // Al final: la identidad del plato (key del tracker, rechazos) usa el texto de category
+    private static Menu encoded(Menu m, DictionaryEncoder dictionaryEncoder) {
+        dictionaryEncoder.encode(m);
+        dictionaryEncoder.stripText(m);
+        return m;
+    }
+
+    // ========= SEQ ID (MySQL table seq con 1 fila, col: next_val) =========
+
+    /** Reserva bloques de ids en menu_seq (1 UPDATE por bloque); block-size=1 es un round trip por fila. */
+    @Bean
+    public IdAllocator menuIdAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        return new SeqTableIdAllocator(jdbcTemplate, transactionManager, "menu_seq", properties.menu().idBlockSize());
+    }
+}
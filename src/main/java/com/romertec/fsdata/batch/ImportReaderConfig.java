@@ -0,0 +1,277 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.FoodDataProperties;
+import com.romertec.fsdata.entity.Menu;
+import com.romertec.fsdata.entity.Restaurant;
+import com.romertec.fsdata.policy.CsvRecordLexer;
+import com.romertec.fsdata.support.ByteRangeResource;
+import com.romertec.fsdata.support.CompressedInput;
+import com.romertec.fsdata.support.InputFiles;
+import com.romertec.fsdata.support.MenuCsvRow;
+import com.romertec.fsdata.support.MenuCsvRowFieldSetMapper;
+import com.romertec.fsdata.support.RestaurantCsvRow;
+import com.romertec.fsdata.support.RestaurantCsvRowFieldSetMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.LineMapper;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/** Readers de los CSV (flat, mapped o comprimido) y del pipeline (fooddata.reader.*, fooddata.pipeline.*). */
+@Configuration
+public class ImportReaderConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportReaderConfig.class);
+
+    private final FoodDataProperties properties;
+
+    public ImportReaderConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
+    // ========= READERS =========
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<RestaurantCsvRow> restaurantsReader(
+            ImportMetrics importMetrics,
+            TaskExecutor inputDecodeExecutor,
+            @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+            @Value("#{stepExecutionContext['fileName']}") String fileName
+    ) {
+        // el archivo de la partición (rango o shard), o fooddata.input.restaurants: restaurants.csv o su .gz / .zst
+        Path input = fileName != null ? Path.of(fileName) : singleInput(properties.input().restaurants());
+        String path = input.toString();
+
+        // Si tu CSV trae EXACTAMENTE estas 11 columnas, esto está perfecto.
+        String[] names = {
+                "id", "position", "name", "score", "ratings", "category",
+                "priceRange", "fullAddress", "zipCode", "lat", "lng"
+        };
+        // OPCIONAL (recomendado): si el CSV a veces trae columnas extra, fija el mapping a las 11 esperadas
+        int[] includedFields = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10};
+
+        // Mapping por posición (sin BeanWrapper/reflection por fila)
+        FieldSetMapper<RestaurantCsvRow> mapper = new RestaurantCsvRowFieldSetMapper();
+        ImportMetrics.StepMetrics recordMetrics = properties.metrics().enabled()
+                ? importMetrics.step("importRestaurantsStep") : null;
+
+        if (CompressedInput.isCompressed(input)) {
+            return compressedReader("restaurantsCsvReader", input, names, includedFields, mapper, recordMetrics,
+                    inputDecodeExecutor);
+        }
+        if (properties.reader().mapped()) {
+            return mappedReader("restaurantsCsvReader", path, startOffset, endOffset, names, includedFields, mapper,
+                    recordMetrics);
+        }
+        // las particiones ya empiezan después del header
+        return csvReader("restaurantsCsvReader", inputResource(path, startOffset, endOffset),
+                startOffset == null ? 1 : 0, names, includedFields, mapper, recordMetrics);
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<MenuCsvRow> menusReader(
+            ImportMetrics importMetrics,
+            TaskExecutor inputDecodeExecutor,
+            @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+            @Value("#{stepExecutionContext['fileName']}") String fileName
+    ) {
+        // el archivo de la partición (rango o shard), o fooddata.input.menus: restaurant-menus.csv o su .gz / .zst
+        Path input = fileName != null ? Path.of(fileName) : singleInput(properties.input().menus());
+        String path = input.toString();
+
+        // Ajusta los nombres EXACTOS a tu CSV (ejemplo típico)
+        String[] names = {
+                "restaurantId",   // int
+                "category",       // string
+                "itemName",       // string
+                "description",    // string (puede traer saltos de línea / comas)
+                "price"           // string o decimal (según tu modelo)
+        };
+
+        // Mapping por posición (sin BeanWrapper/reflection por fila)
+        FieldSetMapper<MenuCsvRow> mapper = new MenuCsvRowFieldSetMapper();
+        ImportMetrics.StepMetrics recordMetrics = properties.metrics().enabled()
+                ? importMetrics.step("importMenusStep") : null;
+
+        if (CompressedInput.isCompressed(input)) {
+            return compressedReader("menusCsvReader", input, names, null, mapper, recordMetrics, inputDecodeExecutor);
+        }
+        if (properties.reader().mapped()) {
+            return mappedReader("menusCsvReader", path, startOffset, endOffset, names, null, mapper, recordMetrics);
+        }
+        // header (las particiones ya lo saltan)
+        return csvReader("menusCsvReader", inputResource(path, startOffset, endOffset), startOffset == null ? 1 : 0,
+                names, null, mapper, recordMetrics);
+    }
+
+    // Records multi-línea: el mismo lexer separa records y tokeniza; el reader los arma en un StringBuilder
+    private static <T> CsvFileItemReader<T> csvReader(
+            String name, Resource resource, int linesToSkip,
+            String[] names, int[] includedFields, FieldSetMapper<T> mapper, ImportMetrics.StepMetrics recordMetrics
+    ) {
+        CsvRecordLexer lexer = lexer(names, includedFields);
+        CsvFileItemReader<T> reader = new CsvFileItemReader<>();
+        reader.setName(name);                        // estable para restart
+        reader.setResource(resource);
+        reader.setLinesToSkip(linesToSkip);
+        reader.setSaveState(true);
+        reader.setStrict(true);
+        reader.setLexer(lexer);
+        reader.setLineMapper(lineMapper(lexer, mapper, recordMetrics));
+        return reader;
+    }
+
+    // Mismo contrato que el reader flat, leyendo directo del archivo mapeado en memoria
+    private static <T> MappedCsvItemReader<T> mappedReader(
+            String name, String path, Long startOffset, Long endOffset,
+            String[] names, int[] includedFields, FieldSetMapper<T> mapper, RecordMetrics recordMetrics
+    ) {
+        MappedCsvItemReader<T> reader = new MappedCsvItemReader<>();
+        reader.setName(name);                        // estable para restart
+        reader.setPath(Path.of(path));
+        reader.setRange(startOffset, endOffset);
+        reader.setLinesToSkip(startOffset == null ? 1 : 0);
+        reader.setSaveState(true);
+        reader.setDelimiter(',');
+        reader.setQuoteCharacter('"');
+        reader.setNames(names);
+        if (includedFields != null) {
+            reader.setIncludedFields(includedFields);
+        }
+        reader.setFieldSetMapper(mapper);
+        reader.setRecordMetrics(recordMetrics);
+        return reader;
+    }
+
+    // Mismo contrato que el reader flat sobre un .gz / .zst; frames / miembros BGZF en paralelo en inputDecodeExecutor
+    private <T> CompressedCsvItemReader<T> compressedReader(
+            String name, Path path, String[] names, int[] includedFields, FieldSetMapper<T> mapper,
+            ImportMetrics.StepMetrics recordMetrics, TaskExecutor executor
+    ) {
+        CsvRecordLexer lexer = lexer(names, includedFields);
+        CompressedCsvItemReader<T> reader = new CompressedCsvItemReader<>();
+        reader.setName(name);                        // estable para restart
+        reader.setPath(path);
+        reader.setLinesToSkip(1);                    // header (un archivo comprimido no se parte por bytes)
+        reader.setSaveState(true);
+        reader.setLexer(lexer);
+        reader.setExecutor(executor, 2 * properties.input().decodeThreads());
+        reader.setLineMapper(lineMapper(lexer, mapper, recordMetrics));
+        return reader;
+    }
+
+    private static CsvRecordLexer lexer(String[] names, int[] includedFields) {
+        CsvRecordLexer lexer = new CsvRecordLexer(',', '"');
+        lexer.setNames(names);
+        if (includedFields != null) {
+            lexer.setIncludedFields(includedFields);
+        }
+        return lexer;
+    }
+
+    private static <T> LineMapper<T> lineMapper(CsvRecordLexer lexer, FieldSetMapper<T> mapper,
+                                                ImportMetrics.StepMetrics recordMetrics) {
+        if (recordMetrics != null) {
+            return recordMetrics.lineMapper(lexer, mapper);
+        }
+        DefaultLineMapper<T> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(lexer);
+        lineMapper.setFieldSetMapper(mapper);
+        return lineMapper;
+    }
+
+    /** Sin partición el input tiene que ser un solo archivo (un glob siempre corre particionado). */
+    private Path singleInput(String input) {
+        List<Path> files = InputFiles.resolve(properties.baseDirectory(), input);
+        if (files.size() != 1) {
+            throw new IllegalStateException(input + " matches " + files.size() + " files: shards run as partitions");
+        }
+        return files.get(0);
+    }
+
+    // Sin offsets (modo normal) se lee el archivo completo; con offsets, solo el rango de la partición
+    private static Resource inputResource(String path, Long startOffset, Long endOffset) {
+        if (startOffset == null || endOffset == null) {
+            return new FileSystemResource(path);
+        }
+        return new ByteRangeResource(Path.of(path), startOffset, endOffset);
+    }
+
+    /** Descompresión en paralelo de los .gz / .zst de entrada (frames / miembros BGZF, ver ParallelBlockInputStream). */
+    @Bean
+    public TaskExecutor inputDecodeExecutor() {
+        int threads = properties.input().decodeThreads();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("input-decode-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setDaemon(true);
+        return executor;
+    }
+
+    // ========= PIPELINE (fooddata.pipeline.enabled): parser y writer en threads distintos =========
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<Restaurant> restaurantsPipelinedReader(
+            ItemStreamReader<RestaurantCsvRow> restaurantsReader,
+            RestaurantGeoEncoder restaurantGeoEncoder
+    ) {
+        RestaurantGeoEncoder geoEncoder = properties.geo().enabled() ? restaurantGeoEncoder : null;
+        PipelinedItemReader<RestaurantCsvRow, Restaurant> reader = new PipelinedItemReader<>(restaurantsReader,
+                row -> ImportProcessorConfig.cleanRestaurant(row, geoEncoder), properties.pipeline().bufferSize());
+        reader.setName("restaurantsPipeline");      // estable para restart
+        return reader;
+    }
+
+    @Bean
+    @StepScope
+    public ItemStreamReader<Menu> menusPipelinedReader(
+            ItemStreamReader<MenuCsvRow> menusReader,
+            TaskExecutor menuProcessingTaskExecutor
+    ) {
+        PipelinedItemReader<MenuCsvRow, Menu> reader = new PipelinedItemReader<>(menusReader,
+                ImportProcessorConfig::cleanMenu, properties.pipeline().bufferSize());
+        reader.setName("menusPipeline");            // estable para restart
+        if (properties.menus().async().enabled()) reader.setTaskExecutor(menuProcessingTaskExecutor);
+        return reader;
+    }
+
+    /** Limpieza de menus en modo async: un thread virtual por item (JDK 21+) o un pool fijo de threads. */
+    @Bean
+    public TaskExecutor menuProcessingTaskExecutor() {
+        FoodDataProperties.Async async = properties.menus().async();
+        if (async.virtualThreads() && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("menu-process-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(async.threads());
+            return executor;
+        }
+        if (async.virtualThreads()) {
+            log.warn("fooddata.menus.async.virtual-threads needs JDK 21+, running on {}: using a platform thread pool",
+                    Runtime.version());
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("menu-process-");
+        executor.setCorePoolSize(async.threads());
+        executor.setMaxPoolSize(async.threads());
+        return executor;   // initialize()/shutdown() los llama Spring (InitializingBean / DisposableBean)
+    }
+}
@@ -0,0 +1,227 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.FoodDataProperties;
+import com.romertec.fsdata.entity.Menu;
+import com.romertec.fsdata.entity.Restaurant;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.database.BeanPropertyItemSqlParameterSourceProvider;
+import org.springframework.batch.item.database.JdbcBatchItemWriter;
+import org.springframework.batch.item.file.transform.FieldExtractor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.Locale;
+
+/** Writers de restaurants y menus: JDBC batch por defecto, o LOAD DATA LOCAL INFILE (fooddata.writer.*). */
+@Configuration
+public class ImportWriterConfig {
+
+    // Columnas que escriben los writers y las que se actualizan en el upsert (jdbc, load-data y merge de staging)
+    private static final String[] RESTAURANT_COLUMNS = {
+            "id", "category", "city", "lat", "lng", "name", "position",
+            "price_range", "raitings", "score", "state", "street", "unit", "zip"
+    };
+    private static final String[] RESTAURANT_UPDATE_COLUMNS = Arrays.copyOfRange(RESTAURANT_COLUMNS, 1, RESTAURANT_COLUMNS.length);
+    private static final String[] MENU_COLUMNS = {"id", "category", "description", "name", "price", "restaurant_id"};
+    // price también: con detección de cambios un plato modificado se reescribe sobre su mismo id
+    private static final String[] MENU_UPDATE_COLUMNS = {"description", "price"};
+
+    // Con fooddata.geo.enabled / fooddata.price.enabled (db/restaurants-geo.sql, db/menu-price.sql); también se actualizan
+    private static final String[] RESTAURANT_GEO_COLUMNS = {"latitude", "longitude", "geohash"};
+    private static final String[] RESTAURANT_GEO_PARAMS = {"latitude", "longitude", "geohash"};
+    private static final String[] MENU_PRICE_COLUMNS = {"price_amount", "price_currency"};
+    private static final String[] MENU_PRICE_PARAMS = {"priceAmount", "priceCurrency"};
+
+    // Con fooddata.dictionary.lookup-tables se agregan al final (columna -> propiedad de la entidad)
+    private static final String[] RESTAURANT_DICTIONARY_COLUMNS = {"category_id", "city_id", "state_id", "price_range_id"};
+    private static final String[] RESTAURANT_DICTIONARY_PARAMS = {"categoryId", "cityId", "stateId", "priceRangeId"};
+    private static final String[] MENU_DICTIONARY_COLUMNS = {"category_id"};
+    private static final String[] MENU_DICTIONARY_PARAMS = {"categoryId"};
+
+    private final FoodDataProperties properties;
+
+    public ImportWriterConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
+    static String[] restaurantColumns(boolean lookupTables, boolean geo) {
+        String[] columns = geo ? concat(RESTAURANT_COLUMNS, RESTAURANT_GEO_COLUMNS) : RESTAURANT_COLUMNS;
+        return lookupTables ? concat(columns, RESTAURANT_DICTIONARY_COLUMNS) : columns;
+    }
+
+    static String[] restaurantUpdateColumns(boolean lookupTables, boolean geo) {
+        String[] columns = geo ? concat(RESTAURANT_UPDATE_COLUMNS, RESTAURANT_GEO_COLUMNS) : RESTAURANT_UPDATE_COLUMNS;
+        return lookupTables ? concat(columns, RESTAURANT_DICTIONARY_COLUMNS) : columns;
+    }
+
+    static String[] menuColumns(boolean lookupTables, boolean price) {
+        String[] columns = price ? concat(MENU_COLUMNS, MENU_PRICE_COLUMNS) : MENU_COLUMNS;
+        return lookupTables ? concat(columns, MENU_DICTIONARY_COLUMNS) : columns;
+    }
+
+    // category es parte de la identidad del plato (no se actualiza), pero category_id sí: puede haber quedado
+    // en NULL en filas escritas antes de habilitar los diccionarios
+    static String[] menuUpdateColumns(boolean lookupTables, boolean price) {
+        String[] columns = price ? concat(MENU_UPDATE_COLUMNS, MENU_PRICE_COLUMNS) : MENU_UPDATE_COLUMNS;
+        return lookupTables ? concat(columns, MENU_DICTIONARY_COLUMNS) : columns;
+    }
+
+    private static String[] concat(String[] a, String[] b) {
+        String[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    private static Object[] concat(Object[] a, Object... b) {
+        Object[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    /** Fragmentos SQL del JdbcBatchItemWriter para columnas opcionales: [columnas, parámetros, updates]. */
+    private static String[] optionalSql(boolean enabled, String[] columns, String[] params) {
+        if (!enabled) {
+            return new String[]{"", "", ""};
+        }
+        StringBuilder cols = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        StringBuilder updates = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            cols.append(", ").append(columns[i]);
+            values.append(", :").append(params[i]);
+            updates.append(",\n").append(columns[i]).append("=VALUES(").append(columns[i]).append(')');
+        }
+        return new String[]{cols.toString(), values.toString(), updates.toString()};
+    }
+
+    /**
+     * allowLoadLocalInfile en el pool solo si algún writer es load-data (Connector/J lo negocia al conectar). Lee
+     * fooddata.writer del Environment: un BeanPostProcessor no puede depender de FoodDataProperties.
+     */
+    @Bean
+    public static BeanPostProcessor loadLocalInfileDataSource(Environment environment) {
+        FoodDataProperties.Writer writers = Binder.get(environment)
+                .bindOrCreate("fooddata.writer", FoodDataProperties.Writer.class);
+        boolean loadData = writers.restaurantsLoadData() || writers.menusLoadData();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (loadData && bean instanceof HikariDataSource hikari) {
+                    hikari.addDataSourceProperty("allowLoadLocalInfile", "true");
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ItemWriter<Restaurant> restaurantWriter(DataSource dataSource) {
+        boolean lookupTables = properties.dictionary().lookupTables();
+        boolean geo = properties.geo().enabled();
+        // En modo staging se escribe en la tabla sin índices; el upsert lo hace el merge final
+        boolean staging = properties.load().staging();
+        String table = staging ? "restaurants_stage" : "restaurants";
+
+        if (properties.writer().restaurantsLoadData()) {
+            MySqlLoadDataItemWriter<Restaurant> writer = new MySqlLoadDataItemWriter<>();
+            writer.setDataSource(dataSource);
+            writer.setTable(table);
+            writer.setColumns(restaurantColumns(lookupTables, geo));
+            writer.setUpdateColumns(restaurantUpdateColumns(lookupTables, geo));
+            FieldExtractor<Restaurant> base = r -> new Object[]{
+                    r.getId(), r.getCategory(), r.getCity(), r.getLat(), r.getLng(), r.getName(), r.getPosition(),
+                    r.getPriceRange(), r.getRaitings(), r.getScore(), r.getState(), r.getStreet(), r.getUnit(), r.getZip()
+            };
+            FieldExtractor<Restaurant> fields = !geo ? base
+                    : r -> concat(base.extract(r), r.getLatitude(), r.getLongitude(), r.getGeohash());
+            writer.setFieldExtractor(!lookupTables ? fields : r -> concat(fields.extract(r),
+                    r.getCategoryId(), r.getCityId(), r.getStateId(), r.getPriceRangeId()));
+            writer.setDuplicates(duplicates(staging));
+            return writer;
+        }
+
+        String[] coordinates = optionalSql(geo, RESTAURANT_GEO_COLUMNS, RESTAURANT_GEO_PARAMS);
+        String[] dictionary = optionalSql(lookupTables, RESTAURANT_DICTIONARY_COLUMNS, RESTAURANT_DICTIONARY_PARAMS);
+        JdbcBatchItemWriter<Restaurant> writer = new JdbcBatchItemWriter<>();
+        writer.setDataSource(dataSource);
+        writer.setSql("""
+                INSERT INTO %s
+                (id, category, city, lat, lng, name, position, price_range, raitings, score, state, street, unit, zip%s%s)
+                VALUES
+                (:id, :category, :city, :lat, :lng, :name, :position, :priceRange, :raitings, :score, :state, :street, :unit, :zip%s%s)
+                """.formatted(table, coordinates[0], dictionary[0], coordinates[1], dictionary[1]) + (staging ? "" : """
+                ON DUPLICATE KEY UPDATE
+                category=VALUES(category),
+                city=VALUES(city),
+                lat=VALUES(lat),
+                lng=VALUES(lng),
+                name=VALUES(name),
+                position=VALUES(position),
+                price_range=VALUES(price_range),
+                raitings=VALUES(raitings),
+                score=VALUES(score),
+                state=VALUES(state),
+                street=VALUES(street),
+                unit=VALUES(unit),
+                zip=VALUES(zip)%s%s
+                """.formatted(coordinates[2], dictionary[2])));
+
+        writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>());
+        return writer;
+    }
+
+    @Bean
+    public ItemWriter<Menu> menuWriter(DataSource dataSource) {
+        boolean lookupTables = properties.dictionary().lookupTables();
+        boolean price = properties.price().enabled();
+        boolean staging = properties.load().staging();
+        String table = staging ? "menu_stage" : "menu";
+
+        if (properties.writer().menusLoadData()) {
+            MySqlLoadDataItemWriter<Menu> writer = new MySqlLoadDataItemWriter<>();
+            writer.setDataSource(dataSource);
+            writer.setTable(table);
+            writer.setColumns(menuColumns(lookupTables, price));
+            writer.setUpdateColumns(menuUpdateColumns(lookupTables, price));
+            FieldExtractor<Menu> base = m -> new Object[]{
+                    m.getId(), m.getCategory(), m.getDescription(), m.getName(), m.getPrice(), m.getRestaurantId()
+            };
+            FieldExtractor<Menu> fields = !price ? base
+                    : m -> concat(base.extract(m), m.getPriceAmount(), m.getPriceCurrency());
+            writer.setFieldExtractor(!lookupTables ? fields : m -> concat(fields.extract(m), m.getCategoryId()));
+            writer.setDuplicates(duplicates(staging));
+            return writer;
+        }
+
+        String[] prices = optionalSql(price, MENU_PRICE_COLUMNS, MENU_PRICE_PARAMS);
+        String[] dictionary = optionalSql(lookupTables, MENU_DICTIONARY_COLUMNS, MENU_DICTIONARY_PARAMS);
+        JdbcBatchItemWriter<Menu> writer = new JdbcBatchItemWriter<>();
+        writer.setDataSource(dataSource);
+        writer.setSql("""
+                INSERT INTO %s
+                (id, category, description, name, price, restaurant_id%s%s)
+                VALUES
+                (:id, :category, :description, :name, :price, :restaurantId%s%s)
+                """.formatted(table, prices[0], dictionary[0], prices[1], dictionary[1]) + (staging ? "" : """
+                ON DUPLICATE KEY UPDATE
+                description=VALUES(description),
+                price=VALUES(price)%s%s
+                """.formatted(prices[2], dictionary[2])));
+
+        writer.setItemSqlParameterSourceProvider(new BeanPropertyItemSqlParameterSourceProvider<>());
+        return writer;
+    }
+
+    // La staging no tiene índices únicos: IGNORE; las duplicadas las resuelve el merge
+    private MySqlLoadDataItemWriter.Duplicates duplicates(boolean staging) {
+        return staging ? MySqlLoadDataItemWriter.Duplicates.IGNORE
+                : MySqlLoadDataItemWriter.Duplicates.valueOf(
+                        properties.writer().loadData().duplicates().trim().toUpperCase(Locale.ROOT));
+    }
+}
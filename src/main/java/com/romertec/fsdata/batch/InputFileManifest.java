@@ -0,0 +1,236 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.support.InputFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.job.flow.FlowExecutionStatus;
+import org.springframework.batch.core.job.flow.JobExecutionDecider;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+
+/**
+ * Manifest de los archivos de entrada: tamaño, mtime y checksum de cada CSV en la tabla import_file_manifest.
+ * <p>
+ * Flujo del job:
+ * - check() (primer step): calcula el estado actual de cada archivo, lo compara con el de la última corrida exitosa
+ *   y deja en el ExecutionContext del job "manifest.<input>.changed" + el estado nuevo.
+ * - decider(...): JobExecutionDecider que devuelve CHANGED / UNCHANGED según esos flags; el job salta el step
+ *   de import del archivo que no cambió.
+ * - save() (último step): persiste el estado nuevo. Solo se llega si los imports terminaron bien.
+ * <p>
+ * "Cambió" = distinto tamaño o checksum; un mtime nuevo con el mismo contenido no dispara el import.
+ * <p>
+ * Checksum: CRC32C por bloques de 16MB calculados en paralelo, combinados en orden en un hash de 64 bits.
+ * Con trustModifiedTime=true, si tamaño y mtime coinciden con el manifest no se lee el archivo.
+ * <p>
+ * Un input con glob (shards, ver InputFiles) es una sola fila con el patrón como path: tamaño total, mtime más
+ * nuevo y un checksum que combina nombre y checksum de cada shard en orden, así que agregar, quitar o renombrar un
+ * shard también cuenta como cambio.
+ */
+public class InputFileManifest {
+
+    private static final Logger log = LoggerFactory.getLogger(InputFileManifest.class);
+
+    public static final FlowExecutionStatus CHANGED = new FlowExecutionStatus("CHANGED");
+    public static final FlowExecutionStatus UNCHANGED = new FlowExecutionStatus("UNCHANGED");
+
+    private static final String TABLE = "import_file_manifest";
+    private static final int CHECKSUM_BLOCK = 16 * 1024 * 1024;
+
+    public record FileState(String path, long size, long modifiedTime, long checksum) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Path baseDir;
+    private final Map<String, String> inputs;
+    private final boolean trustModifiedTime;
+
+    /** @param inputs nombre lógico (restaurants, menus) -> archivo o glob de shards, relativo a baseDir */
+    public InputFileManifest(JdbcTemplate jdbcTemplate, Path baseDir, Map<String, String> inputs,
+                             boolean trustModifiedTime) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.baseDir = baseDir;
+        this.inputs = new LinkedHashMap<>(inputs);
+        this.trustModifiedTime = trustModifiedTime;
+    }
+
+    // ========= steps =========
+
+    public void check(ExecutionContext jobContext) {
+        ensureTable();
+        for (Map.Entry<String, String> input : inputs.entrySet()) {
+            String name = input.getKey();
+            // restaurants.csv o su versión .gz / .zst (el checksum es el del archivo comprimido), o todos los shards
+            List<Path> files = InputFiles.resolve(baseDir, input.getValue());
+            String path = InputFiles.isPattern(input.getValue()) ? patternPath(input.getValue())
+                    : files.get(0).toAbsolutePath().normalize().toString();
+            FileState previous = find(path);
+
+            long start = System.currentTimeMillis();
+            FileState current = scan(path, files, previous);
+            // un mtime distinto (touch, copia) no alcanza: cambia si cambió el contenido
+            boolean changed = previous == null
+                    || previous.size() != current.size() || previous.checksum() != current.checksum();
+
+            jobContext.put(changedKey(name), changed);
+            jobContext.putString(key(name, "path"), path);
+            jobContext.putLong(key(name, "size"), current.size());
+            jobContext.putLong(key(name, "modifiedTime"), current.modifiedTime());
+            jobContext.putLong(key(name, "checksum"), current.checksum());
+            log.info("Input {} ({}): {} [size={}, checksum={}] in {} ms", name, path,
+                    changed ? "CHANGED" : "unchanged", current.size(), Long.toHexString(current.checksum()),
+                    System.currentTimeMillis() - start);
+        }
+    }
+
+    public void save(ExecutionContext jobContext) {
+        for (String name : inputs.keySet()) {
+            if (!jobContext.containsKey(changedKey(name))) {
+                continue;
+            }
+            // también los que no cambiaron: se guarda el mtime nuevo para no volver a leerlos la próxima vez
+            jdbcTemplate.update("INSERT INTO " + TABLE + " (path, size, modified_time, checksum, imported_at)"
+                            + " VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP)"
+                            + " ON DUPLICATE KEY UPDATE size=VALUES(size), modified_time=VALUES(modified_time),"
+                            + " checksum=VALUES(checksum), imported_at=VALUES(imported_at)",
+                    jobContext.getString(key(name, "path")),
+                    jobContext.getLong(key(name, "size")),
+                    jobContext.getLong(key(name, "modifiedTime")),
+                    jobContext.getLong(key(name, "checksum")));
+        }
+    }
+
+    /** CHANGED si alguno de los inputs cambió (o si no hay info: ante la duda se importa). */
+    public JobExecutionDecider decider(String... names) {
+        List<String> watched = List.of(names);
+        return (jobExecution, stepExecution) -> {
+            ExecutionContext ctx = jobExecution.getExecutionContext();
+            for (String name : watched) {
+                Object changed = ctx.get(changedKey(name));
+                if (!Boolean.FALSE.equals(changed)) {
+                    return CHANGED;
+                }
+            }
+            return UNCHANGED;
+        };
+    }
+
+    private String patternPath(String pattern) {
+        return baseDir.toAbsolutePath().normalize() + "/" + pattern;
+    }
+
+    private static String changedKey(String name) {
+        return key(name, "changed");
+    }
+
+    private static String key(String name, String field) {
+        return "manifest." + name + "." + field;
+    }
+
+    // ========= tabla =========
+
+    private void ensureTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " ("
+                + " path VARCHAR(512) NOT NULL PRIMARY KEY,"
+                + " size BIGINT NOT NULL,"
+                + " modified_time BIGINT NOT NULL,"
+                + " checksum BIGINT NOT NULL,"
+                + " imported_at TIMESTAMP NOT NULL)");
+    }
+
+    private FileState find(String path) {
+        List<FileState> rows = jdbcTemplate.query(
+                "SELECT path, size, modified_time, checksum FROM " + TABLE + " WHERE path = ?",
+                (rs, i) -> new FileState(rs.getString(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)),
+                path);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    // ========= estado del archivo =========
+
+    private FileState scan(String path, List<Path> files, FileState previous) {
+        Path current = null;
+        try {
+            long size = 0;
+            long modified = 0;
+            long[] sizes = new long[files.size()];
+            for (int i = 0; i < files.size(); i++) {
+                current = files.get(i);
+                sizes[i] = Files.size(current);
+                size += sizes[i];
+                modified = Math.max(modified, Files.getLastModifiedTime(current).toMillis());
+            }
+            if (trustModifiedTime && previous != null
+                    && previous.size() == size && previous.modifiedTime() == modified) {
+                return previous;
+            }
+            if (files.size() == 1) {
+                current = files.get(0);
+                return new FileState(path, size, modified, checksum(current, size));
+            }
+            // shards: nombre + checksum de cada uno, en orden de nombre (InputFiles ya los devuelve ordenados)
+            long h = size;
+            for (int i = 0; i < files.size(); i++) {
+                current = files.get(i);
+                h = mix(h ^ current.getFileName().toString().hashCode());
+                h = mix(h ^ checksum(current, sizes[i]));
+            }
+            return new FileState(path, size, modified, h);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read input file " + current, e);
+        }
+    }
+
+    private static long mix(long h) {
+        h *= 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    static long checksum(Path file, long size) throws IOException {
+        int blocks = (int) Math.max(1, (size + CHECKSUM_BLOCK - 1) / CHECKSUM_BLOCK);
+        long[] crcs = new long[blocks];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            IntStream.range(0, blocks).parallel().forEach(b -> crcs[b] = blockCrc(channel, (long) b * CHECKSUM_BLOCK,
+                    Math.min(CHECKSUM_BLOCK, size - (long) b * CHECKSUM_BLOCK)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        long h = size;
+        for (long crc : crcs) {
+            h = mix(h ^ crc);
+        }
+        return h;
+    }
+
+    private static long blockCrc(FileChannel channel, long position, long length) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+        long pos = position;
+        long end = position + length;
+        try {
+            while (pos < end) {
+                buf.clear().limit((int) Math.min(buf.capacity(), end - pos));
+                int n = channel.read(buf, pos);   // lectura posicional: thread-safe sobre el mismo canal
+                if (n < 0) break;
+                buf.flip();
+                crc.update(buf);
+                pos += n;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,129 @@
+package com.romertec.fsdata.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.partition.PartitionHandler;
+import org.springframework.batch.core.partition.StepExecutionSplitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PartitionHandler del manager con fooddata.partition.mode=remote: parte el input como siempre pero no ejecuta
+ * ninguna partición; las corren los {@link JobRepositoryPartitionWorker} de otras JVMs y acá solo se espera,
+ * mirando el job repository cada poll-interval (ver {@link JobRepositoryPartitions}).
+ * <p>
+ * Mientras espera renueva su lease (los workers solo toman particiones de un manager vivo) y reasigna las
+ * particiones de workers caídos. Termina cuando ninguna StepExecution sigue en curso y devuelve la última ejecución
+ * de cada una: el PartitionStep agrega conteos y estado como con el handler local. Una partición que falla por los
+ * datos queda FAILED (el job falla y se reinicia como siempre); solo se reasignan las de un lease vencido. Como en un
+ * restart, lo que la ejecución reasignada llegó a commitear no se suma a los conteos del manager.
+ * <p>
+ * También es StepExecutionListener del manager, registrado antes que los listeners de corrida: deja
+ * {@link JobRepositoryPartitions#WORKER_STEP} en el ExecutionContext, que esos listeners ven como
+ * {@link PartialRun} (las filas no pasan por esta JVM).
+ */
+public class JobRepositoryPartitionHandler implements PartitionHandler, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(JobRepositoryPartitionHandler.class);
+
+    private static final long PROGRESS_LOG_MS = 30_000;
+
+    private final JobRepositoryPartitions partitions;
+    private final String workerStepName;
+    private final int gridSize;
+
+    public JobRepositoryPartitionHandler(JobRepositoryPartitions partitions, String workerStepName, int gridSize) {
+        this.partitions = partitions;
+        this.workerStepName = workerStepName;
+        this.gridSize = gridSize;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        stepExecution.getExecutionContext().putString(JobRepositoryPartitions.WORKER_STEP, workerStepName);
+    }
+
+    @Override
+    public Collection<StepExecution> handle(StepExecutionSplitter stepSplitter,
+                                           StepExecution managerStepExecution) throws Exception {
+        partitions.ensureSchema();
+        Set<StepExecution> split = stepSplitter.split(managerStepExecution, gridSize);
+        try {
+            partitions.publish(managerStepExecution, workerStepName, split);
+            return await(managerStepExecution, split);
+        } finally {
+            partitions.remove(managerStepExecution);
+        }
+    }
+
+    private Collection<StepExecution> await(StepExecution managerStepExecution, Set<StepExecution> split)
+            throws InterruptedException {
+        log.info("{}: {} partitions of {} waiting for remote workers", managerStepExecution.getStepName(),
+                split.size(), workerStepName);
+
+        // nombre de la partición -> id de su ejecución actual (cambia si se reasigna)
+        Map<String, Long> current = new LinkedHashMap<>();
+        for (StepExecution partition : split) {
+            current.put(partition.getStepName(), partition.getId());
+        }
+
+        long nextLog = System.currentTimeMillis() + PROGRESS_LOG_MS;
+        while (true) {
+            Thread.sleep(partitions.pollInterval().toMillis());
+            Map<Long, JobRepositoryPartitions.Lease> leases = partitions.leases(managerStepExecution);
+
+            JobExecution job = partitions.jobExplorer().getJobExecution(managerStepExecution.getJobExecutionId());
+            Map<Long, StepExecution> byId = new LinkedHashMap<>();
+            for (StepExecution s : job.getStepExecutions()) {
+                byId.put(s.getId(), s);
+            }
+
+            List<StepExecution> finished = new ArrayList<>();
+            int starting = 0;
+            int started = 0;
+            for (Map.Entry<String, Long> entry : current.entrySet()) {
+                StepExecution partition = byId.get(entry.getValue());
+                JobRepositoryPartitions.Lease lease = leases.get(entry.getValue());
+                if (!partition.getStatus().isRunning() || lease == null) {
+                    finished.add(partition);
+                } else if (lease.waiting()) {
+                    if (job.getStatus() == BatchStatus.STOPPING && partitions.cancel(partition)) {
+                        finished.add(partition);   // job detenido: nadie la va a tomar
+                        continue;
+                    }
+                    starting++;
+                } else {
+                    if (partitions.expired(lease)) {
+                        StepExecution retry = partitions.reassign(partition, managerStepExecution);
+                        if (retry != null) {
+                            log.warn("{}: worker lease expired (last heartbeat {}), partition reassigned as execution {}",
+                                    partition.getStepName(), lease.heartbeat(), retry.getId());
+                            entry.setValue(retry.getId());
+                            starting++;
+                            continue;
+                        }
+                    }
+                    started++;
+                }
+            }
+
+            if (starting == 0 && started == 0) {
+                return finished;
+            }
+            if (System.currentTimeMillis() >= nextLog) {
+                log.info("{}: {} partitions done, {} running, {} waiting for a worker",
+                        managerStepExecution.getStepName(), finished.size(), started, starting);
+                nextLog = System.currentTimeMillis() + PROGRESS_LOG_MS;
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.romertec.fsdata.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobInterruptedException;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Worker de particiones remotas (fooddata.worker.enabled): {@code threads} threads que buscan en import_partition
+ * particiones WAITING de un manager remoto vivo, se quedan con una (claim atómico, ver
+ * {@link JobRepositoryPartitions}) y la ejecutan con el mismo Step que usaría el handler local. Entre particiones
+ * esperan poll-interval; un thread aparte renueva el lease de las que están corriendo y detiene (terminateOnly) las
+ * que el manager ya reasignó.
+ * <p>
+ * Con varias particiones disponibles se toman de la más grande a la más chica (como LargestFirstPartitionHandler).
+ * <p>
+ * Estado por JVM: los listeners de job (esquema, diccionarios) y los de corrida de cada step (rechazos, reporte de
+ * precios) se abren con la primera partición en curso (del job execution / del step) y se cierran cuando termina la
+ * última, así que los archivos que escriben son de esta JVM. Como en AbstractJob, afterJob corre aunque beforeJob
+ * falle; con particiones de dos steps del mismo job execution en tandas separadas, cada tanda es un par
+ * beforeJob / afterJob.
+ * Lo que necesita ver todas las filas (detección de cambios) no se puede repartir entre JVMs: ver
+ * RemotePartitionConfig.
+ * <p>
+ * Al apagar la JVM (stop) no se toman más particiones y se espera a que terminen las que están corriendo; si la JVM
+ * muere, el manager reasigna sus particiones al vencer el lease.
+ */
+public class JobRepositoryPartitionWorker implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(JobRepositoryPartitionWorker.class);
+
+    private final JobRepositoryPartitions partitions;
+    private final boolean enabled;
+    private final int threads;
+    private final List<JobExecutionListener> jobListeners;
+    private final Map<String, Registration> steps = new LinkedHashMap<>();
+
+    private final Map<Long, StepExecution> running = new ConcurrentHashMap<>();
+    private final Object idle = new Object();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean active;
+    private final Map<Long, Integer> jobsInFlight = new HashMap<>();
+
+    private static final class Registration {
+        final Step step;
+        final List<StepExecutionListener> listeners;
+        int inFlight;
+
+        Registration(Step step, List<StepExecutionListener> listeners) {
+            this.step = step;
+            this.listeners = List.copyOf(listeners);
+        }
+    }
+
+    public JobRepositoryPartitionWorker(JobRepositoryPartitions partitions, boolean enabled, int threads,
+                                        List<JobExecutionListener> jobListeners) {
+        this.partitions = partitions;
+        this.enabled = enabled;
+        this.threads = threads;
+        this.jobListeners = List.copyOf(jobListeners);
+    }
+
+    /** Step que este worker puede correr (por nombre) y sus listeners de corrida en esta JVM. */
+    public void register(Step step, List<StepExecutionListener> runListeners) {
+        steps.put(step.getName(), new Registration(step, runListeners));
+    }
+
+    // ========= ciclo de vida =========
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || active) {
+            return;
+        }
+        partitions.ensureSchema();
+        active = true;
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(this::work, "partition-worker-" + (i + 1));
+            workers.add(t);
+            t.start();
+        }
+        Thread heartbeat = new Thread(this::heartbeat, "partition-worker-lease");
+        heartbeat.setDaemon(true);
+        heartbeat.start();
+        log.info("Partition worker started: {} threads for {} (poll {} ms, lease {} ms)", threads, steps.keySet(),
+                partitions.pollInterval().toMillis(), partitions.leaseTimeout().toMillis());
+    }
+
+    @Override
+    public void stop() {
+        synchronized (this) {
+            if (!active) {
+                return;
+            }
+            active = false;
+        }
+        synchronized (idle) {
+            idle.notifyAll();
+        }
+        for (Thread t : workers) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        workers.clear();
+        log.info("Partition worker stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return active;
+    }
+
+    // ========= loop =========
+
+    private void work() {
+        while (active) {
+            StepExecution partition = null;
+            try {
+                partition = claimNext();
+            } catch (Exception e) {
+                log.warn("Could not look for partitions: {}", e.toString());
+            }
+            if (partition == null) {
+                synchronized (idle) {
+                    try {
+                        if (active) idle.wait(partitions.pollInterval().toMillis());
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                continue;
+            }
+            execute(partition);
+        }
+    }
+
+    /** La partición WAITING más grande de un manager vivo, ya reclamada por esta JVM; null si no hay. */
+    private StepExecution claimNext() {
+        List<StepExecution> startable = partitions.startablePartitions(steps.keySet());
+        startable.sort(LargestFirstPartitionHandler.LARGEST_FIRST);
+        for (StepExecution s : startable) {
+            if (partitions.claim(s.getId())) {
+                running.put(s.getId(), s);   // desde ya: el lease corre desde el claim
+                return s;
+            }
+        }
+        return null;
+    }
+
+    private void execute(StepExecution partition) {
+        Registration registration = steps.get(JobRepositoryPartitions.workerStepName(partition.getStepName()));
+        log.info("Claimed partition {} (execution {}, job execution {})", partition.getStepName(), partition.getId(),
+                partition.getJobExecutionId());
+        boolean opened = false;
+        try {
+            prepare(partition.getJobExecution());
+            open(registration, partition);
+            opened = true;
+            registration.step.execute(partition);
+        } catch (JobInterruptedException e) {
+            partition.setStatus(BatchStatus.STOPPED);
+            partitions.jobRepository().update(partition);
+        } catch (Throwable e) {
+            log.error("Partition {} failed in the worker", partition.getStepName(), e);
+            partition.addFailureException(e);
+            partition.setStatus(BatchStatus.FAILED);
+            partitions.jobRepository().update(partition);
+        } finally {
+            running.remove(partition.getId());
+            if (opened) close(registration, partition);
+            finish(partition.getJobExecution());
+            try {
+                partitions.release(partition.getId());
+            } catch (Exception e) {
+                // sin release la fila vence y el manager la ve terminada por el estado de la StepExecution
+                log.warn("Could not release partition {}: {}", partition.getStepName(), e.toString());
+            }
+        }
+    }
+
+    // ========= estado por JVM =========
+
+    private void prepare(JobExecution jobExecution) {
+        synchronized (jobsInFlight) {
+            // se cuenta antes de beforeJob: si falla, finish() igual llama afterJob
+            if (jobsInFlight.merge(jobExecution.getId(), 1, Integer::sum) == 1) {
+                for (JobExecutionListener listener : jobListeners) {
+                    listener.beforeJob(jobExecution);
+                }
+            }
+        }
+    }
+
+    private void finish(JobExecution jobExecution) {
+        synchronized (jobsInFlight) {
+            if (jobsInFlight.merge(jobExecution.getId(), -1, Integer::sum) > 0) {
+                return;
+            }
+            jobsInFlight.remove(jobExecution.getId());
+            for (int i = jobListeners.size() - 1; i >= 0; i--) {
+                try {
+                    jobListeners.get(i).afterJob(jobExecution);
+                } catch (RuntimeException e) {
+                    log.error("Job listener failed after the partitions of job execution {}", jobExecution.getId(), e);
+                }
+            }
+        }
+    }
+
+    private void open(Registration registration, StepExecution partition) {
+        synchronized (registration) {
+            if (registration.inFlight++ == 0) {
+                for (StepExecutionListener listener : registration.listeners) {
+                    listener.beforeStep(partition);
+                }
+            }
+        }
+    }
+
+    private void close(Registration registration, StepExecution partition) {
+        synchronized (registration) {
+            if (--registration.inFlight > 0) {
+                return;
+            }
+            for (int i = registration.listeners.size() - 1; i >= 0; i--) {
+                registration.listeners.get(i).afterStep(partition);
+            }
+        }
+        // lo que los listeners dejaron en el contexto (rechazos, precios) queda en la última partición de la tanda
+        if (!registration.listeners.isEmpty()) {
+            partitions.jobRepository().updateExecutionContext(partition);
+        }
+    }
+
+    // ========= lease =========
+
+    private void heartbeat() {
+        long interval = Math.max(partitions.pollInterval().toMillis(), partitions.leaseTimeout().toMillis() / 4);
+        while (active || !running.isEmpty()) {
+            try {
+                Thread.sleep(interval);
+                for (StepExecution partition : running.values()) {
+                    if (!partitions.renew(partition.getId()) && running.containsKey(partition.getId())) {
+                        // el manager la reasignó: que el step se detenga en el próximo chunk
+                        log.warn("Lost the lease of partition {}, stopping it", partition.getStepName());
+                        partition.setTerminateOnly();
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Could not renew partition leases: {}", e.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.support.MySqlSchema;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Particiones con workers en otras JVMs (fooddata.partition.mode=remote), sin broker: {@link JobRepositoryPartitionHandler}
+ * en el manager, {@link JobRepositoryPartitionWorker} en cada worker.
+ * <p>
+ * La coordinación va en una tabla propia, import_partition (db/import-partition.sql): una fila por ejecución de
+ * partición. Los cambios de estado son UPDATE condicionales sobre esa tabla; el que lo gana (1 fila) es el dueño.
+ * - WAITING -> CLAIMED (claim): solo un worker se queda con cada partición.
+ * - lease: el worker renueva heartbeat de sus filas CLAIMED y el manager manager_heartbeat de las suyas, cada
+ *   poll-interval. Sin renovar por más de lease-timeout = JVM caída.
+ * - CLAIMED -> EXPIRED (reassign): el manager le saca la partición a un worker caído; la StepExecution pasa a FAILED
+ *   y se crea otra con el mismo nombre y el último ExecutionContext commiteado, que vuelve a WAITING.
+ * - WAITING -> CANCELLED: job detenido antes de que un worker la tomara.
+ * Las StepExecution solo cambian por el JobRepository (el step que corre el worker, o update() con su VERSION): si
+ * el worker "caído" seguía vivo, su próximo commit falla por VERSION (OptimisticLockingFailureException) y hace
+ * rollback; antes, su heartbeat ya no encuentra la fila y detiene el step.
+ * <p>
+ * Los tiempos son los de cada JVM (como los que escribe Spring Batch): lease-timeout tiene que ser mucho mayor que
+ * la diferencia de reloj entre hosts.
+ */
+public class JobRepositoryPartitions {
+
+    /** En el ExecutionContext del manager: nombre del step que corren los workers. Marca la ejecución como remota. */
+    public static final String WORKER_STEP = "partition.remote.workerStep";
+
+    static final String MIGRATION = "db/import-partition.sql";
+
+    private static final String WAITING = "WAITING";
+    private static final String CLAIMED = "CLAIMED";
+    private static final String EXPIRED = "EXPIRED";
+    private static final String CANCELLED = "CANCELLED";
+    private static final String DONE = "DONE";
+
+    // SimpleStepExecutionSplitter nombra cada partición <step worker>:<partición>
+    private static final String STEP_NAME_SEPARATOR = ":";
+
+    /** Fila de import_partition vista por el manager. */
+    public record Lease(String state, LocalDateTime heartbeat) {
+        boolean waiting() { return WAITING.equals(state); }
+        boolean claimed() { return CLAIMED.equals(state); }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JobRepository jobRepository;
+    private final JobExplorer jobExplorer;
+    private final Duration pollInterval;
+    private final Duration leaseTimeout;
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName(); // pid@host
+
+    private volatile boolean schemaChecked;
+
+    public JobRepositoryPartitions(JdbcTemplate jdbcTemplate, JobRepository jobRepository, JobExplorer jobExplorer,
+                                   Duration pollInterval, Duration leaseTimeout) {
+        if (leaseTimeout.compareTo(pollInterval.multipliedBy(3)) < 0) {
+            throw new IllegalArgumentException("lease timeout " + leaseTimeout + " must be at least 3 poll intervals ("
+                    + pollInterval + ")");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.jobRepository = jobRepository;
+        this.jobExplorer = jobExplorer;
+        this.pollInterval = pollInterval;
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    public JobRepository jobRepository() { return jobRepository; }
+
+    public JobExplorer jobExplorer() { return jobExplorer; }
+
+    public Duration pollInterval() { return pollInterval; }
+
+    public Duration leaseTimeout() { return leaseTimeout; }
+
+    static String workerStepName(String partitionStepName) {
+        int separator = partitionStepName.indexOf(STEP_NAME_SEPARATOR);
+        return separator < 0 ? partitionStepName : partitionStepName.substring(0, separator);
+    }
+
+    /** Crea import_partition si falta (manager y workers, antes de usarla). */
+    public void ensureSchema() {
+        if (schemaChecked) {
+            return;
+        }
+        synchronized (this) {
+            if (!schemaChecked && !MySqlSchema.hasColumn(jdbcTemplate, "import_partition", "step_execution_id")) {
+                MySqlSchema.migrate(jdbcTemplate, MIGRATION);
+            }
+            schemaChecked = true;
+        }
+    }
+
+    private Timestamp now() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    private Timestamp leaseLimit() {
+        return Timestamp.valueOf(LocalDateTime.now().minus(leaseTimeout));
+    }
+
+    // ========= workers =========
+
+    /** Particiones WAITING de estos steps con un manager vivo (candidatas a claim). */
+    public List<StepExecution> startablePartitions(Collection<String> workerSteps) {
+        List<Object> args = new ArrayList<>();
+        StringJoiner names = new StringJoiner(", ", "(", ")");
+        args.add(leaseLimit());
+        for (String step : workerSteps) {
+            names.add("?");
+            args.add(step);
+        }
+        List<long[]> ids = jdbcTemplate.query("SELECT job_execution_id, step_execution_id FROM import_partition"
+                        + " WHERE state = '" + WAITING + "' AND manager_heartbeat > ? AND worker_step IN " + names
+                        + " ORDER BY step_execution_id",
+                (rs, row) -> new long[]{rs.getLong(1), rs.getLong(2)}, args.toArray());
+        List<StepExecution> startable = new ArrayList<>();
+        for (long[] id : ids) {
+            StepExecution s = jobExplorer.getStepExecution(id[0], id[1]);
+            if (s != null) startable.add(s);
+        }
+        return startable;
+    }
+
+    /** WAITING -> CLAIMED. true si esta JVM se quedó con la partición. */
+    public boolean claim(long stepExecutionId) {
+        Timestamp now = now();
+        return jdbcTemplate.update("UPDATE import_partition SET state = ?, owner = ?, heartbeat = ?"
+                        + " WHERE step_execution_id = ? AND state = ?",
+                CLAIMED, owner, now, stepExecutionId, WAITING) == 1;
+    }
+
+    /** Renueva el lease de una partición de esta JVM. false si ya no es suya (reasignada o cancelada). */
+    public boolean renew(long stepExecutionId) {
+        return jdbcTemplate.update("UPDATE import_partition SET heartbeat = ?"
+                        + " WHERE step_execution_id = ? AND state = ? AND owner = ?",
+                now(), stepExecutionId, CLAIMED, owner) == 1;
+    }
+
+    /** La partición terminó en el worker (cualquier estado): la fila ya no tiene lease. */
+    public void release(long stepExecutionId) {
+        jdbcTemplate.update("UPDATE import_partition SET state = ? WHERE step_execution_id = ? AND state = ? AND owner = ?",
+                DONE, stepExecutionId, CLAIMED, owner);
+    }
+
+    // ========= manager =========
+
+    /** Publica las particiones recién creadas para los workers, y borra las filas de managers que ya no están. */
+    public void publish(StepExecution managerStepExecution, String workerStep, Collection<StepExecution> split) {
+        jdbcTemplate.update("DELETE FROM import_partition WHERE manager_heartbeat < ?", leaseLimit());
+        for (StepExecution partition : split) {
+            insert(partition, managerStepExecution, workerStep);
+        }
+    }
+
+    private void insert(StepExecution partition, StepExecution managerStepExecution, String workerStep) {
+        Timestamp now = now();
+        jdbcTemplate.update("INSERT INTO import_partition (step_execution_id, job_execution_id, manager_execution_id,"
+                        + " worker_step, state, heartbeat, manager_heartbeat) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                partition.getId(), partition.getJobExecutionId(), managerStepExecution.getId(), workerStep,
+                WAITING, now, now);
+    }
+
+    /** Renueva el lease del manager y devuelve el estado de sus particiones (por id de StepExecution). */
+    public Map<Long, Lease> leases(StepExecution managerStepExecution) {
+        jdbcTemplate.update("UPDATE import_partition SET manager_heartbeat = ? WHERE manager_execution_id = ?",
+                now(), managerStepExecution.getId());
+        Map<Long, Lease> leases = new HashMap<>();
+        jdbcTemplate.query("SELECT step_execution_id, state, heartbeat FROM import_partition WHERE manager_execution_id = ?",
+                rs -> { leases.put(rs.getLong(1), new Lease(rs.getString(2), rs.getTimestamp(3).toLocalDateTime())); },
+                managerStepExecution.getId());
+        return leases;
+    }
+
+    public boolean expired(Lease lease) {
+        return lease.claimed() && lease.heartbeat().plus(leaseTimeout).isBefore(LocalDateTime.now());
+    }
+
+    /**
+     * Partición CLAIMED con el lease vencido: EXPIRED, su StepExecution FAILED y una StepExecution nueva (WAITING)
+     * con su último contexto.
+     *
+     * @return la nueva, o null si el worker renovó el lease o terminó la partición mientras tanto
+     */
+    public StepExecution reassign(StepExecution stale, StepExecution managerStepExecution) {
+        if (jdbcTemplate.update("UPDATE import_partition SET state = ? WHERE step_execution_id = ? AND state = ?"
+                + " AND heartbeat < ?", EXPIRED, stale.getId(), CLAIMED, leaseLimit()) != 1) {
+            return null;
+        }
+        StepExecution current = stale;
+        while (true) {
+            if (!current.getStatus().isRunning()) {
+                return null; // la terminó antes de perder el lease
+            }
+            current.setStatus(BatchStatus.FAILED);
+            current.setExitStatus(ExitStatus.FAILED.addExitDescription(
+                    "Worker lease expired (no heartbeat within " + leaseTimeout + "): partition reassigned"));
+            current.setEndTime(LocalDateTime.now());
+            try {
+                jobRepository.update(current);
+                break;
+            } catch (OptimisticLockingFailureException e) {
+                // el worker commiteó desde que se leyó: su heartbeat ya no encuentra la fila y se detiene
+                current = jobExplorer.getStepExecution(stale.getJobExecutionId(), stale.getId());
+            }
+        }
+        StepExecution retry = managerStepExecution.getJobExecution().createStepExecution(stale.getStepName());
+        retry.setExecutionContext(new ExecutionContext(current.getExecutionContext()));
+        jobRepository.add(retry);
+        insert(retry, managerStepExecution, workerStepName(stale.getStepName()));
+        return retry;
+    }
+
+    /** Job detenido: una partición que ningún worker tomó pasa a STOPPED. true si esta la canceló. */
+    public boolean cancel(StepExecution waiting) {
+        if (jdbcTemplate.update("UPDATE import_partition SET state = ? WHERE step_execution_id = ? AND state = ?",
+                CANCELLED, waiting.getId(), WAITING) != 1) {
+            return false;
+        }
+        waiting.setStatus(BatchStatus.STOPPED);
+        waiting.setExitStatus(ExitStatus.STOPPED);
+        waiting.setEndTime(LocalDateTime.now());
+        jobRepository.update(waiting);
+        return true;
+    }
+
+    /** Al terminar el step del manager (bien o mal): sus filas ya no sirven. */
+    public void remove(StepExecution managerStepExecution) {
+        jdbcTemplate.update("DELETE FROM import_partition WHERE manager_execution_id = ?", managerStepExecution.getId());
+    }
+}
@@ -0,0 +1,33 @@
+package com.romertec.fsdata.batch;
+
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.partition.support.TaskExecutorPartitionHandler;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * TaskExecutorPartitionHandler que lanza las particiones de mayor a menor {@link ShardPartitioner#SHARD_SIZE}.
+ * <p>
+ * El splitter de Spring Batch devuelve las particiones en un HashSet (orden arbitrario) y el executor, con su límite
+ * de concurrencia, las arranca en el orden en que se le entregan: sin esto el shard más grande puede quedar para el
+ * final y marcar el tiempo total. Particiones sin tamaño (rangos de bytes, todos parecidos) van en orden de nombre.
+ */
+public class LargestFirstPartitionHandler extends TaskExecutorPartitionHandler {
+
+    static final Comparator<StepExecution> LARGEST_FIRST = Comparator
+            .comparingLong((StepExecution s) -> s.getExecutionContext().getLong(ShardPartitioner.SHARD_SIZE, 0L))
+            .reversed()
+            .thenComparing(StepExecution::getStepName);
+
+    @Override
+    protected Set<StepExecution> doHandle(StepExecution managerStepExecution,
+                                          Set<StepExecution> partitionStepExecutions) throws Exception {
+        List<StepExecution> ordered = new ArrayList<>(partitionStepExecutions);
+        ordered.sort(LARGEST_FIRST);
+        return super.doHandle(managerStepExecution, new LinkedHashSet<>(ordered));
+    }
+}
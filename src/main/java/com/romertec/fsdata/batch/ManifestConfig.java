@@ -0,0 +1,65 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.FoodDataProperties;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Map;
+
+/** fooddata.manifest.enabled: saltea los imports cuyo archivo de entrada no cambió. */
+@Configuration
+public class ManifestConfig {
+
+    // Nombres lógicos de los archivos de entrada en el manifest
+    static final String INPUT_RESTAURANTS = "restaurants";
+    static final String INPUT_MENUS = "menus";
+
+    private final FoodDataProperties properties;
+
+    public ManifestConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public InputFileManifest inputFileManifest(JdbcTemplate jdbcTemplate) {
+        return new InputFileManifest(jdbcTemplate, properties.baseDirectory(), Map.of(
+                INPUT_RESTAURANTS, properties.input().restaurants(),
+                INPUT_MENUS, properties.input().menus()
+        ), properties.manifest().trustMtime());
+    }
+
+    @Bean
+    public Step checkManifestStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            InputFileManifest inputFileManifest
+    ) {
+        return new org.springframework.batch.core.step.builder.StepBuilder("checkManifestStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    inputFileManifest.check(chunkContext.getStepContext().getStepExecution()
+                            .getJobExecution().getExecutionContext());
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    @Bean
+    public Step saveManifestStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            InputFileManifest inputFileManifest
+    ) {
+        return new org.springframework.batch.core.step.builder.StepBuilder("saveManifestStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    inputFileManifest.save(chunkContext.getStepContext().getStepExecution()
+                            .getJobExecution().getExecutionContext());
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+}
@@ -0,0 +1,442 @@
+package com.romertec.fsdata.batch;
+
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.file.FlatFileParseException;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.DefaultFieldSet;
+import org.springframework.batch.item.support.AbstractItemCountingItemStreamItemReader;
+import org.springframework.util.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader de CSV sobre el archivo mapeado en memoria (FileChannel.map), sin BufferedReader.
+ * <p>
+ * Reproduce lo que hace hoy FlatFileItemReader + RecordSeparatorPolicy de comillas + DelimitedLineTokenizer (strict=false):
+ * - Un record termina en fin de línea (\n, \r o \r\n) con las comillas balanceadas; las líneas de un record
+ *   multi-línea se concatenan SIN el salto de línea (igual que las policies actuales).
+ * - Líneas que empiezan con '#' al inicio de un record son comentarios.
+ * - Campos sin comillas se devuelven tal cual; campos entre comillas se recortan, se les quitan las comillas
+ *   y "" pasa a ser ".
+ * - Los tokens se completan con "" o se truncan a la cantidad de {@code names}.
+ * <p>
+ * Los límites de record y de campo se buscan directo sobre los bytes mapeados. Solo se crean Strings para los
+ * campos incluidos (includedFields), con fast path ASCII cuando el record no tiene bytes >= 0x80.
+ * Los records multi-línea se copian una vez a un buffer reutilizable para quitar los saltos de línea.
+ * <p>
+ * El offset del próximo record se guarda en el ExecutionContext: en un restart se salta directo ahí.
+ * Delimitador y comilla deben ser ASCII (nunca aparecen dentro de una secuencia UTF-8 multibyte).
+ */
+public class MappedCsvItemReader<T> extends AbstractItemCountingItemStreamItemReader<T> {
+
+    private static final String POSITION = "position";
+    private static final String LINE_COUNT = "line.count";
+
+    private static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    // ===== configuración =====
+    private Path path;
+    private Long rangeStart;
+    private Long rangeEnd;
+    private int linesToSkip = 0;
+    private byte delimiter = ',';
+    private byte quoteCharacter = '"';
+    private String[] names;
+    private boolean[] included;
+    private FieldSetMapper<T> fieldSetMapper;
+    private int windowSize = DEFAULT_WINDOW_SIZE;
+    private RecordMetrics recordMetrics;
+
+    // ===== estado =====
+    private FileChannel channel;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long windowLimit;
+    private long start;
+    private long end;
+    private long position;
+    private int lineCount;
+    private long restartPosition = -1;
+    private int restartLineCount;
+
+    // record actual: segmentos (líneas físicas) relativos a la ventana
+    private int[] segStart = new int[8];
+    private int[] segEnd = new int[8];
+    private int segments;
+    private boolean recordAscii;
+    private long recordNext;
+    private long firstLineNext;
+    private int recordLines;
+    private boolean recordInQuotesAtEof;
+
+    private byte[] joined = new byte[4096];
+    private byte[] fieldBytes = new byte[1024];
+
+    public MappedCsvItemReader() {
+        setName("mappedCsvItemReader");
+    }
+
+    public void setPath(Path path) { this.path = path; }
+
+    /** Limita la lectura al rango [start, end) del archivo (particiones). Los offsets deben ser inicio de record. */
+    public void setRange(Long start, Long end) {
+        this.rangeStart = start;
+        this.rangeEnd = end;
+    }
+
+    public void setLinesToSkip(int linesToSkip) { this.linesToSkip = linesToSkip; }
+
+    public void setDelimiter(char delimiter) { this.delimiter = asciiByte(delimiter); }
+
+    public void setQuoteCharacter(char quoteCharacter) { this.quoteCharacter = asciiByte(quoteCharacter); }
+
+    public void setNames(String... names) { this.names = names.clone(); }
+
+    public void setIncludedFields(int... includedFields) {
+        int max = Arrays.stream(includedFields).max().orElse(-1);
+        this.included = new boolean[max + 1];
+        for (int i : includedFields) this.included[i] = true;
+    }
+
+    public void setFieldSetMapper(FieldSetMapper<T> fieldSetMapper) { this.fieldSetMapper = fieldSetMapper; }
+
+    /** Tamaño de cada ventana mapeada; crece sola si un record no entra. */
+    public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+
+    /** Opcional: bytes, líneas y tiempos de tokenize / map por record. */
+    public void setRecordMetrics(RecordMetrics recordMetrics) { this.recordMetrics = recordMetrics; }
+
+    // ========= ItemStream =========
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        restartPosition = -1;
+        if (isSaveState() && executionContext.containsKey(getExecutionContextKey(POSITION))) {
+            restartPosition = executionContext.getLong(getExecutionContextKey(POSITION));
+            restartLineCount = executionContext.getInt(getExecutionContextKey(LINE_COUNT), 0);
+        }
+        super.open(executionContext);
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        super.update(executionContext);
+        if (isSaveState()) {
+            executionContext.putLong(getExecutionContextKey(POSITION), position);
+            executionContext.putInt(getExecutionContextKey(LINE_COUNT), lineCount);
+        }
+    }
+
+    @Override
+    protected void doOpen() throws Exception {
+        Assert.notNull(path, "Input path must be set");
+        Assert.notNull(names, "Column names must be set");
+        Assert.notNull(fieldSetMapper, "FieldSetMapper must be set");
+
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        start = rangeStart == null ? 0 : rangeStart;
+        end = rangeEnd == null ? size : Math.min(rangeEnd, size);
+        position = start;
+        lineCount = 0;
+        window = null;
+        windowStart = windowLimit = start;
+
+        for (int i = 0; i < linesToSkip && nextRecord(); i++) {
+            position = recordNext;
+        }
+    }
+
+    @Override
+    protected void jumpToItem(int itemIndex) throws Exception {
+        if (restartPosition >= 0) {
+            position = restartPosition;
+            lineCount = restartLineCount;
+            return;
+        }
+        // Sin offset guardado (ej: estado del reader flat): saltar records sin tokenizar ni mapear
+        for (int i = 0; i < itemIndex && nextRecord(); i++) {
+            position = recordNext;
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        window = null;
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    protected T doRead() throws Exception {
+        if (channel == null || !nextRecord()) {
+            return null;
+        }
+        long recordBytes = recordNext - position;
+        position = recordNext;
+
+        ByteBuffer src;
+        int from;
+        int len;
+        if (segments == 1) {
+            src = window;
+            from = segStart[0];
+            len = segEnd[0] - segStart[0];
+        } else {
+            len = joinSegments();
+            src = ByteBuffer.wrap(joined);
+            from = 0;
+        }
+
+        try {
+            if (recordMetrics == null) {
+                String[] values = tokenize(src, from, len);
+                return fieldSetMapper.mapFieldSet(new DefaultFieldSet(values, names));
+            }
+            long t0 = System.nanoTime();
+            String[] values = tokenize(src, from, len);
+            long t1 = System.nanoTime();
+            T item = fieldSetMapper.mapFieldSet(new DefaultFieldSet(values, names));
+            recordMetrics.record(recordBytes, recordLines, t1 - t0, System.nanoTime() - t1);
+            return item;
+        } catch (Exception ex) {
+            String input = decode(src, from, len, false, false);
+            throw new FlatFileParseException("Parsing error at line: " + lineCount + " in resource=["
+                    + path.toAbsolutePath() + "], input=[" + input + "]", ex, input, lineCount);
+        }
+    }
+
+    // ========= límites de record =========
+
+    /**
+     * Ubica el próximo record a partir de {@code position} (saltando comentarios).
+     * Deja los segmentos en segStart/segEnd y el inicio del siguiente en recordNext.
+     */
+    private boolean nextRecord() throws Exception {
+        while (true) {
+            if (position >= end) {
+                return false;
+            }
+            if (position < windowStart || position >= windowLimit) {
+                map(position, windowSize);
+            }
+            if (!scanRecord(position)) {
+                // No entró en la ventana: remapear desde el inicio del record (y agrandar si ya estábamos ahí)
+                int size = position == windowStart ? (int) Math.min((long) windowSize * 2, MAX_WINDOW_SIZE) : windowSize;
+                if (position == windowStart && windowLimit - windowStart >= MAX_WINDOW_SIZE) {
+                    throw new FlatFileParseException("Record larger than " + MAX_WINDOW_SIZE + " bytes", "", lineCount);
+                }
+                windowSize = size;
+                map(position, size);
+                continue;
+            }
+            lineCount += recordLines;
+            if (isComment()) {
+                // un comentario es solo su primera línea física
+                position = firstLineNext;
+                lineCount -= recordLines - 1;
+                continue;
+            }
+            if (recordInQuotesAtEof) {
+                String input = decode(ByteBuffer.wrap(joined), 0, joinSegments(), false, false);
+                position = recordNext;
+                throw new FlatFileParseException("Unexpected end of file before record complete", input, lineCount);
+            }
+            return true;
+        }
+    }
+
+    /** @return false si el record no termina dentro de la ventana actual y hay más archivo después de ella. */
+    private boolean scanRecord(long from) {
+        int p = (int) (from - windowStart);
+        int limit = (int) (windowLimit - windowStart);
+        boolean limitIsEof = windowLimit >= end;
+        boolean inQuotes = false;
+        int ascii = 0;
+        segments = 0;
+        recordLines = 0;
+        recordInQuotesAtEof = false;
+
+        while (true) {
+            int lineStart = p;
+            while (p < limit) {
+                byte b = window.get(p);
+                if (b == '\n' || b == '\r') break;
+                if (b == quoteCharacter) inQuotes = !inQuotes;
+                ascii |= b;
+                p++;
+            }
+            if (p >= limit && !limitIsEof) return false;
+            addSegment(lineStart, p);
+            recordLines++;
+
+            // consumir el fin de línea
+            if (p < limit) {
+                byte b = window.get(p++);
+                if (b == '\r') {
+                    if (p < limit) {
+                        if (window.get(p) == '\n') p++;
+                    } else if (!limitIsEof) {
+                        return false;
+                    }
+                }
+            }
+            if (recordLines == 1) {
+                firstLineNext = windowStart + p;
+            }
+
+            if (!inQuotes) break;
+            if (p >= limit) {
+                if (!limitIsEof) return false;
+                // EOF con comillas abiertas (siempre hay texto: al menos una comilla)
+                recordInQuotesAtEof = true;
+                break;
+            }
+        }
+        recordAscii = ascii >= 0;
+        recordNext = windowStart + p;
+        return true;
+    }
+
+    private boolean isComment() {
+        return segEnd[0] > segStart[0] && window.get(segStart[0]) == '#';
+    }
+
+    private void addSegment(int from, int to) {
+        if (segments == segStart.length) {
+            segStart = Arrays.copyOf(segStart, segments * 2);
+            segEnd = Arrays.copyOf(segEnd, segments * 2);
+        }
+        segStart[segments] = from;
+        segEnd[segments] = to;
+        segments++;
+    }
+
+    private int joinSegments() {
+        int total = 0;
+        for (int i = 0; i < segments; i++) total += segEnd[i] - segStart[i];
+        if (joined.length < total) joined = new byte[Math.max(total, joined.length * 2)];
+        int off = 0;
+        for (int i = 0; i < segments; i++) {
+            int n = segEnd[i] - segStart[i];
+            window.get(segStart[i], joined, off, n);
+            off += n;
+        }
+        return total;
+    }
+
+    private void map(long from, int size) throws Exception {
+        windowStart = from;
+        windowLimit = Math.min(from + size, end);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLimit - windowStart);
+    }
+
+    // ========= tokenizer (mismas reglas que DelimitedLineTokenizer) =========
+
+    private String[] tokenize(ByteBuffer src, int from, int len) {
+        String[] tokens = new String[names.length];
+        int count = 0;
+        boolean inQuoted = false;
+        int lastCut = 0;
+        int fieldCount = 0;
+
+        for (int i = 0; i < len; i++) {
+            byte c = src.get(from + i);
+            boolean isEnd = i == len - 1;
+            boolean isDelimiter = c == delimiter;
+
+            if ((isDelimiter && !inQuoted) || isEnd) {
+                int fieldLength = isEnd ? (len - lastCut) : (i - lastCut);
+                if (isEnd && isDelimiter) fieldLength--;
+
+                if (isIncluded(fieldCount)) {
+                    if (count < tokens.length) {
+                        tokens[count++] = field(src, from, len, lastCut, fieldLength, true);
+                    } else {
+                        // DelimitedLineTokenizer tokeniza los campos de más antes de truncar: se validan igual
+                        field(src, from, len, lastCut, fieldLength, false);
+                    }
+                }
+                fieldCount++;
+                if (count == tokens.length && included != null && fieldCount >= included.length) {
+                    break;   // no quedan campos incluidos
+                }
+
+                if (isEnd && isDelimiter) {
+                    if (isIncluded(fieldCount) && count < tokens.length) tokens[count++] = "";
+                    fieldCount++;
+                }
+                lastCut = i + 1;
+            } else if (c == quoteCharacter) {
+                inQuoted = !inQuoted;
+            }
+        }
+        // strict=false: completar con vacíos
+        for (int i = count; i < tokens.length; i++) tokens[i] = "";
+        return tokens;
+    }
+
+    private boolean isIncluded(int fieldIndex) {
+        return included == null || (fieldIndex < included.length && included[fieldIndex]);
+    }
+
+    /**
+     * Mismo orden que DelimitedLineTokenizer: trim, sin las comillas de los extremos, después "" -> ". Un campo de
+     * una sola comilla en un record de 2+ caracteres falla como allá. Con {@code keep=false} solo valida.
+     */
+    private String field(ByteBuffer src, int from, int len, int offset, int count, boolean keep) {
+        int s = offset;
+        int n = count;
+        while (n > 1 && (src.get(from + s) & 0xFF) <= ' ') {
+            s++;
+            n--;
+        }
+        while (n > 0 && s + n - 1 < len && (src.get(from + s + n - 1) & 0xFF) <= ' ') {
+            n--;
+        }
+        if (len >= 2 && n > 0 && src.get(from + s) == quoteCharacter && src.get(from + s + n - 1) == quoteCharacter) {
+            if (n < 2) {
+                throw new StringIndexOutOfBoundsException("begin " + (s + 1) + ", end " + s + ", length " + len);
+            }
+            return keep ? decode(src, from + s + 1, n - 2, true, recordAscii) : null;
+        }
+        return keep ? decode(src, from + offset, count, false, recordAscii) : null;
+    }
+
+    private String decode(ByteBuffer src, int from, int n, boolean unescapeQuotes, boolean ascii) {
+        if (n <= 0) return "";
+        if (fieldBytes.length < n) fieldBytes = new byte[Math.max(n, fieldBytes.length * 2)];
+
+        int k;
+        if (unescapeQuotes) {
+            k = 0;
+            for (int i = 0; i < n; i++) {
+                byte b = src.get(from + i);
+                fieldBytes[k++] = b;
+                if (b == quoteCharacter && i + 1 < n && src.get(from + i + 1) == quoteCharacter) i++;
+            }
+        } else {
+            src.get(from, fieldBytes, 0, n);
+            k = n;
+        }
+        // Fast path: bytes ASCII se copian tal cual (String LATIN1 compacto)
+        return new String(fieldBytes, 0, k, ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    private static byte asciiByte(char c) {
+        if (c > 0x7F) {
+            throw new IllegalArgumentException("Only ASCII delimiter/quote characters are supported: " + c);
+        }
+        return (byte) c;
+    }
+}
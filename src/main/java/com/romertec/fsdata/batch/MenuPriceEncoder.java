@@ -0,0 +1,171 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.entity.Menu;
+import com.romertec.fsdata.support.MySqlSchema;
+import com.romertec.fsdata.support.PriceParser;
+import com.romertec.fsdata.support.StreamingJdbcTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Precio numérico de menu: menu.price_amount (BIGINT, unidades menores) + menu.price_currency (CHAR(3)),
+ * indexados juntos (price_currency, price_amount) para filtros y orden por precio sin parsear el texto.
+ * <p>
+ * Opt-in (fooddata.price.enabled): las columnas las agrega db/menu-price.sql, a mano o desde beforeJob con
+ * fooddata.price.migrate-schema=true. Sin ellas el job no arranca.
+ * <p>
+ * - beforeJob: completa las filas con price pero sin price_currency parseando menu.price (la detección de cambios
+ *   no las volvería a escribir). Con el esquema ya migrado es una consulta por el índice que no encuentra filas;
+ *   solo se vuelven a mirar las de precio no parseable. Un backfill cortado se retoma en el próximo job.
+ * - encode(): lo llama el processor de menus; price sigue escribiéndose como texto al lado.
+ * - Step de menus: cuenta los precios que no se pudieron parsear ("menus.unparseablePrices" en el ExecutionContext)
+ *   y en afterStep escribe el reporte (valor, cantidad; de más a menos frecuente) de esa ejecución del step.
+ */
+public class MenuPriceEncoder implements JobExecutionListener, StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuPriceEncoder.class);
+
+    public static final String UNPARSEABLE = "menus.unparseablePrices";
+
+    static final String MIGRATION = "db/menu-price.sql";
+
+    // Tope de valores distintos en el reporte (los demás solo se cuentan)
+    private static final int MAX_DISTINCT = 10_000;
+    private static final int BACKFILL_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final String defaultCurrency;
+    private final Path reportFile;
+    private final boolean migrateSchema;
+
+    private final Map<String, LongAdder> unparseable = new ConcurrentHashMap<>();
+    private final LongAdder unparseableCount = new LongAdder();
+
+    public MenuPriceEncoder(DataSource dataSource, String defaultCurrency, Path reportFile, boolean migrateSchema) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new StreamingJdbcTemplate(dataSource); // fila a fila en MySQL
+        this.defaultCurrency = defaultCurrency;
+        this.reportFile = reportFile;
+        this.migrateSchema = migrateSchema;
+    }
+
+    public void encode(Menu m) {
+        PriceParser.Price price = PriceParser.parse(m.getPrice(), defaultCurrency);
+        if (price == null) {
+            m.setPriceAmount(null);
+            m.setPriceCurrency(null);
+            if (m.getPrice() != null) record(m.getPrice());
+            return;
+        }
+        m.setPriceAmount(price.minorUnits());
+        m.setPriceCurrency(price.currency());
+    }
+
+    private void record(String value) {
+        unparseableCount.increment();
+        LongAdder count = unparseable.get(value);
+        if (count == null && unparseable.size() < MAX_DISTINCT) {
+            count = unparseable.computeIfAbsent(value, v -> new LongAdder());
+        }
+        if (count != null) count.increment();
+    }
+
+    // ========= job: esquema =========
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        if (!MySqlSchema.hasColumn(jdbcTemplate, "menu", "price_amount")) {
+            if (!migrateSchema) {
+                throw new IllegalStateException("menu.price_amount does not exist: run " + MIGRATION
+                        + " or set fooddata.price.migrate-schema=true");
+            }
+            MySqlSchema.migrate(jdbcTemplate, MIGRATION);
+        }
+        backfill();
+    }
+
+    // Solo filas pendientes: price_currency NULL va por idx_menu_price
+    private void backfill() {
+        long start = System.currentTimeMillis();
+        List<Object[]> batch = new ArrayList<>(BACKFILL_BATCH);
+        long[] updated = {0};
+        streamingJdbcTemplate.query("SELECT id, price FROM menu WHERE price_currency IS NULL AND price IS NOT NULL", rs -> {
+            PriceParser.Price price = PriceParser.parse(rs.getString(2), defaultCurrency);
+            if (price == null) return;
+            batch.add(new Object[]{price.minorUnits(), price.currency(), rs.getInt(1)});
+            if (batch.size() == BACKFILL_BATCH) {
+                updated[0] += flush(batch);
+            }
+        });
+        updated[0] += flush(batch);
+        if (updated[0] > 0) {
+            log.info("Backfilled menu.price_amount / price_currency: {} rows in {} ms",
+                    updated[0], System.currentTimeMillis() - start);
+        }
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate("UPDATE menu SET price_amount = ?, price_currency = ? WHERE id = ?", batch);
+        int n = batch.size();
+        batch.clear();
+        return n;
+    }
+
+    // ========= step de menus: reporte =========
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        unparseable.clear();
+        unparseableCount.reset();
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        long total = unparseableCount.sum();
+        stepExecution.getExecutionContext().putLong(UNPARSEABLE, total);
+        if (total == 0) {
+            return null;
+        }
+        try {
+            Files.createDirectories(reportFile.toAbsolutePath().getParent());
+            try (BufferedWriter out = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+                out.write("price,count");
+                out.newLine();
+                List<Map.Entry<String, LongAdder>> entries = new ArrayList<>(unparseable.entrySet());
+                entries.sort((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()));
+                for (Map.Entry<String, LongAdder> e : entries) {
+                    out.write('"');
+                    out.write(e.getKey().replace("\"", "\"\""));
+                    out.write("\",");
+                    out.write(Long.toString(e.getValue().sum()));
+                    out.newLine();
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not write price report {}: {}", reportFile, e.toString());
+        }
+        log.warn("{} menu prices could not be parsed ({} distinct values, see {})",
+                total, unparseable.size(), reportFile);
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.entity.Menu;
+import com.romertec.fsdata.support.IdBitSet;
+import com.romertec.fsdata.support.InvertedIndex;
+import com.romertec.fsdata.support.StreamingJdbcTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Arma el índice de búsqueda de menus ({@link InvertedIndex}) mientras corre importMenusStep y lo guarda en
+ * {@code indexFile} si el step termina COMPLETED.
+ * <p>
+ * Entran todas las filas con id, también las que la detección de cambios no reescribe (el índice se arma entero
+ * en cada corrida). Los menus rechazados (huérfanos) no entran.
+ * <p>
+ * En un restart el reader salta lo ya commiteado (y con workers remotos ninguna fila pasa por el manager): esas
+ * filas no pasan por acá, así que el índice se reconstruye desde la BD al final del step ({@code sourceTables} en orden de prioridad: con staging, menu_stage y después
+ * menu; un id ya visto no se vuelve a agregar). Si el step no corre (el manifest lo salteó) el archivo anterior sigue
+ * valiendo.
+ */
+public class MenuSearchIndexer implements StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuSearchIndexer.class);
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final List<String> sourceTables;
+    private final Path indexFile;
+
+    private volatile InvertedIndex.Builder builder;
+    private boolean restart;
+
+    public MenuSearchIndexer(DataSource dataSource, List<String> sourceTables, Path indexFile) {
+        this.streamingJdbcTemplate = new StreamingJdbcTemplate(dataSource); // fila a fila en MySQL
+        this.sourceTables = List.copyOf(sourceTables);
+        this.indexFile = indexFile;
+    }
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        restart = PartialRun.isPartial(stepExecution);
+        builder = restart ? null : new InvertedIndex.Builder();
+    }
+
+    /** Menu con id ya asignado. */
+    public void add(Menu m) {
+        add(m.getId(), m);
+    }
+
+    /** Fila sin cambios (no se escribe): mismo texto, id que tenía en la corrida anterior. */
+    public void add(int id, Menu m) {
+        InvertedIndex.Builder current = builder;
+        if (current != null) {
+            current.add(id, m.getName(), m.getCategory(), m.getDescription());
+        }
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        InvertedIndex.Builder current = builder;
+        builder = null;   // liberar memoria entre corridas
+        if (stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+
+        long start = System.currentTimeMillis();
+        if (current == null) {
+            current = rebuild();
+        }
+        InvertedIndex index = current.build();
+        try {
+            index.writeTo(indexFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write menu search index " + indexFile, e);
+        }
+        log.info("Menu search index{}: {} documents, {} terms written to {} in {} ms",
+                restart ? " (rebuilt from " + sourceTables + ")" : "", index.documents(), index.termCount(), indexFile,
+                System.currentTimeMillis() - start);
+        return null;
+    }
+
+    private InvertedIndex.Builder rebuild() {
+        InvertedIndex.Builder fromTables = new InvertedIndex.Builder();
+        IdBitSet seen = new IdBitSet();
+        for (String table : sourceTables) {
+            streamingJdbcTemplate.query("SELECT id, name, category, description FROM " + table, rs -> {
+                int id = rs.getInt(1);
+                if (seen.contains(id)) return;
+                seen.add(id);
+                fromTables.add(id, rs.getString(2), rs.getString(3), rs.getString(4));
+            });
+        }
+        return fromTables;
+    }
+}
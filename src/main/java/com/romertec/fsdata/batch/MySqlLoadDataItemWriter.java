@@ -0,0 +1,181 @@
+package com.romertec.fsdata.batch;
+
+import com.mysql.cj.jdbc.JdbcStatement;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.file.transform.FieldExtractor;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Writer que manda cada chunk a MySQL con LOAD DATA LOCAL INFILE, armando el TSV en memoria (sin archivos temporales).
+ * <p>
+ * Requisitos: allowLoadLocalInfile=true en las conexiones (ImportWriterConfig lo agrega al pool si algún writer
+ * es load-data) y local_infile=ON en el servidor.
+ * <p>
+ * Manejo de duplicados:
+ * - MERGE (default): carga en una tabla TEMPORARY de la sesión y hace INSERT ... SELECT ... ON DUPLICATE KEY UPDATE
+ *   con las columnas de {@code updateColumns}: misma semántica de upsert que los JdbcBatchItemWriter. LOCAL implica
+ *   IGNORE sobre la tabla temporal (queda la primera fila de cada key), así que antes se deja solo la última fila
+ *   de cada key del chunk, como el upsert fila a fila.
+ * - REPLACE: LOAD DATA ... REPLACE (OJO: borra + inserta; con FKs hacia la tabla puede fallar o cascadear).
+ * - IGNORE: LOAD DATA ... IGNORE (deja la fila existente).
+ * <p>
+ * Corre dentro de la transacción del chunk (misma conexión que el resto del step). Thread-safe.
+ */
+public class MySqlLoadDataItemWriter<T> implements ItemWriter<T>, InitializingBean {
+
+    public enum Duplicates { MERGE, REPLACE, IGNORE }
+
+    private static final byte[] NULL_VALUE = {'\\', 'N'};
+
+    private DataSource dataSource;
+    private String table;
+    private String[] columns;
+    private String[] updateColumns = new String[0];
+    private FieldExtractor<T> fieldExtractor;
+    private Duplicates duplicates = Duplicates.MERGE;
+
+    public void setDataSource(DataSource dataSource) { this.dataSource = dataSource; }
+
+    public void setTable(String table) { this.table = table; }
+
+    /** La primera es la PK (con MERGE, el chunk se deja con una fila por valor de esa columna). */
+    public void setColumns(String... columns) { this.columns = columns.clone(); }
+
+    /** Columnas a actualizar cuando la fila ya existe (solo modo MERGE). */
+    public void setUpdateColumns(String... updateColumns) { this.updateColumns = updateColumns.clone(); }
+
+    /** Valores de cada item, en el mismo orden que {@code columns}. */
+    public void setFieldExtractor(FieldExtractor<T> fieldExtractor) { this.fieldExtractor = fieldExtractor; }
+
+    public void setDuplicates(Duplicates duplicates) { this.duplicates = duplicates; }
+
+    @Override
+    public void afterPropertiesSet() {
+        Assert.notNull(dataSource, "DataSource must be set");
+        Assert.hasText(table, "Table must be set");
+        Assert.notEmpty(columns, "Columns must be set");
+        Assert.notNull(fieldExtractor, "FieldExtractor must be set");
+        Assert.isTrue(duplicates != Duplicates.MERGE || updateColumns.length > 0,
+                "MERGE mode needs updateColumns");
+    }
+
+    @Override
+    public void write(Chunk<? extends T> chunk) throws Exception {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        byte[] tsv = toTsv(chunk);
+
+        Connection con = DataSourceUtils.getConnection(dataSource);
+        try (Statement stmt = con.createStatement()) {
+            if (duplicates == Duplicates.MERGE) {
+                String staging = "tmp_load_" + table;
+                // TEMPORARY: vive en la sesión, no hace commit implícito y no choca entre conexiones
+                stmt.execute("CREATE TEMPORARY TABLE IF NOT EXISTS " + staging + " LIKE " + table);
+                loadData(stmt, tsv, staging, "");
+                stmt.executeUpdate(mergeSql(staging));
+                stmt.executeUpdate("DELETE FROM " + staging);
+            } else {
+                loadData(stmt, tsv, table, duplicates.name());
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(con, dataSource);
+        }
+    }
+
+    private void loadData(Statement stmt, byte[] tsv, String target, String duplicatesKeyword) throws Exception {
+        stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(new ByteArrayInputStream(tsv));
+        try {
+            stmt.execute("LOAD DATA LOCAL INFILE 'chunk.tsv' " + duplicatesKeyword
+                    + " INTO TABLE " + target
+                    + " CHARACTER SET utf8mb4"
+                    + " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'"
+                    + " LINES TERMINATED BY '\\n'"
+                    + " (" + String.join(", ", columns) + ")");
+        } finally {
+            stmt.unwrap(JdbcStatement.class).setLocalInfileInputStream(null);
+        }
+    }
+
+    private String mergeSql(String staging) {
+        String cols = String.join(", ", columns);
+        String updates = Arrays.stream(updateColumns)
+                .map(c -> c + "=VALUES(" + c + ")")
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + cols + ") SELECT " + cols + " FROM " + staging
+                + " ON DUPLICATE KEY UPDATE " + updates;
+    }
+
+    // ========= TSV en memoria =========
+
+    private byte[] toTsv(Chunk<? extends T> chunk) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(chunk.size() * 128);
+        for (Object[] values : rows(chunk)) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write('\t');
+                writeValue(out, values[i]);
+            }
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    /** Valores de cada item; con MERGE, solo la última fila de cada key. */
+    private Collection<Object[]> rows(Chunk<? extends T> chunk) {
+        if (duplicates != Duplicates.MERGE) {
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (T item : chunk) rows.add(fieldExtractor.extract(item));
+            return rows;
+        }
+        Map<Object, Object[]> byKey = new LinkedHashMap<>();
+        for (T item : chunk) {
+            Object[] values = fieldExtractor.extract(item);
+            byKey.put(values[0], values);
+        }
+        return byKey.values();
+    }
+
+    private static void writeValue(ByteArrayOutputStream out, Object value) {
+        if (value == null) {
+            out.writeBytes(NULL_VALUE);
+            return;
+        }
+        String s = value.toString();
+        int plainFrom = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            char escaped = switch (c) {
+                case '\\' -> '\\';
+                case '\t' -> 't';
+                case '\n' -> 'n';
+                case '\r' -> 'r';
+                case '\0' -> '0';
+                default -> 0;
+            };
+            if (escaped != 0) {
+                out.writeBytes(s.substring(plainFrom, i).getBytes(StandardCharsets.UTF_8));
+                out.write('\\');
+                out.write(escaped);
+                plainFrom = i + 1;
+            }
+        }
+        out.writeBytes((plainFrom == 0 ? s : s.substring(plainFrom)).getBytes(StandardCharsets.UTF_8));
+    }
+}
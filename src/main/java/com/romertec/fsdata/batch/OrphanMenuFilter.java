@@ -0,0 +1,143 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.entity.Menu;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.core.scope.context.StepContext;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rechaza menus cuyo restaurant no existe, con un lookup O(1) en {@link RestaurantIdRegistry} (sin ir a la BD).
+ * <p>
+ * Antes esos menus llegaban al writer y fallaban por FK: rollback del chunk y re-scan item por item.
+ * Ahora se escriben a un CSV de rechazos (restaurantId, category, name, description, price) y se cuentan en el
+ * ExecutionContext del step ("menus.orphans").
+ * <p>
+ * Los rechazos quedan pendientes por StepExecution hasta que commitea un chunk ({@link #commits()}, en el step que
+ * procesa): recién ahí van al archivo y se cuentan. Un rollback no los descarta, porque el processor no transaccional
+ * no vuelve a procesar los items filtrados y el chunk que se reintenta los commitea. Los que siguen pendientes en
+ * afterStep son de un chunk que no commiteó: el restart los vuelve a leer y se descartan.
+ * <p>
+ * El archivo se reescribe en cada corrida; en un restart se agrega al final. accept() es synchronized.
+ */
+public class OrphanMenuFilter implements StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OrphanMenuFilter.class);
+
+    public static final String ORPHANS = "menus.orphans";
+
+    private final RestaurantIdRegistry registry;
+    private final Path rejectFile;
+
+    private BufferedWriter rejects;
+    private long rejected;
+    // líneas del CSV sin commitear, por id de la StepExecution que las procesó
+    private final Map<Long, List<String>> pending = new HashMap<>();
+
+    public OrphanMenuFilter(RestaurantIdRegistry registry, Path rejectFile) {
+        this.registry = registry;
+        this.rejectFile = rejectFile;
+    }
+
+    @Override
+    public synchronized void beforeStep(StepExecution stepExecution) {
+        registry.ensureLoaded(stepExecution.getJobExecution());
+        rejected = 0;
+        pending.clear();
+        boolean restart = PartialRun.isPartial(stepExecution);
+        try {
+            Files.createDirectories(rejectFile.toAbsolutePath().getParent());
+            boolean append = restart && Files.exists(rejectFile);
+            rejects = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+            if (!append) {
+                rejects.write("restaurant_id,category,name,description,price");
+                rejects.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open reject file " + rejectFile, e);
+        }
+    }
+
+    /** @return true si el restaurant existe; si no, escribe la fila en el archivo de rechazos. */
+    public boolean accept(Menu m) {
+        if (registry.contains(m.getRestaurantId())) {
+            return true;
+        }
+        reject(m);
+        return false;
+    }
+
+    private synchronized void reject(Menu m) {
+        StringBuilder line = new StringBuilder().append(m.getRestaurantId());
+        for (String v : new String[]{m.getCategory(), m.getName(), m.getDescription(), m.getPrice()}) {
+            line.append(',');
+            if (v != null) {
+                line.append('"').append(v.replace("\"", "\"\"")).append('"');
+            }
+        }
+        StepContext step = StepSynchronizationManager.getContext();
+        pending.computeIfAbsent(step == null ? null : step.getStepExecution().getId(), id -> new ArrayList<>())
+                .add(line.toString());
+    }
+
+    /** Listener de chunk del step que procesa los menus: escribe los rechazos de su StepExecution al commitear. */
+    public ChunkListener commits() {
+        return new ChunkListener() {
+            @Override
+            public void afterChunk(ChunkContext context) {
+                flush(context.getStepContext().getStepExecution().getId());
+            }
+        };
+    }
+
+    private synchronized void flush(Long stepExecutionId) {
+        List<String> lines = pending.remove(stepExecutionId);
+        if (lines == null) {
+            return;
+        }
+        try {
+            for (String line : lines) {
+                rejects.write(line);
+                rejects.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write reject file " + rejectFile, e);
+        }
+        rejected += lines.size();
+    }
+
+    @Override
+    public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+        pending.clear();
+        try {
+            if (rejects != null) rejects.close();
+        } catch (IOException e) {
+            log.warn("Could not close reject file {}: {}", rejectFile, e.toString());
+        }
+        rejects = null;
+        stepExecution.getExecutionContext().putLong(ORPHANS, rejected);
+        if (rejected > 0) {
+            log.warn("{} menus rejected: restaurant not found (see {})", rejected, rejectFile);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.romertec.fsdata.batch;
+
+import org.springframework.batch.core.SpringBatchVersion;
+import org.springframework.batch.core.StepExecution;
+
+import java.util.Map;
+
+/**
+ * ¿Las filas de este step pasan todas por esta JVM? Lo usan los listeners que arman estado por corrida (índice de
+ * búsqueda, ids de restaurants, rechazos, fingerprints) para decidir si completan desde la BD / el archivo anterior.
+ * <p>
+ * No, si el ExecutionContext ya trae algo al empezar:
+ * - restart: el estado de la ejecución anterior (readers, particiones); lo ya commiteado no se vuelve a leer.
+ * - particiones en workers de otras JVMs (fooddata.partition.mode=remote): el manager no ve ninguna fila
+ *   ({@link JobRepositoryPartitions#WORKER_STEP}).
+ * <p>
+ * Spring Batch 5 guarda batch.version en todo ExecutionContext antes de beforeStep: esa key no cuenta.
+ */
+final class PartialRun {
+
+    private PartialRun() {}
+
+    static boolean isPartial(StepExecution stepExecution) {
+        for (Map.Entry<String, Object> entry : stepExecution.getExecutionContext().entrySet()) {
+            if (!SpringBatchVersion.BATCH_VERSION_KEY.equals(entry.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,211 @@
+package com.romertec.fsdata.batch;
+
+import org.springframework.aop.scope.ScopedObject;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.ParseException;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reader que lee + transforma en un thread aparte y entrega los items ya transformados por un buffer acotado.
+ * <p>
+ * Mientras el thread del step procesa/escribe/commitea un chunk, el thread "parser" ya está leyendo y limpiando
+ * los siguientes. Si el buffer se llena, el parser espera (back-pressure).
+ * <p>
+ * Con {@link #setTaskExecutor} el parser solo lee: cada transformación corre en el executor y el buffer guarda los
+ * Future en orden de lectura (a lo sumo bufferSize en vuelo). El step los recibe en el mismo orden.
+ * <p>
+ * El {@code parser} corre adelantado respecto del commit y fuera de la transacción del chunk: tiene que ser una
+ * transformación sin estado ni efectos (parseo, limpieza de texto) y no puede filtrar, porque un item descartado
+ * acá no llegaría al filterCount del step (devolver null es un error). Lo que filtra o tiene efectos atados al
+ * commit (ids, detección de cambios, rechazos, índices) va en el processor del step, en el thread del step.
+ * <p>
+ * Checkpoint / restart:
+ * - El delegate va adelantado respecto de lo commiteado, así que su estado NO se guarda: update() guarda solo
+ *   cuántos items de origen fueron entregados al step ("<name>.consumed").
+ * - En un restart el delegate se abre desde cero y el parser descarta esa cantidad de items (sin procesarlos)
+ *   antes de seguir: se retoma en el primer item no commiteado.
+ * <p>
+ * Errores: los del delegate / parser se pasan al thread del step en el orden en que ocurrieron. Después de un
+ * ParseException (skippable en menus) el parser sigue leyendo; después de cualquier otro error se detiene.
+ * <p>
+ * Una instancia por step execution (@StepScope). Si el delegate es @StepScope, open() lo resuelve en el thread del
+ * step y el parser lee del objeto real: registrar el StepExecution en el parser y liberarlo al terminar de leer
+ * cerraría el step scope (destruyendo este reader) mientras el step todavía consume el buffer.
+ */
+public class PipelinedItemReader<I, O> implements ItemStreamReader<O> {
+
+    private static final String CONSUMED = "consumed";
+
+    /** item procesado (o error) + cantidad de items de origen leídos hasta él inclusive */
+    private record Entry<O>(Future<O> item, Exception error, long sourceCount, boolean end) {}
+
+    private final ItemStreamReader<I> delegate;
+    private final ItemProcessor<I, O> parser;
+    private final int bufferSize;
+    private String name = PipelinedItemReader.class.getSimpleName();
+    private TaskExecutor taskExecutor;
+
+    private BlockingQueue<Entry<O>> buffer;
+    private Thread parserThread;
+    private volatile boolean stopped;
+    private long consumed;
+    private boolean finished;
+
+    public PipelinedItemReader(ItemStreamReader<I> delegate, ItemProcessor<I, O> parser, int bufferSize) {
+        Assert.isTrue(bufferSize > 0, "bufferSize must be > 0");
+        this.delegate = delegate;
+        this.parser = parser;
+        this.bufferSize = bufferSize;
+    }
+
+    /** Prefijo de las keys en el ExecutionContext: estable para restart. */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /** Transformación en paralelo en este executor (null: en el thread parser). */
+    public void setTaskExecutor(TaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) throws ItemStreamException {
+        String key = name + "." + CONSUMED;
+        consumed = executionContext.containsKey(key) ? executionContext.getLong(key) : 0;
+        finished = false;
+        stopped = false;
+
+        // estado propio del delegate no: arranca del principio y el parser salta lo ya commiteado
+        delegate.open(new ExecutionContext());
+        ItemStreamReader<I> source = target(delegate);
+
+        long skip = consumed;
+        buffer = new ArrayBlockingQueue<>(bufferSize);
+        parserThread = new Thread(() -> produce(source, skip), "pipeline-" + Thread.currentThread().getName());
+        parserThread.setDaemon(true);
+        parserThread.start();
+    }
+
+    @Override
+    public O read() throws Exception {
+        while (!finished) {
+            Entry<O> e = buffer.take();
+            consumed = e.sourceCount();
+            if (e.end()) {
+                finished = true;
+            } else if (e.error() != null) {
+                throw e.error();
+            } else {
+                O item = result(e.item());
+                if (item == null) {
+                    throw new IllegalStateException("The pipeline parser must not filter items (source item "
+                            + e.sourceCount() + "): filter in the step processor so the step counts it");
+                }
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static <O> O result(Future<O> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            if (e.getCause() instanceof Error error) throw error;
+            throw e;
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) throws ItemStreamException {
+        executionContext.putLong(name + "." + CONSUMED, consumed);
+    }
+
+    @Override
+    public void close() throws ItemStreamException {
+        stopped = true;
+        if (parserThread != null) {
+            parserThread.interrupt();
+            try {
+                parserThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            parserThread = null;
+        }
+        buffer = null;
+        delegate.close();
+    }
+
+    // ========= thread parser =========
+
+    @SuppressWarnings("unchecked")
+    private static <I> ItemStreamReader<I> target(ItemStreamReader<I> reader) {
+        return reader instanceof ScopedObject scoped ? (ItemStreamReader<I>) scoped.getTargetObject() : reader;
+    }
+
+    private void produce(ItemStreamReader<I> source, long skip) {
+        long count = 0;
+        try {
+            for (; count < skip; count++) {
+                try {
+                    if (source.read() == null) break;
+                } catch (ParseException e) {
+                    // ya fue contado como skip en la ejecución anterior
+                }
+            }
+
+            while (!stopped) {
+                I item;
+                try {
+                    item = source.read();
+                } catch (ParseException e) {
+                    put(new Entry<>(null, e, ++count, false));
+                    continue;
+                }
+                if (item == null) {
+                    put(new Entry<>(null, null, count, true));
+                    return;
+                }
+                count++;
+                put(new Entry<>(transform(item), null, count, false));
+            }
+        } catch (InterruptedException e) {
+            // close() del step
+        } catch (Exception e) {
+            try {
+                put(new Entry<>(null, e, count, false));
+            } catch (InterruptedException ignored) {
+                // close() del step
+            }
+        }
+    }
+
+    private Future<O> transform(I item) throws Exception {
+        if (taskExecutor == null) {
+            return CompletableFuture.completedFuture(parser.process(item));
+        }
+        FutureTask<O> task = new FutureTask<>(() -> parser.process(item));
+        taskExecutor.execute(task);
+        return task;
+    }
+
+    private void put(Entry<O> entry) throws InterruptedException {
+        while (!buffer.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+            if (stopped) throw new InterruptedException();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.support.CompressedInput;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Parte un CSV en rangos de bytes que empiezan siempre en un inicio de record real.
+ * <p>
+ * Un record termina en un salto de línea (\n, \r o \r\n) cuando las comillas están balanceadas,
+ * igual que QuoteBalancedRecordSeparatorPolicy / QuotedMultilineRecordSeparatorPolicy
+ * (un "" escapado suma 2 comillas, no cambia la paridad).
+ * <p>
+ * Estrategia:
+ * - Corta el archivo (sin header) en gridSize tramos de igual tamaño.
+ * - Cuenta comillas de cada tramo en paralelo: la paridad acumulada dice si el corte cae dentro de un campo quoted.
+ * - Desde cada corte avanza hasta el primer salto de línea fuera de comillas: ahí empieza la partición.
+ * <p>
+ * Como '"', '\n' y '\r' nunca aparecen dentro de una secuencia multibyte UTF-8, el conteo por bytes es exacto.
+ * No contempla líneas de comentario (#): los archivos de food data no las traen.
+ * <p>
+ * Si el archivo viene comprimido (.gz / .zst, ver CompressedInput) no se puede cortar por bytes: una sola partición
+ * sin offsets que lee el archivo entero (la descompresión ya va en paralelo en el reader).
+ */
+public class QuoteAwareCsvPartitioner implements Partitioner {
+
+    public static final String FILE_NAME = "fileName";
+    public static final String START_OFFSET = "startOffset";
+    public static final String END_OFFSET = "endOffset";
+
+    // No vale la pena abrir una partición para menos de esto
+    private static final long MIN_PARTITION_BYTES = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final byte quoteChar;
+    private final int linesToSkip;
+
+    public QuoteAwareCsvPartitioner(Path file, char quoteChar, int linesToSkip) {
+        if (quoteChar > 0x7F) {
+            throw new IllegalArgumentException("quoteChar must be ASCII: " + quoteChar);
+        }
+        this.file = file;
+        this.quoteChar = (byte) quoteChar;
+        this.linesToSkip = linesToSkip;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        Path input = CompressedInput.resolve(file);
+        if (CompressedInput.isCompressed(input)) {
+            ExecutionContext ctx = new ExecutionContext();
+            ctx.putString(FILE_NAME, input.toAbsolutePath().toString());
+            return Map.of("partition0", ctx);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = skipLines(channel, linesToSkip, size);
+
+            int grid = (int) Math.max(1, Math.min(gridSize, (size - dataStart) / MIN_PARTITION_BYTES));
+
+            long[] cuts = new long[grid + 1];
+            for (int i = 0; i <= grid; i++) {
+                cuts[i] = dataStart + (size - dataStart) * i / grid;
+            }
+
+            // Paridad de comillas de cada tramo [cuts[i], cuts[i+1])
+            boolean[] oddQuotes = new boolean[grid];
+            IntStream.range(0, grid - 1).parallel()
+                    .forEach(i -> oddQuotes[i] = countQuotes(channel, cuts[i], cuts[i + 1]) % 2 != 0);
+
+            long[] bounds = new long[grid + 1];
+            bounds[0] = dataStart;
+            bounds[grid] = size;
+            boolean inQuotes = false;
+            for (int i = 1; i < grid; i++) {
+                inQuotes ^= oddQuotes[i - 1];
+                bounds[i] = nextRecordStart(channel, cuts[i], inQuotes, size);
+            }
+
+            Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+            for (int i = 0; i < grid; i++) {
+                // Un record más largo que un tramo deja particiones vacías: se descartan
+                if (bounds[i] >= bounds[i + 1]) continue;
+
+                ExecutionContext ctx = new ExecutionContext();
+                ctx.putString(FILE_NAME, file.toAbsolutePath().toString());
+                ctx.putLong(START_OFFSET, bounds[i]);
+                ctx.putLong(END_OFFSET, bounds[i + 1]);
+                partitions.put("partition" + i, ctx);
+            }
+            return partitions;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not partition " + file, e);
+        }
+    }
+
+    /** Offset justo después de las primeras {@code lines} líneas físicas (header). */
+    private static long skipLines(FileChannel channel, int lines, long size) throws IOException {
+        long pos = 0;
+        ByteScanner in = new ByteScanner(channel, 0, size);
+        for (int i = 0; i < lines; i++) {
+            int b;
+            while ((b = in.next()) >= 0 && b != '\n' && b != '\r') {
+                // seguir hasta el fin de línea
+            }
+            if (b < 0) return size;
+            if (b == '\r' && in.peek() == '\n') in.next();
+            pos = in.position();
+        }
+        return pos;
+    }
+
+    private int countQuotes(FileChannel channel, long from, long to) {
+        try {
+            ByteScanner in = new ByteScanner(channel, from, to);
+            int count = 0;
+            int b;
+            while ((b = in.next()) >= 0) {
+                if (b == quoteChar) count++;
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long nextRecordStart(FileChannel channel, long from, boolean inQuotes, long size) throws IOException {
+        ByteScanner in = new ByteScanner(channel, from, size);
+        int b;
+        while ((b = in.next()) >= 0) {
+            if (b == quoteChar) {
+                inQuotes = !inQuotes;
+            } else if ((b == '\n' || b == '\r') && !inQuotes) {
+                if (b == '\r' && in.peek() == '\n') in.next();
+                return in.position();
+            }
+        }
+        return size;
+    }
+
+    /** Lectura secuencial con buffer usando reads posicionales (thread-safe sobre el mismo canal). */
+    private static final class ByteScanner {
+
+        private final FileChannel channel;
+        private final long end;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long bufferStart;
+
+        ByteScanner(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.end = end;
+            this.bufferStart = start;
+            buffer.limit(0);
+        }
+
+        int next() throws IOException {
+            if (!buffer.hasRemaining() && !fill()) return -1;
+            return buffer.get() & 0xFF;
+        }
+
+        int peek() throws IOException {
+            if (!buffer.hasRemaining() && !fill()) return -1;
+            return buffer.get(buffer.position()) & 0xFF;
+        }
+
+        long position() {
+            return bufferStart + buffer.position();
+        }
+
+        private boolean fill() throws IOException {
+            bufferStart += buffer.limit();
+            if (bufferStart >= end) return false;
+            buffer.clear();
+            buffer.limit((int) Math.min(BUFFER_SIZE, end - bufferStart));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, bufferStart + buffer.position()) < 0) break;
+            }
+            buffer.flip();
+            return buffer.hasRemaining();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.romertec.fsdata.batch;
+
+/**
+ * Lo que un reader de CSV informa por cada record armado: bytes consumidos del archivo (con saltos de línea),
+ * líneas físicas que ocupó (más de 1 = record multi-línea) y el tiempo de tokenizar y de mapear a la fila.
+ * Se llama una vez por record, desde el thread que lee. Lo implementa {@link ImportMetrics.StepMetrics}.
+ */
+public interface RecordMetrics {
+
+    void record(long bytes, int lines, long tokenizeNanos, long mapNanos);
+}
@@ -0,0 +1,73 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.FoodDataProperties;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/** fooddata.partition.mode=remote: coordinación en import_partition y workers (fooddata.worker.enabled). */
+@Configuration
+public class RemotePartitionConfig {
+
+    private final FoodDataProperties properties;
+
+    public RemotePartitionConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public JobRepositoryPartitions jobRepositoryPartitions(
+            JdbcTemplate jdbcTemplate,
+            JobRepository jobRepository,
+            JobExplorer jobExplorer
+    ) {
+        if (properties.partition().isRemote() && properties.changeDetection().enabled()) {
+            // los fingerprints viven en un archivo de esta JVM y el tracker tiene que ver todas las filas
+            throw new IllegalStateException("fooddata.change-detection.enabled is not supported with "
+                    + "fooddata.partition.mode=remote");
+        }
+        FoodDataProperties.Remote remote = properties.partition().remote();
+        return new JobRepositoryPartitions(jdbcTemplate, jobRepository, jobExplorer,
+                Duration.ofMillis(remote.pollIntervalMs()), Duration.ofMillis(remote.leaseTimeoutMs()));
+    }
+
+    /** Worker: misma configuración que el manager y los archivos de entrada en el mismo path en todas las JVMs. */
+    @Bean
+    public JobRepositoryPartitionWorker partitionWorker(
+            JobRepositoryPartitions jobRepositoryPartitions,
+            Step importRestaurantsStep,
+            Step importMenusStep,
+            DictionaryEncoder dictionaryEncoder,
+            MenuPriceEncoder menuPriceEncoder,
+            RestaurantGeoEncoder restaurantGeoEncoder,
+            OrphanMenuFilter orphanMenuFilter
+    ) {
+        FoodDataProperties.Worker config = properties.worker();
+        if (config.enabled() && !properties.partition().isRemote()) {
+            throw new IllegalStateException("fooddata.worker.enabled needs fooddata.partition.mode=remote");
+        }
+        boolean price = properties.price().enabled();
+        // los mismos listeners de job que foodDataImportJob (esquema y diccionarios en esta JVM)
+        List<JobExecutionListener> jobListeners = new ArrayList<>(List.of(dictionaryEncoder));
+        if (price) jobListeners.add(menuPriceEncoder);
+        if (properties.geo().enabled()) jobListeners.add(restaurantGeoEncoder);
+        JobRepositoryPartitionWorker worker = new JobRepositoryPartitionWorker(jobRepositoryPartitions,
+                config.enabled(), config.threads(), jobListeners);
+        // de los listeners de corrida solo los que juntan algo fila a fila; los que cargan desde la BD van en el manager
+        worker.register(importRestaurantsStep, List.of());
+        List<StepExecutionListener> menuListeners = new ArrayList<>();
+        if (properties.orphans().filter().enabled()) menuListeners.add(orphanMenuFilter);
+        if (price) menuListeners.add(menuPriceEncoder);
+        worker.register(importMenusStep, menuListeners);
+        return worker;
+    }
+}
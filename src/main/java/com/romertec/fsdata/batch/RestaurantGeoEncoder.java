@@ -0,0 +1,106 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.entity.Restaurant;
+import com.romertec.fsdata.support.GeoUtils;
+import com.romertec.fsdata.support.MySqlSchema;
+import com.romertec.fsdata.support.StreamingJdbcTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Coordenadas tipadas de restaurants: latitude / longitude (DOUBLE) + geohash (CHAR(8), ~40m) indexado, al lado
+ * de lat / lng en texto. El geohash sirve para buscar por prefijo (celda) desde SQL; las consultas de vecinos
+ * cercanos usan el índice en memoria del servicio de lectura.
+ * <p>
+ * Opt-in (fooddata.geo.enabled): las columnas las agrega db/restaurants-geo.sql, a mano o desde beforeJob con
+ * fooddata.geo.migrate-schema=true. Sin ellas el job no arranca.
+ * <p>
+ * beforeJob completa las filas sin geohash desde lat / lng (la detección de cambios no las volvería a escribir). Con
+ * el esquema ya migrado es una consulta por idx_restaurants_geohash que no encuentra filas; solo se vuelven a mirar
+ * las de coordenadas inválidas. Un backfill cortado se retoma en el próximo job.
+ */
+public class RestaurantGeoEncoder implements JobExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantGeoEncoder.class);
+
+    public static final int GEOHASH_PRECISION = 8;
+    private static final int BACKFILL_BATCH = 1000;
+
+    static final String MIGRATION = "db/restaurants-geo.sql";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final boolean migrateSchema;
+
+    public RestaurantGeoEncoder(DataSource dataSource, boolean migrateSchema) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate = new StreamingJdbcTemplate(dataSource); // fila a fila en MySQL
+        this.migrateSchema = migrateSchema;
+    }
+
+    /** Sin lat o lng válidas quedan las tres columnas en NULL. */
+    public void encode(Restaurant r) {
+        Double lat = GeoUtils.parseLatitude(r.getLat());
+        Double lng = GeoUtils.parseLongitude(r.getLng());
+        if (lat == null || lng == null) {
+            r.setLatitude(null);
+            r.setLongitude(null);
+            r.setGeohash(null);
+            return;
+        }
+        r.setLatitude(lat);
+        r.setLongitude(lng);
+        r.setGeohash(GeoUtils.geohash(lat, lng, GEOHASH_PRECISION));
+    }
+
+    // ========= job: esquema =========
+
+    @Override
+    public void beforeJob(JobExecution jobExecution) {
+        if (!MySqlSchema.hasColumn(jdbcTemplate, "restaurants", "latitude")) {
+            if (!migrateSchema) {
+                throw new IllegalStateException("restaurants.latitude does not exist: run " + MIGRATION
+                        + " or set fooddata.geo.migrate-schema=true");
+            }
+            MySqlSchema.migrate(jdbcTemplate, MIGRATION);
+        }
+        backfill();
+    }
+
+    // Solo filas pendientes: geohash NULL va por idx_restaurants_geohash
+    private void backfill() {
+        long start = System.currentTimeMillis();
+        List<Object[]> batch = new ArrayList<>(BACKFILL_BATCH);
+        long[] updated = {0};
+        streamingJdbcTemplate.query("SELECT id, lat, lng FROM restaurants "
+                + "WHERE geohash IS NULL AND lat IS NOT NULL AND lng IS NOT NULL", rs -> {
+            Double lat = GeoUtils.parseLatitude(rs.getString(2));
+            Double lng = GeoUtils.parseLongitude(rs.getString(3));
+            if (lat == null || lng == null) return;
+            batch.add(new Object[]{lat, lng, GeoUtils.geohash(lat, lng, GEOHASH_PRECISION), rs.getInt(1)});
+            if (batch.size() == BACKFILL_BATCH) {
+                updated[0] += flush(batch);
+            }
+        });
+        updated[0] += flush(batch);
+        if (updated[0] > 0) {
+            log.info("Backfilled restaurants.latitude / longitude / geohash: {} rows in {} ms",
+                    updated[0], System.currentTimeMillis() - start);
+        }
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) return 0;
+        jdbcTemplate.batchUpdate("UPDATE restaurants SET latitude = ?, longitude = ?, geohash = ? WHERE id = ?", batch);
+        int n = batch.size();
+        batch.clear();
+        return n;
+    }
+}
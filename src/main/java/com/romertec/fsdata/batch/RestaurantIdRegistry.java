@@ -0,0 +1,122 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.support.IdBitSet;
+import com.romertec.fsdata.support.StreamingJdbcTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ids de restaurants válidos para el import de menus, en un bitset en memoria.
+ * <p>
+ * - importRestaurantsStep: restaurantProcessor agrega cada id procesado; en afterStep se suman los restaurants que
+ *   ya estaban en la BD y siguen existiendo (1 SELECT por corrida, no por fila) y, si el bitset comprimido es chico,
+ *   se publica en el ExecutionContext del job ("restaurant.ids") para un restart en otra JVM.
+ * - importMenusStep: ensureLoaded() usa lo de memoria; si el step de restaurants no corrió en esta JVM (restart,
+ *   o el manifest lo salteó) lo toma del job context o, como último recurso, lo reconstruye desde la BD.
+ */
+public class RestaurantIdRegistry implements StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantIdRegistry.class);
+
+    public static final String JOB_CONTEXT_KEY = "restaurant.ids";
+
+    // SERIALIZED_CONTEXT es TEXT (64KB) en MySQL y el serializer lo pasa a base64
+    private static final int MAX_CONTEXT_BYTES = 32 * 1024;
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final List<String> existingTables;
+    private final String importedTable;
+
+    private final IdBitSet ids = new IdBitSet();
+    private volatile Long loadedForJobExecution;   // job execution para el que el bitset está completo
+    private boolean partial;                       // restart o workers remotos: faltan filas en el bitset
+
+    /**
+     * @param existingTables tablas cuyos ids siguen siendo válidos aunque no vengan en el archivo
+     * @param importedTable  tabla donde queda lo importado en esta corrida (restaurants o restaurants_stage)
+     */
+    public RestaurantIdRegistry(DataSource dataSource, List<String> existingTables, String importedTable) {
+        this.streamingJdbcTemplate = new StreamingJdbcTemplate(dataSource); // fila a fila en MySQL
+        this.existingTables = List.copyOf(existingTables);
+        this.importedTable = importedTable;
+    }
+
+    public void add(Integer id) {
+        if (id != null) ids.add(id);
+    }
+
+    public boolean contains(Integer id) {
+        return ids.contains(id);
+    }
+
+    // ========= importRestaurantsStep =========
+
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        ids.clear();
+        loadedForJobExecution = null;
+        partial = PartialRun.isPartial(stepExecution);
+    }
+
+    @Override
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        if (stepExecution.getStatus() != BatchStatus.COMPLETED) {
+            return null;
+        }
+        // en un restart el reader no vuelve a pasar las filas ya commiteadas (y con workers remotos no pasa ninguna
+        // por esta JVM): están en la tabla importada
+        Set<String> tables = new LinkedHashSet<>(existingTables);
+        if (partial) {
+            tables.add(importedTable);
+        }
+        loadFrom(tables);
+        loadedForJobExecution = stepExecution.getJobExecutionId();
+
+        byte[] compressed = ids.toCompressedBytes();
+        if (compressed.length <= MAX_CONTEXT_BYTES) {
+            stepExecution.getJobExecution().getExecutionContext().put(JOB_CONTEXT_KEY, compressed);
+        }
+        log.info("Restaurant id set: {} ids, {} bytes compressed{}", ids.cardinality(), compressed.length,
+                compressed.length <= MAX_CONTEXT_BYTES ? " (published in job context)" : "");
+        return null;
+    }
+
+    // ========= importMenusStep =========
+
+    public void ensureLoaded(JobExecution jobExecution) {
+        if (jobExecution.getId().equals(loadedForJobExecution)) {
+            return;
+        }
+        Object published = jobExecution.getExecutionContext().get(JOB_CONTEXT_KEY);
+        ids.clear();
+        if (published instanceof byte[] compressed) {
+            ids.addAll(IdBitSet.fromCompressedBytes(compressed));
+            log.info("Restaurant id set restored from job context: {} ids", ids.cardinality());
+        } else {
+            Set<String> tables = new LinkedHashSet<>(existingTables);
+            tables.add(importedTable);
+            loadFrom(tables);
+            log.info("Restaurant id set rebuilt from {}: {} ids", tables, ids.cardinality());
+        }
+        loadedForJobExecution = jobExecution.getId();
+    }
+
+    private void loadFrom(Set<String> tables) {
+        for (String table : tables) {
+            streamingJdbcTemplate.query("SELECT id FROM " + table, rs -> {
+                ids.add(rs.getInt(1));
+            });
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.support.FingerprintTable;
+import com.romertec.fsdata.support.RowFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Detección de cambios por fila: compara el fingerprint de cada fila ya limpia contra el de la corrida anterior
+ * y deja pasar al writer solo las nuevas o modificadas.
+ * <p>
+ * - key: identidad de la fila (restaurants: id; menu: hash de restaurantId + category + name).
+ * - valor: fingerprint de 32 bits en la parte alta + id de la fila en la baja. El id guardado permite que un menu
+ *   modificado se actualice sobre su mismo id en vez de insertarse como fila nueva.
+ * - El store es un archivo binario por tabla (count + pares key/valor), se carga en beforeStep y se reescribe
+ *   (tmp + move atómico) en afterStep.
+ * - Lo que registra track() queda atado a la transacción del chunk: si hace rollback se deshace (una fila nueva
+ *   conserva su id pero sin fingerprint, así que se vuelve a escribir con ese id). Así el store refleja lo commiteado
+ *   también cuando el step falla.
+ * - Conteos inserted/updated/unchanged/deleted en el ExecutionContext del step ("rows.*") y en el log.
+ *   "deleted" son keys de la corrida anterior que no vinieron en el archivo (solo se reporta, no se borra).
+ * <p>
+ * Se registra como listener del step de más arriba (el manager si hay particiones): una carga y un guardado por
+ * corrida, compartido por todas las particiones. track() es synchronized.
+ * <p>
+ * Un step que no termina COMPLETED guarda el store sin podar (lo commiteado + lo anterior) y las keys ya vistas en
+ * {@code <store>.seen}: en el restart el reader salta las filas ya escritas, que siguen contando como vistas (no se
+ * puede distinguir "ya procesada" de "borrada", así que el store del restart tampoco se poda).
+ * <p>
+ * Keys repetidas (distinctOccurrences): cada repetición usa la ocurrencia cuyo fingerprint coincide con el de la
+ * fila; si ninguna coincide, la primera libre. El mismo archivo da siempre las mismas keys, sin importar el orden
+ * de proceso (particiones, async); solo las filas modificadas dependen del orden, y reusan ids existentes.
+ */
+public class RowChangeTracker implements StepExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RowChangeTracker.class);
+
+    // fingerprint de una fila cuyo write hizo rollback: nunca coincide con el de una fila leída
+    private static final int NO_FINGERPRINT = 0;
+
+    public static final String INSERTED = "rows.inserted";
+    public static final String UPDATED = "rows.updated";
+    public static final String UNCHANGED = "rows.unchanged";
+    public static final String DELETED = "rows.deleted";
+
+    private final String name;
+    private final Path storeFile;
+    private final Path seenFile;
+    private final boolean filterUnchanged;
+    private final boolean distinctOccurrences;
+
+    private FingerprintTable table = new FingerprintTable();
+    private int previousSize;
+    private int previousSeen;
+    private boolean restart;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+
+    /**
+     * @param name                nombre para el log (restaurants, menu)
+     * @param storeFile           archivo con los fingerprints de la corrida anterior
+     * @param filterUnchanged     false = se cuentan pero igual se escriben (ej. staging con delete-missing)
+     * @param distinctOccurrences true si la misma key puede venir repetida en el archivo y cada repetición es una
+     *                            fila distinta (menu: el mismo plato dos veces con distinta descripción/precio)
+     */
+    public RowChangeTracker(String name, Path storeFile, boolean filterUnchanged, boolean distinctOccurrences) {
+        this.name = name;
+        this.storeFile = storeFile;
+        this.seenFile = storeFile.resolveSibling(storeFile.getFileName() + ".seen");
+        this.filterUnchanged = filterUnchanged;
+        this.distinctOccurrences = distinctOccurrences;
+    }
+
+    @Override
+    public synchronized void beforeStep(StepExecution stepExecution) {
+        // un restart trae el ExecutionContext de la ejecución anterior (estado de los readers / particiones)
+        restart = PartialRun.isPartial(stepExecution);
+        table = load(storeFile);
+        previousSize = table.size();
+        if (restart) {
+            loadSeen();
+        }
+        previousSeen = 0;
+        inserted = updated = unchanged = 0;
+        log.info("Change detection for {}: {} fingerprints loaded from {}", name, previousSize, storeFile);
+    }
+
+    /**
+     * Registra la fila y decide si hay que escribirla.
+     *
+     * @param key         identidad de la fila
+     * @param fingerprint hash de los campos limpios ({@link RowFingerprint})
+     * @param newId       id para una fila nueva (solo se llama si la key no existía)
+     * @return id con el que escribir la fila, o null si no cambió y se filtra
+     */
+    public Integer track(long key, long fingerprint, IntSupplier newId) {
+        return track(key, fingerprint, newId, null);
+    }
+
+    /**
+     * Igual que {@link #track(long, long, IntSupplier)}; {@code unchangedId} recibe el id de una fila sin cambios
+     * que se filtra (para quien necesita ver todas las filas, p. ej. el índice de búsqueda).
+     */
+    public synchronized Integer track(long key, long fingerprint, IntSupplier newId, IntConsumer unchangedId) {
+        int fp = (int) (fingerprint ^ (fingerprint >>> 32));
+        if (fp == NO_FINGERPRINT) fp++;
+        if (distinctOccurrences) {
+            key = occurrence(key, fp);
+        }
+
+        boolean existed = table.containsKey(key);
+        boolean seenBefore = table.isMarked(key);
+        long previous = table.get(key, 0);
+        List<Change> changes = transactionChanges();
+
+        if (!existed) {
+            int id = newId.getAsInt();
+            table.put(key, pack(fp, id));
+            table.mark(key);
+            inserted++;
+            if (changes != null) changes.add(new Change(key, false, 0, false, Change.INSERTED, id));
+            return id;
+        }
+
+        if (!seenBefore) previousSeen++;
+        table.mark(key);
+        int id = (int) previous;
+        if ((int) (previous >>> 32) == fp) {
+            unchanged++;
+            if (changes != null) changes.add(new Change(key, true, previous, seenBefore, Change.UNCHANGED, id));
+            if (!filterUnchanged) return id;
+            if (unchangedId != null) unchangedId.accept(id);
+            return null;
+        }
+        table.put(key, pack(fp, id));
+        updated++;
+        if (changes != null) changes.add(new Change(key, true, previous, seenBefore, Change.UPDATED, id));
+        return id;
+    }
+
+    /**
+     * Ocurrencia de una key repetida: key, f(key), f(f(key))... La que tiene el mismo fingerprint (la misma fila que
+     * en la corrida anterior), si no la primera existente sin usar en esta corrida, si no una nueva al final.
+     */
+    private long occurrence(long key, int fp) {
+        long free = 0;
+        boolean hasFree = false;
+        while (table.containsKey(key)) {
+            if (!table.isMarked(key)) {
+                if ((int) (table.get(key, 0) >>> 32) == fp) {
+                    return key;
+                }
+                if (!hasFree) {
+                    free = key;
+                    hasFree = true;
+                }
+            }
+            key = RowFingerprint.finish(key + 1);
+        }
+        return hasFree ? free : key;
+    }
+
+    // ========= transacción del chunk =========
+
+    /** Cambio hecho por track() en la transacción en curso, para deshacerlo si hace rollback. */
+    private record Change(long key, boolean existed, long previous, boolean wasMarked, int kind, int id) {
+        static final int INSERTED = 0;
+        static final int UPDATED = 1;
+        static final int UNCHANGED = 2;
+    }
+
+    /** Cambios de la transacción en curso (registra el rollback la primera vez); null si no hay transacción. */
+    @SuppressWarnings("unchecked")
+    private List<Change> transactionChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        List<Change> changes = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            List<Change> created = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(RowChangeTracker.this);
+                    if (status != STATUS_COMMITTED) {
+                        undo(created);
+                    }
+                }
+            });
+            changes = created;
+        }
+        return changes;
+    }
+
+    private synchronized void undo(List<Change> changes) {
+        for (int i = changes.size() - 1; i >= 0; i--) {
+            Change c = changes.get(i);
+            switch (c.kind()) {
+                case Change.INSERTED -> {
+                    // el id ya se asignó: se conserva para que la fila se escriba con él cuando vuelva a venir
+                    table.put(c.key(), pack(NO_FINGERPRINT, c.id()));
+                    inserted--;
+                }
+                case Change.UPDATED -> {
+                    table.put(c.key(), c.previous());
+                    updated--;
+                }
+                default -> unchanged--;
+            }
+            if (!c.wasMarked()) {
+                table.unmark(c.key());
+                if (c.existed()) previousSeen--;
+            }
+        }
+    }
+
+    @Override
+    public synchronized ExitStatus afterStep(StepExecution stepExecution) {
+        long deleted = previousSize - previousSeen;
+        ExecutionContext ctx = stepExecution.getExecutionContext();
+        ctx.putLong(INSERTED, inserted);
+        ctx.putLong(UPDATED, updated);
+        ctx.putLong(UNCHANGED, unchanged);
+        ctx.putLong(DELETED, deleted);
+        log.info("Change detection for {}: inserted={}, updated={}, unchanged={}, deleted={}{}",
+                name, inserted, updated, unchanged, deleted, filterUnchanged ? "" : " (unchanged rows written anyway)");
+
+        if (stepExecution.getStatus() == BatchStatus.COMPLETED) {
+            save(!restart);
+            deleteSeen();
+        } else {
+            // lo commiteado hasta acá: el restart no vuelve a leer esas filas
+            save(false);
+            saveSeen();
+        }
+        table = new FingerprintTable();   // liberar memoria entre corridas
+        return null;
+    }
+
+    private static long pack(int fingerprint, int id) {
+        return ((long) fingerprint << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private static FingerprintTable load(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return new FingerprintTable();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            return FingerprintTable.readFrom(in);
+        } catch (IOException e) {
+            // store corrupto o incompleto: se trata como primera corrida (todo se escribe)
+            log.warn("Could not read fingerprint store {}, starting from scratch: {}", file, e.toString());
+            return new FingerprintTable();
+        }
+    }
+
+    private void loadSeen() {
+        if (!Files.isRegularFile(seenFile)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(seenFile), 1 << 16))) {
+            table.readMarksFrom(in);
+        } catch (IOException e) {
+            log.warn("Could not read seen keys {}: {}", seenFile, e.toString());
+        }
+    }
+
+    private void saveSeen() {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(seenFile), 1 << 16))) {
+            table.writeMarksTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write seen keys " + seenFile, e);
+        }
+    }
+
+    private void deleteSeen() {
+        try {
+            Files.deleteIfExists(seenFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete " + seenFile, e);
+        }
+    }
+
+    private void save(boolean markedOnly) {
+        try {
+            Path dir = storeFile.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, storeFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                table.writeTo(out, markedOnly);
+            }
+            Files.move(tmp, storeFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write fingerprint store " + storeFile, e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.FoodDataProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/** Filtros de filas: huérfanos (fooddata.orphans.filter.enabled) y detección de cambios (fooddata.change-detection.enabled). */
+@Configuration
+public class RowFilterConfig {
+
+    private final FoodDataProperties properties;
+
+    public RowFilterConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
+    // ========= ORPHANS =========
+
+    @Bean
+    public RestaurantIdRegistry restaurantIdRegistry(DataSource dataSource) {
+        boolean staging = properties.load().staging();
+        // existing: restaurants que siguen existiendo después del import aunque no vengan en el archivo
+        List<String> existing = staging && properties.staging().deleteMissing() ? List.of() : List.of("restaurants");
+        return new RestaurantIdRegistry(dataSource, existing, staging ? "restaurants_stage" : "restaurants");
+    }
+
+    @Bean
+    public OrphanMenuFilter orphanMenuFilter(RestaurantIdRegistry restaurantIdRegistry) {
+        return new OrphanMenuFilter(restaurantIdRegistry, properties.orphanRejectFile());
+    }
+
+    // ========= CHANGE DETECTION =========
+
+    @Bean
+    public RowChangeTracker restaurantChangeTracker() {
+        return new RowChangeTracker("restaurants", properties.changeDetectionStoreDir().resolve("restaurants.fp"),
+                filtersUnchangedRows(), false);
+    }
+
+    @Bean
+    public RowChangeTracker menuChangeTracker() {
+        return new RowChangeTracker("menu", properties.changeDetectionStoreDir().resolve("menu.fp"),
+                filtersUnchangedRows(), true);
+    }
+
+    // staging + delete-missing borra lo que no esté en la staging: ahí las filas sin cambios tienen que llegar igual
+    private boolean filtersUnchangedRows() {
+        return !(properties.load().staging() && properties.staging().deleteMissing());
+    }
+}
@@ -0,0 +1,79 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.support.InputFiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Una partición por shard del input (fooddata.input.* con glob, ver InputFiles), del más grande al más chico.
+ * <p>
+ * Cada partición lleva el archivo en {@link QuoteAwareCsvPartitioner#FILE_NAME} y su tamaño en
+ * {@link #SHARD_SIZE}; LargestFirstPartitionHandler las lanza en ese orden para que el shard más lento no
+ * arranque último. Cada shard es un CSV completo (con header) y tiene su propio ExecutionContext: estado del reader
+ * y restart independientes. El nombre de la partición es el del archivo, estable entre corridas.
+ * <p>
+ * Si el input es un solo archivo se parte por rangos de bytes como siempre (QuoteAwareCsvPartitioner).
+ */
+public class ShardPartitioner implements Partitioner {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardPartitioner.class);
+
+    public static final String SHARD_SIZE = "shardSize";
+
+    private final Path baseDir;
+    private final String input;
+
+    public ShardPartitioner(Path baseDir, String input) {
+        this.baseDir = baseDir;
+        this.input = input;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        List<Path> files = InputFiles.resolve(baseDir, input);
+        if (files.size() == 1 && !InputFiles.isPattern(input)) {
+            return new QuoteAwareCsvPartitioner(files.get(0), '"', 1).partition(gridSize);
+        }
+
+        List<Shard> shards = new ArrayList<>(files.size());
+        for (Path file : files) {
+            shards.add(new Shard(file, size(file)));
+        }
+        shards.sort(Comparator.comparingLong(Shard::size).reversed());
+
+        Map<String, ExecutionContext> partitions = new LinkedHashMap<>();
+        long total = 0;
+        for (Shard shard : shards) {
+            ExecutionContext ctx = new ExecutionContext();
+            ctx.putString(QuoteAwareCsvPartitioner.FILE_NAME, shard.file().toAbsolutePath().toString());
+            ctx.putLong(SHARD_SIZE, shard.size());
+            partitions.put("shard-" + shard.file().getFileName(), ctx);
+            total += shard.size();
+        }
+        log.info("Input {}: {} shards, {} bytes (largest {}, smallest {})", input, shards.size(), total,
+                shards.get(0).size(), shards.get(shards.size() - 1).size());
+        return partitions;
+    }
+
+    private record Shard(Path file, long size) {}
+
+    private static long size(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read input file " + file, e);
+        }
+    }
+}
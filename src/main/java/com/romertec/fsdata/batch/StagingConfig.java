@@ -0,0 +1,66 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.FoodDataProperties;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+/** fooddata.load.mode=staging: tablas *_stage antes del import y merge final sobre las reales. */
+@Configuration
+public class StagingConfig {
+
+    private final FoodDataProperties properties;
+
+    public StagingConfig(FoodDataProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public StagingTableMerger stagingTableMerger(JdbcTemplate jdbcTemplate) {
+        boolean lookupTables = properties.dictionary().lookupTables();
+        boolean price = properties.price().enabled();
+        boolean geo = properties.geo().enabled();
+        return new StagingTableMerger(jdbcTemplate, List.of(
+                new StagingTableMerger.Target("restaurants", "restaurants_stage", "id",
+                        ImportWriterConfig.restaurantColumns(lookupTables, geo),
+                        ImportWriterConfig.restaurantUpdateColumns(lookupTables, geo)),
+                new StagingTableMerger.Target("menu", "menu_stage", "id",
+                        ImportWriterConfig.menuColumns(lookupTables, price),
+                        ImportWriterConfig.menuUpdateColumns(lookupTables, price))
+        ), properties.staging().deleteMissing());
+    }
+
+    @Bean
+    public Step prepareStagingStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            StagingTableMerger stagingTableMerger
+    ) {
+        return new org.springframework.batch.core.step.builder.StepBuilder("prepareStagingStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    stagingTableMerger.prepare();
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+
+    @Bean
+    public Step mergeStagingStep(
+            JobRepository jobRepository,
+            PlatformTransactionManager transactionManager,
+            StagingTableMerger stagingTableMerger
+    ) {
+        return new org.springframework.batch.core.step.builder.StepBuilder("mergeStagingStep", jobRepository)
+                .tasklet((contribution, chunkContext) -> {
+                    stagingTableMerger.merge();
+                    return RepeatStatus.FINISHED;
+                }, transactionManager)
+                .build();
+    }
+}
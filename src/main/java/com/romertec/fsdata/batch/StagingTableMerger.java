@@ -0,0 +1,91 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.support.MySqlSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Carga vía tablas staging: los steps escriben en tablas sin índices y al final se hace un merge set-based.
+ * <p>
+ * Estrategia:
+ * - prepare(): DROP + CREATE TABLE stage AS SELECT cols FROM tabla WHERE 1=0 (mismas columnas, sin PK/índices/FKs).
+ *   Se recrean en cada job para que sigan el esquema actual de la tabla real.
+ * - Los writers insertan en la staging sin tocar las tablas productivas (sin locks sobre ellas).
+ * - merge(): indexa la key de cada staging (más barato que mantener el índice durante la carga) y hace
+ *   un INSERT ... SELECT ... ON DUPLICATE KEY UPDATE por tabla, en orden padre -> hijo.
+ *   Opcional: DELETE de las filas que ya no vinieron en el archivo, en orden hijo -> padre.
+ * <p>
+ * No se usa RENAME TABLE swap: menu tiene FK hacia restaurants y el FK seguiría a la tabla renombrada.
+ */
+public class StagingTableMerger {
+
+    private static final Logger log = LoggerFactory.getLogger(StagingTableMerger.class);
+
+    /**
+     * @param table         tabla productiva
+     * @param stagingTable  tabla staging
+     * @param keyColumn     PK de la tabla productiva
+     * @param columns       columnas que escriben los writers
+     * @param updateColumns columnas que se actualizan si la fila ya existe (mismas que el upsert directo)
+     */
+    public record Target(String table, String stagingTable, String keyColumn, String[] columns, String[] updateColumns) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<Target> targets;
+    private final boolean deleteMissing;
+
+    /** @param targets en orden padre -> hijo (restaurants antes que menu) */
+    public StagingTableMerger(JdbcTemplate jdbcTemplate, List<Target> targets, boolean deleteMissing) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.targets = List.copyOf(targets);
+        this.deleteMissing = deleteMissing;
+    }
+
+    public void prepare() {
+        for (Target t : targets) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + t.stagingTable());
+            jdbcTemplate.execute("CREATE TABLE " + t.stagingTable()
+                    + " AS SELECT " + String.join(", ", t.columns()) + " FROM " + t.table() + " WHERE 1=0");
+            log.info("Staging table {} ready for {}", t.stagingTable(), t.table());
+        }
+    }
+
+    public void merge() {
+        // DDL primero (hace commit implícito en MySQL); el DML de abajo queda en una sola transacción.
+        // Un restart de mergeStagingStep encuentra el índice ya creado por la ejecución que falló
+        for (Target t : targets) {
+            String index = "idx_" + t.stagingTable() + "_key";
+            if (!MySqlSchema.hasIndex(jdbcTemplate, t.stagingTable(), index)) {
+                jdbcTemplate.execute("ALTER TABLE " + t.stagingTable() + " ADD INDEX " + index + " (" + t.keyColumn() + ")");
+            }
+        }
+
+        for (Target t : targets) {
+            String cols = String.join(", ", t.columns());
+            String updates = Arrays.stream(t.updateColumns())
+                    .map(c -> c + "=VALUES(" + c + ")")
+                    .collect(Collectors.joining(", "));
+            long start = System.currentTimeMillis();
+            int affected = jdbcTemplate.update("INSERT INTO " + t.table() + " (" + cols + ")"
+                    + " SELECT " + cols + " FROM " + t.stagingTable()
+                    + " ON DUPLICATE KEY UPDATE " + updates);
+            log.info("Merged {} into {}: {} rows affected in {} ms",
+                    t.stagingTable(), t.table(), affected, System.currentTimeMillis() - start);
+        }
+
+        if (deleteMissing) {
+            for (int i = targets.size() - 1; i >= 0; i--) {
+                Target t = targets.get(i);
+                int deleted = jdbcTemplate.update("DELETE x FROM " + t.table() + " x"
+                        + " LEFT JOIN " + t.stagingTable() + " s ON s." + t.keyColumn() + " = x." + t.keyColumn()
+                        + " WHERE s." + t.keyColumn() + " IS NULL");
+                log.info("Deleted {} rows from {} not present in this import", deleted, t.table());
+            }
+        }
+    }
+}
@@ -21,9 +21,20 @@ public class Menu {
     @Column(name = "price")
     private String price;
 
+    // price parseado: monto en unidades menores (centavos) + código ISO 4217; NULL si price no se pudo parsear
+    @Column(name = "price_amount")
+    private Long priceAmount;
+
+    @Column(name = "price_currency", length = 3)
+    private String priceCurrency;
+
     @Column(name = "restaurant_id")
     private Integer restaurantId;
 
+    // Id de diccionario (fooddata.dictionary.lookup-tables): solo lo escribe el import
+    @Transient
+    private Integer categoryId;
+
     // Relación opcional (solo lectura) si la necesitas en el futuro.
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "restaurant_id", insertable = false, updatable = false)
@@ -46,9 +57,18 @@ public class Menu {
     public String getPrice() { return price; }
     public void setPrice(String price) { this.price = price; }
 
+    public Long getPriceAmount() { return priceAmount; }
+    public void setPriceAmount(Long priceAmount) { this.priceAmount = priceAmount; }
+
+    public String getPriceCurrency() { return priceCurrency; }
+    public void setPriceCurrency(String priceCurrency) { this.priceCurrency = priceCurrency; }
+
     public Integer getRestaurantId() { return restaurantId; }
     public void setRestaurantId(Integer restaurantId) { this.restaurantId = restaurantId; }
 
+    public Integer getCategoryId() { return categoryId; }
+    public void setCategoryId(Integer categoryId) { this.categoryId = categoryId; }
+
     public Restaurant getRestaurant() { return restaurant; }
     public void setRestaurant(Restaurant restaurant) { this.restaurant = restaurant; }
 }
@@ -4,6 +4,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "restaurants")
@@ -24,6 +25,16 @@ public class Restaurant {
     @Column(name = "lng")
     private String lng;
 
+    // lat / lng parseados (NULL si no son coordenadas válidas) + geohash de 8 caracteres
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Column(name = "geohash", length = 8)
+    private String geohash;
+
     @Column(name = "name")
     private String name;
 
@@ -52,6 +63,20 @@ public class Restaurant {
     @Column(name = "zip")
     private String zip;
 
+    // Ids de diccionario (fooddata.dictionary.lookup-tables): solo los escribe el import, las columnas
+    // category_id / city_id / state_id / price_range_id pueden no existir
+    @Transient
+    private Integer categoryId;
+
+    @Transient
+    private Integer cityId;
+
+    @Transient
+    private Integer stateId;
+
+    @Transient
+    private Integer priceRangeId;
+
     // Getters/Setters
 
     public Integer getId() { return id; }
@@ -69,6 +94,15 @@ public class Restaurant {
     public String getLng() { return lng; }
     public void setLng(String lng) { this.lng = lng; }
 
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+
+    public String getGeohash() { return geohash; }
+    public void setGeohash(String geohash) { this.geohash = geohash; }
+
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
 
@@ -95,4 +129,16 @@ public class Restaurant {
 
     public String getZip() { return zip; }
     public void setZip(String zip) { this.zip = zip; }
+
+    public Integer getCategoryId() { return categoryId; }
+    public void setCategoryId(Integer categoryId) { this.categoryId = categoryId; }
+
+    public Integer getCityId() { return cityId; }
+    public void setCityId(Integer cityId) { this.cityId = cityId; }
+
+    public Integer getStateId() { return stateId; }
+    public void setStateId(Integer stateId) { this.stateId = stateId; }
+
+    public Integer getPriceRangeId() { return priceRangeId; }
+    public void setPriceRangeId(Integer priceRangeId) { this.priceRangeId = priceRangeId; }
 }
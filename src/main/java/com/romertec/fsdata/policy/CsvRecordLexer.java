@@ -0,0 +1,253 @@
+package com.romertec.fsdata.policy;
+
+import org.springframework.batch.item.file.separator.RecordSeparatorPolicy;
+import org.springframework.batch.item.file.transform.DefaultFieldSetFactory;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.batch.item.file.transform.FieldSetFactory;
+import org.springframework.batch.item.file.transform.LineTokenizer;
+
+import java.util.Arrays;
+
+/**
+ * Separador de records + tokenizer CSV en una sola pasada.
+ * <p>
+ * Con QuoteBalancedRecordSeparatorPolicy / QuotedMultilineRecordSeparatorPolicy cada línea nueva de un record
+ * multi-línea obliga a re-escanear todo el record acumulado, y después DelimitedLineTokenizer lo escanea otra vez:
+ * O(n²) para descripciones largas. Este lexer guarda el estado de comillas y las posiciones de los delimitadores
+ * entre llamadas: cada carácter se mira una sola vez.
+ * <p>
+ * Se usa como RecordSeparatorPolicy Y como LineTokenizer del mismo reader: tokenize() reutiliza los cortes
+ * calculados en isEndOfRecord() para el mismo record. Resultados idénticos a DelimitedLineTokenizer con
+ * strict=false (campos quoted recortados, "" escapado pasa a ", tokens completados/truncados a names).
+ * <p>
+ * Como RecordSeparatorPolicy de FlatFileItemReader el record igual se copia entero por cada línea (record + línea).
+ * Los readers propios (CsvFileItemReader, CompressedCsvItemReader) arman el record en un StringBuilder con
+ * {@link #isEndOfRecord(CharSequence)} y {@link #toRecord(StringBuilder)}: lineal en el largo del record.
+ * <p>
+ * Tiene estado: una instancia por reader (los readers son @StepScope).
+ */
+public class CsvRecordLexer implements RecordSeparatorPolicy, LineTokenizer {
+
+    private final char delimiter;
+    private final char quoteChar;
+    private final FieldSetFactory fieldSetFactory = new DefaultFieldSetFactory();
+
+    private String[] names = new String[0];
+    private boolean[] included;
+
+    // Estado del record en curso
+    private CharSequence lexedRecord;
+    private int scanned;
+    private boolean inQuotes;
+    private boolean complete = true;
+    private int[] cuts = new int[16];   // posiciones de delimitadores fuera de comillas
+    private int cutCount;
+
+    public CsvRecordLexer() {
+        this(',', '"');
+    }
+
+    public CsvRecordLexer(char delimiter, char quoteChar) {
+        this.delimiter = delimiter;
+        this.quoteChar = quoteChar;
+    }
+
+    public void setNames(String... names) {
+        this.names = names.clone();
+    }
+
+    public void setIncludedFields(int... includedFields) {
+        int max = Arrays.stream(includedFields).max().orElse(-1);
+        this.included = new boolean[max + 1];
+        for (int i : includedFields) this.included[i] = true;
+    }
+
+    // ========= RecordSeparatorPolicy =========
+
+    @Override
+    public boolean isEndOfRecord(String record) {
+        // FlatFileItemReader llama con record = anterior + nueva línea: solo falta lexear lo nuevo
+        return isEndOfRecord((CharSequence) record);
+    }
+
+    /** Igual que con un String; con un StringBuilder al que se le agregan las líneas no se copia nada. */
+    public boolean isEndOfRecord(CharSequence record) {
+        if (complete || record.length() < scanned) {
+            reset();
+        }
+        lex(record, scanned, record.length());
+        lexedRecord = record;
+        complete = !inQuotes;
+        return complete;
+    }
+
+    /** El record armado en {@code record}, que tokenize() reconoce como ya lexeado. */
+    public String toRecord(StringBuilder record) {
+        String value = record.toString();
+        if (lexedRecord == record && scanned == value.length()) {
+            lexedRecord = value;
+        }
+        return value;
+    }
+
+    @Override
+    public String preProcess(String record) {
+        return record;
+    }
+
+    @Override
+    public String postProcess(String record) {
+        return record;
+    }
+
+    // ========= LineTokenizer =========
+
+    @Override
+    public FieldSet tokenize(String line) {
+        if (line == null) {
+            line = "";
+        }
+        if (line != lexedRecord || scanned != line.length()) {
+            // No viene del separador (o fue modificado): lexear desde cero
+            reset();
+            lex(line, 0, line.length());
+        }
+        complete = true;
+        lexedRecord = null;
+
+        String[] tokens = buildTokens(line);
+        return names.length == 0 ? fieldSetFactory.create(tokens) : fieldSetFactory.create(tokens, names);
+    }
+
+    // ========= lexer =========
+
+    private void reset() {
+        lexedRecord = null;
+        scanned = 0;
+        inQuotes = false;
+        cutCount = 0;
+    }
+
+    private void lex(CharSequence s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == delimiter && !inQuotes) {
+                if (cutCount == cuts.length) cuts = Arrays.copyOf(cuts, cutCount * 2);
+                cuts[cutCount++] = i;
+            } else if (c == quoteChar) {
+                // un "" escapado cambia dos veces: la paridad queda igual
+                inQuotes = !inQuotes;
+            }
+        }
+        scanned = to;
+    }
+
+    private String[] buildTokens(String line) {
+        int len = line.length();
+        int expected = names.length;
+        Tokens tokens = new Tokens(expected == 0 ? cutCount + 2 : expected);
+
+        int fieldCount = 0;
+        int start = 0;
+        for (int k = 0; k < cutCount; k++) {
+            int cut = cuts[k];
+            if (isIncluded(fieldCount)) field(tokens, expected, line, start, cut - start);
+            fieldCount++;
+            start = cut + 1;
+        }
+
+        if (len > 0) {
+            if (start == len) {
+                // terminó en delimitador fuera de comillas: campo vacío final
+                if (isIncluded(fieldCount) && !tokens.isFull(expected)) tokens.add("");
+            } else if (line.charAt(len - 1) == delimiter) {
+                // DelimitedLineTokenizer corta en el último carácter aunque esté dentro de comillas
+                if (isIncluded(fieldCount)) field(tokens, expected, line, start, len - 1 - start);
+                fieldCount++;
+                if (isIncluded(fieldCount) && !tokens.isFull(expected)) tokens.add("");
+            } else {
+                if (isIncluded(fieldCount)) field(tokens, expected, line, start, len - start);
+            }
+        }
+
+        // strict=false: completar con vacíos / truncar a names
+        return expected == 0 ? tokens.toArray() : tokens.toArray(expected);
+    }
+
+    /**
+     * Los campos de más no se guardan, pero se validan: DelimitedLineTokenizer los tokeniza antes de truncar a
+     * names, así que una comilla suelta ahí también falla.
+     */
+    private void field(Tokens tokens, int expected, String line, int offset, int count) {
+        if (tokens.isFull(expected)) {
+            value(line, offset, count, false);
+        } else {
+            tokens.add(value(line, offset, count, true));
+        }
+    }
+
+    private boolean isIncluded(int fieldIndex) {
+        return included == null || (fieldIndex < included.length && included[fieldIndex]);
+    }
+
+    /**
+     * Mismas reglas y mismo orden que DelimitedLineTokenizer: quoted => trim, se sacan las comillas de los extremos
+     * y después "" -> " en lo que queda; si no, tal cual. Un campo de una sola comilla en un record de 2+ caracteres
+     * falla igual que allá (StringIndexOutOfBoundsException).
+     */
+    private String value(String line, int offset, int count, boolean keep) {
+        int start = offset;
+        int len = count;
+
+        while (len > 1 && line.charAt(start) <= ' ') {
+            start++;
+            len--;
+        }
+        while (len > 0 && start + len - 1 < line.length() && line.charAt(start + len - 1) <= ' ') {
+            len--;
+        }
+
+        if (line.length() >= 2 && len > 0
+                && line.charAt(start) == quoteChar && line.charAt(start + len - 1) == quoteChar) {
+            if (!keep) {
+                return len < 2 ? line.substring(start + 1, start + len - 1) : null;
+            }
+            String value = line.substring(start + 1, start + len - 1);
+            if (value.indexOf(quoteChar) >= 0) {
+                String quote = String.valueOf(quoteChar);
+                value = value.replace(quote + quote, quote);
+            }
+            return value;
+        }
+        return keep ? line.substring(offset, offset + count) : null;
+    }
+
+    private static final class Tokens {
+
+        private String[] values;
+        private int size;
+
+        Tokens(int capacity) {
+            values = new String[Math.max(capacity, 1)];
+        }
+
+        void add(String v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+
+        boolean isFull(int expected) {
+            return expected > 0 && size >= expected;
+        }
+
+        String[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+
+        String[] toArray(int expected) {
+            String[] out = Arrays.copyOf(values, expected);
+            for (int i = size; i < expected; i++) out[i] = "";
+            return out;
+        }
+    }
+}
@@ -3,5 +3,9 @@ package com.romertec.fsdata.repository;
 import com.romertec.fsdata.entity.Menu;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface MenuRepository extends JpaRepository<Menu, Integer> {
+
+    List<Menu> findByRestaurantIdOrderByCategoryAscNameAsc(Integer restaurantId);
 }
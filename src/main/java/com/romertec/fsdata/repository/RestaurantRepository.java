@@ -1,7 +1,16 @@
 package com.romertec.fsdata.repository;
 
 import com.romertec.fsdata.entity.Restaurant;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
+
 public interface RestaurantRepository extends JpaRepository<Restaurant, Integer> {
+
+    List<Restaurant> findByCity(String city, Pageable pageable);
+
+    List<Restaurant> findByCategory(String category, Pageable pageable);
+
+    List<Restaurant> findByCityAndCategory(String city, String category, Pageable pageable);
 }
@@ -0,0 +1,82 @@
+package com.romertec.fsdata.service;
+
+import com.romertec.fsdata.FoodDataProperties;
+import com.romertec.fsdata.entity.Menu;
+import com.romertec.fsdata.repository.MenuRepository;
+import com.romertec.fsdata.service.RestaurantQueryService.MenuView;
+import com.romertec.fsdata.support.InvertedIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Búsqueda de menus por palabras sobre el índice que arma el import (fooddata.search.index-file).
+ * <p>
+ * El archivo se carga al arrancar y de nuevo con {@link #reload()} al terminar cada import; si no existe (todavía
+ * no corrió ningún import) el índice queda vacío.
+ */
+@Service
+public class MenuSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuSearchService.class);
+
+    public record MenuHit(MenuView menu, double score) {}
+
+    private final MenuRepository menuRepository;
+    private final Path indexFile;
+
+    private volatile InvertedIndex index = InvertedIndex.empty();
+
+    public MenuSearchService(MenuRepository menuRepository,
+                             FoodDataProperties properties) {
+        this.menuRepository = menuRepository;
+        this.indexFile = properties.searchIndexFile();
+        reload();
+    }
+
+    /** Ids de los k menus más relevantes, sin ir a la BD. */
+    public List<InvertedIndex.Hit> searchIds(String query, int k) {
+        return index.search(query, k);
+    }
+
+    /** Top-k con los datos del menu (1 consulta por id para los k resultados). */
+    public List<MenuHit> search(String query, int k) {
+        List<InvertedIndex.Hit> hits = index.search(query, k);
+        if (hits.isEmpty()) return List.of();
+
+        List<Integer> ids = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit h : hits) ids.add(h.id());
+        Map<Integer, Menu> byId = new HashMap<>();
+        for (Menu m : menuRepository.findAllById(ids)) byId.put(m.getId(), m);
+
+        List<MenuHit> out = new ArrayList<>(hits.size());
+        for (InvertedIndex.Hit h : hits) {
+            Menu m = byId.get(h.id());
+            if (m != null) out.add(new MenuHit(MenuView.of(m), h.score())); // borrado después del import: se omite
+        }
+        return out;
+    }
+
+    public synchronized void reload() {
+        if (!Files.isRegularFile(indexFile)) {
+            log.info("Menu search index {} not found: search is empty until the next import", indexFile);
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            index = InvertedIndex.readFrom(indexFile);
+            log.info("Menu search index loaded: {} documents, {} terms in {} ms",
+                    index.documents(), index.termCount(), System.currentTimeMillis() - start);
+        } catch (IOException e) {
+            log.warn("Could not load menu search index {}, keeping the previous one: {}", indexFile, e.toString());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.romertec.fsdata.service;
+
+import com.romertec.fsdata.support.SpatialIndex;
+import com.romertec.fsdata.support.StreamingJdbcTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Restaurants cercanos a un punto, desde un {@link SpatialIndex} en memoria (restaurants.latitude / longitude).
+ * <p>
+ * El índice se arma en el primer uso (un SELECT streaming de id + coordenadas) y se reemplaza entero con
+ * {@link #reload()} / {@link #invalidate()} (después de un import): las consultas en curso siguen con el anterior.
+ */
+@Service
+public class NearbyRestaurantService {
+
+    private static final Logger log = LoggerFactory.getLogger(NearbyRestaurantService.class);
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    private volatile SpatialIndex index;
+
+    public NearbyRestaurantService(DataSource dataSource) {
+        this.streamingJdbcTemplate = new StreamingJdbcTemplate(dataSource); // fila a fila en MySQL
+    }
+
+    public List<SpatialIndex.Neighbor> nearest(double lat, double lng, int k) {
+        return index().nearest(lat, lng, k);
+    }
+
+    public List<SpatialIndex.Neighbor> withinRadius(double lat, double lng, double meters) {
+        return index().withinRadius(lat, lng, meters);
+    }
+
+    public synchronized void reload() {
+        long start = System.currentTimeMillis();
+        int[] count = {0};
+        int[][] ids = {new int[1 << 16]};
+        double[][] lats = {new double[1 << 16]};
+        double[][] lngs = {new double[1 << 16]};
+        streamingJdbcTemplate.query(
+                "SELECT id, latitude, longitude FROM restaurants WHERE latitude IS NOT NULL AND longitude IS NOT NULL",
+                rs -> {
+                    int n = count[0];
+                    if (n == ids[0].length) {
+                        ids[0] = Arrays.copyOf(ids[0], n * 2);
+                        lats[0] = Arrays.copyOf(lats[0], n * 2);
+                        lngs[0] = Arrays.copyOf(lngs[0], n * 2);
+                    }
+                    ids[0][n] = rs.getInt(1);
+                    lats[0][n] = rs.getDouble(2);
+                    lngs[0][n] = rs.getDouble(3);
+                    count[0] = n + 1;
+                });
+        index = SpatialIndex.build(ids[0], lats[0], lngs[0], count[0]);
+        log.info("Restaurant spatial index: {} points loaded in {} ms", count[0], System.currentTimeMillis() - start);
+    }
+
+    /** El próximo uso vuelve a cargar el índice desde la BD. */
+    public void invalidate() {
+        index = null;
+    }
+
+    private SpatialIndex index() {
+        SpatialIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                if (index == null) reload();
+                current = index;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,128 @@
+package com.romertec.fsdata.service;
+
+import com.romertec.fsdata.FoodDataProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresca el lado de lectura cuando termina bien un import, aunque el import corra en otra JVM: mira en el job
+ * repository (JobExplorer) la última ejecución COMPLETED de foodDataImportJob cada refresh-interval y, si es nueva,
+ * vacía el cache de consultas y el índice espacial y recarga el índice de búsqueda de menus.
+ * <p>
+ * Solo corre en la JVM que sirve la API (contexto con servidor web). Un job FAILED no refresca nada: los datos
+ * pueden estar a medias hasta que el restart lo complete.
+ */
+@Component
+public class ReadModelRefresher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadModelRefresher.class);
+
+    private static final String IMPORT_JOB = "foodDataImportJob";
+
+    // Instancias más recientes que se miran en cada vuelta (un restart completa una instancia anterior)
+    private static final int RECENT_INSTANCES = 5;
+
+    private final JobExplorer jobExplorer;
+    private final RestaurantQueryService queryService;
+    private final NearbyRestaurantService nearbyService;
+    private final MenuSearchService menuSearchService;
+    private final ApplicationContext context;
+    private final long intervalMs;
+
+    private volatile boolean running;
+    private Thread poller;
+    private LocalDateTime lastCompleted;
+
+    public ReadModelRefresher(JobExplorer jobExplorer,
+                              RestaurantQueryService queryService,
+                              NearbyRestaurantService nearbyService,
+                              MenuSearchService menuSearchService,
+                              ApplicationContext context,
+                              FoodDataProperties properties) {
+        this.jobExplorer = jobExplorer;
+        this.queryService = queryService;
+        this.nearbyService = nearbyService;
+        this.menuSearchService = menuSearchService;
+        this.context = context;
+        this.intervalMs = properties.api().refreshIntervalMs();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || !(context instanceof WebServerApplicationContext)) {
+            return;
+        }
+        running = true;
+        poller = new Thread(this::poll, "read-model-refresh");
+        poller.setDaemon(true);
+        poller.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (poller != null) {
+            poller.interrupt();
+            poller = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void poll() {
+        try {
+            // lo que ya estaba importado al arrancar lo cargan los servicios solos
+            lastCompleted = lastCompletedImport();
+        } catch (Exception e) {
+            log.warn("Could not check for a completed import: {}", e.toString());
+        }
+        while (running) {
+            try {
+                Thread.sleep(intervalMs);
+                refreshIfImported();
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                log.warn("Could not check for a completed import: {}", e.toString());
+            }
+        }
+    }
+
+    private void refreshIfImported() {
+        LocalDateTime completed = lastCompletedImport();
+        if (completed == null || (lastCompleted != null && !completed.isAfter(lastCompleted))) {
+            return;
+        }
+        lastCompleted = completed;
+        queryService.invalidate();
+        nearbyService.invalidate();
+        menuSearchService.reload();
+        log.info("Read model refreshed after the import completed at {}", completed);
+    }
+
+    /** Fin de la ejecución COMPLETED más reciente entre las últimas instancias del job, o null. */
+    private LocalDateTime lastCompletedImport() {
+        LocalDateTime latest = null;
+        for (JobInstance instance : jobExplorer.getJobInstances(IMPORT_JOB, 0, RECENT_INSTANCES)) {
+            JobExecution execution = jobExplorer.getLastJobExecution(instance);
+            if (execution != null && execution.getStatus() == BatchStatus.COMPLETED && execution.getEndTime() != null
+                    && (latest == null || execution.getEndTime().isAfter(latest))) {
+                latest = execution.getEndTime();
+            }
+        }
+        return latest;
+    }
+}
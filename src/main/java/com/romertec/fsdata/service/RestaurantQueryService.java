@@ -0,0 +1,115 @@
+package com.romertec.fsdata.service;
+
+import com.romertec.fsdata.FoodDataProperties;
+import com.romertec.fsdata.entity.Menu;
+import com.romertec.fsdata.entity.Restaurant;
+import com.romertec.fsdata.repository.MenuRepository;
+import com.romertec.fsdata.repository.RestaurantRepository;
+import com.romertec.fsdata.support.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Consultas de lectura sobre lo importado, con un {@link LruCache} en memoria delante de los repositorios.
+ * <p>
+ * Devuelve vistas inmutables (records), no entidades: se pueden cachear y serializar sin sesión de JPA.
+ * El cache se acota por filas (fooddata.api.cache.max-rows) y se vacía con {@link #invalidate()} cuando termina
+ * un import (ver ReadModelRefresher).
+ */
+@Service
+public class RestaurantQueryService {
+
+    private static final Logger log = LoggerFactory.getLogger(RestaurantQueryService.class);
+
+    // Tope de filas por consulta de listado
+    public static final int MAX_LIMIT = 500;
+
+    public record RestaurantView(Integer id, String name, String category, String priceRange, String score,
+                                 String ratings, String street, String city, String state, String zip,
+                                 Double latitude, Double longitude) {
+
+        static RestaurantView of(Restaurant r) {
+            return new RestaurantView(r.getId(), r.getName(), r.getCategory(), r.getPriceRange(), r.getScore(),
+                    r.getRaitings(), r.getStreet(), r.getCity(), r.getState(), r.getZip(),
+                    r.getLatitude(), r.getLongitude());
+        }
+    }
+
+    public record MenuView(Integer id, Integer restaurantId, String category, String name, String description,
+                           String price, Long priceAmount, String priceCurrency) {
+
+        static MenuView of(Menu m) {
+            return new MenuView(m.getId(), m.getRestaurantId(), m.getCategory(), m.getName(), m.getDescription(),
+                    m.getPrice(), m.getPriceAmount(), m.getPriceCurrency());
+        }
+    }
+
+    // Keys del cache (un solo presupuesto de filas para las tres consultas)
+    private record RestaurantKey(int id) {}
+    private record MenusKey(int restaurantId) {}
+    private record SearchKey(String city, String category, int limit) {}
+
+    private final RestaurantRepository restaurantRepository;
+    private final MenuRepository menuRepository;
+    private final LruCache<Object, Object> cache;
+
+    public RestaurantQueryService(RestaurantRepository restaurantRepository,
+                                  MenuRepository menuRepository,
+                                  FoodDataProperties properties) {
+        this.restaurantRepository = restaurantRepository;
+        this.menuRepository = menuRepository;
+        this.cache = new LruCache<>(properties.api().cache().maxRows(), v -> v instanceof List<?> list ? list.size() : 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<RestaurantView> restaurant(int id) {
+        return (Optional<RestaurantView>) cache.get(new RestaurantKey(id),
+                () -> restaurantRepository.findById(id).map(RestaurantView::of));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<MenuView> menus(int restaurantId) {
+        return (List<MenuView>) cache.get(new MenusKey(restaurantId),
+                () -> menuRepository.findByRestaurantIdOrderByCategoryAscNameAsc(restaurantId).stream()
+                        .map(MenuView::of)
+                        .toList());
+    }
+
+    /** city y/o category (al menos uno), ordenados por nombre. */
+    @SuppressWarnings("unchecked")
+    public List<RestaurantView> search(String city, String category, int limit) {
+        if (city == null && category == null) {
+            throw new IllegalArgumentException("city or category is required");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return (List<RestaurantView>) cache.get(new SearchKey(city, category, size), () -> {
+            PageRequest page = PageRequest.of(0, size, Sort.by("name", "id"));
+            List<Restaurant> found;
+            if (city != null && category != null) {
+                found = restaurantRepository.findByCityAndCategory(city, category, page);
+            } else if (city != null) {
+                found = restaurantRepository.findByCity(city, page);
+            } else {
+                found = restaurantRepository.findByCategory(category, page);
+            }
+            return found.stream().map(RestaurantView::of).toList();
+        });
+    }
+
+    public LruCache.Stats cacheStats() {
+        return cache.stats();
+    }
+
+    public void invalidate() {
+        LruCache.Stats stats = cache.stats();
+        cache.invalidateAll();
+        log.info("Read cache invalidated ({} entries, {} hits / {} misses so far)",
+                stats.entries(), stats.hits(), stats.misses());
+    }
+}
@@ -0,0 +1,114 @@
+package com.romertec.fsdata.support;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Resource que expone solo el rango de bytes [start, end) de un archivo.
+ * <p>
+ * Permite que un CsvFileItemReader lea una partición sin copiar el archivo:
+ * el stream arranca en {@code start} y devuelve EOF al llegar a {@code end}.
+ * Los offsets deben caer en inicio de record (ver QuoteAwareCsvPartitioner).
+ */
+public class ByteRangeResource extends AbstractResource {
+
+    private final Path path;
+    private final long start;
+    private final long end;
+
+    public ByteRangeResource(Path path, long start, long end) {
+        if (start < 0 || end < start) {
+            throw new IllegalArgumentException("Invalid byte range [" + start + ", " + end + ") for " + path);
+        }
+        this.path = path;
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() { return start; }
+
+    public long getEnd() { return end; }
+
+    @Override
+    public boolean exists() {
+        return Files.exists(path);
+    }
+
+    @Override
+    public boolean isReadable() {
+        return Files.isReadable(path);
+    }
+
+    @Override
+    public long contentLength() {
+        return end - start;
+    }
+
+    @Override
+    public String getFilename() {
+        return path.getFileName().toString();
+    }
+
+    @Override
+    public String getDescription() {
+        return "byte range [" + start + ", " + end + ") of file [" + path.toAbsolutePath() + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(start);
+        return new BoundedInputStream(Channels.newInputStream(channel), end - start);
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = super.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.romertec.fsdata.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Archivos de entrada comprimidos (.gz / .zst): ubicación y formato.
+ * <p>
+ * Los archivos de food data pueden venir como restaurants.csv, restaurants.csv.gz o restaurants.csv.zst en
+ * fooddata.base-dir; si hay más de uno gana el sin comprimir. El formato se detecta por los magic bytes, no por la
+ * extensión.
+ */
+public final class CompressedInput {
+
+    public enum Format { NONE, GZIP, ZSTD }
+
+    private static final String[] SUFFIXES = {".gz", ".zst"};
+
+    private static final int GZIP_MAGIC = 0x8B1F;          // little-endian: 1F 8B
+    private static final int ZSTD_MAGIC = 0xFD2FB528;      // little-endian: 28 B5 2F FD
+
+    private CompressedInput() {}
+
+    /**
+     * El archivo tal cual si existe; si no, su versión .gz o .zst. Si no existe ninguno se devuelve {@code file}
+     * (el reader falla con el error de siempre).
+     */
+    public static Path resolve(Path file) {
+        if (Files.exists(file)) {
+            return file;
+        }
+        for (String suffix : SUFFIXES) {
+            Path compressed = file.resolveSibling(file.getFileName() + suffix);
+            if (Files.exists(compressed)) {
+                return compressed;
+            }
+        }
+        return file;
+    }
+
+    public static Format detect(Path file) {
+        if (!Files.isRegularFile(file)) {
+            return Format.NONE;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // leer hasta 4 bytes
+            }
+            head.flip();
+            if (head.remaining() >= 4 && head.getInt(0) == ZSTD_MAGIC) {
+                return Format.ZSTD;
+            }
+            if (head.remaining() >= 2 && (head.getShort(0) & 0xFFFF) == GZIP_MAGIC) {
+                return Format.GZIP;
+            }
+            return Format.NONE;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + file, e);
+        }
+    }
+
+    public static boolean isCompressed(Path file) {
+        return detect(file) != Format.NONE;
+    }
+}
@@ -1,6 +1,7 @@
 package com.romertec.fsdata.support;
 
-import org.apache.commons.text.StringEscapeUtils;
+import org.springframework.util.NumberUtils;
+import org.springframework.util.StringUtils;
 
 import java.util.Locale;
 
@@ -8,12 +9,61 @@ public final class CsvUtils {
 
     private CsvUtils() {}
 
+    /**
+     * HTML unescape + trim, vacío -> null. Mismo resultado que {@code StringEscapeUtils.unescapeHtml4(s).trim()}.
+     * Fast path: sin '&' no hay nada que decodificar y, si no sobran espacios, devuelve el mismo String.
+     */
     public static String clean(String s) {
         if (s == null) return null;
-        String v = StringEscapeUtils.unescapeHtml4(s).trim();
+        return clean(s, 0, s.length());
+    }
+
+    /** clean() sobre s[from, to) sin crear el substring intermedio. */
+    static String clean(String s, int from, int to) {
+        int start = from;
+        int end = to;
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        if (start == end) return null;
+
+        if (indexOf(s, '&', start, end) < 0) {
+            return start == 0 && end == s.length() ? s : s.substring(start, end);
+        }
+        // con entidades: decodificar el rango completo y después recortar (&#32; decodifica a espacio)
+        String range = from == 0 && to == s.length() ? s : s.substring(from, to);
+        String v = HtmlEntityDecoder.unescape(range).trim();
         return v.isEmpty() ? null : v;
     }
 
+    private static int indexOf(String s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Convierte un id del CSV a Integer con el mismo resultado que el BeanWrapper de Spring
+     * (vacío -> null, espacios ignorados, 0x/# hex, NumberFormatException si no es número).
+     * Fast path sin allocations para el caso normal: solo dígitos.
+     */
+    public static Integer toInteger(String s) {
+        if (s == null) return null;
+        int len = s.length();
+        if (len > 0 && len <= 9) {
+            int v = 0;
+            int i = 0;
+            for (; i < len; i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') break;
+                v = v * 10 + (c - '0');
+            }
+            if (i == len) return v;
+        }
+        if (!StringUtils.hasText(s)) return null;
+        return NumberUtils.parseNumber(s, Integer.class);
+    }
+
     public record AddressParts(String street, String city, String state, String zip, String unit) {}
 
     /**
@@ -29,26 +79,59 @@ public final class CsvUtils {
             return new AddressParts(null, null, null, zipFallback, null);
         }
 
-        String[] parts = fullAddress.split(",");
-        String street = parts.length > 0 ? clean(parts[0]) : null;
-        String city   = parts.length > 1 ? clean(parts[1]) : null;
-        String state  = parts.length > 2 ? clean(parts[2]) : null;
-        String zip    = parts.length > 3 ? extractZip(clean(parts[3])) : zipFallback;
+        // Cortes por índice en vez de split(","): mismos campos, sin el array ni los substrings sin limpiar.
+        // Como split, las partes vacías del final no cuentan (",," no tiene parts[3]).
+        int len = fullAddress.length();
+        int[] starts = new int[4];
+        int[] ends = new int[4];
+        int fields = 0;       // campos vistos (máx. 4 guardados)
+        int counted = 0;      // cantidad que devolvería split: hasta el último campo no vacío
+        int from = 0;
+        while (true) {
+            int comma = fullAddress.indexOf(',', from);
+            int to = comma < 0 ? len : comma;
+            if (fields < 4) {
+                starts[fields] = from;
+                ends[fields] = to;
+            }
+            fields++;
+            if (to > from) counted = fields;
+            if (comma < 0) break;
+            from = comma + 1;
+        }
+
+        String street = counted > 0 ? clean(fullAddress, starts[0], ends[0]) : null;
+        String city   = counted > 1 ? clean(fullAddress, starts[1], ends[1]) : null;
+        String state  = counted > 2 ? clean(fullAddress, starts[2], ends[2]) : null;
+        String zip    = counted > 3 ? extractZip(clean(fullAddress, starts[3], ends[3])) : zipFallback;
 
         // Unit parsing básico desde street (si viene embebido)
         String unit = null;
         if (street != null) {
-            String lower = street.toLowerCase(Locale.ROOT);
-            int idx = lower.indexOf(" unit ");
+            int idx = indexOfUnit(street);
             if (idx >= 0) {
-                unit = clean(street.substring(idx + " unit ".length()));
-                street = clean(street.substring(0, idx));
+                unit = clean(street, idx + " unit ".length(), street.length());
+                street = clean(street, 0, idx);
             }
         }
 
         return new AddressParts(street, city, state, zip, unit);
     }
 
+    /** Posición de " unit " sin importar mayúsculas (mismo resultado que toLowerCase + indexOf). */
+    private static int indexOfUnit(String street) {
+        for (int i = 0; i < street.length(); i++) {
+            if (street.charAt(i) >= 0x80) {
+                // toLowerCase puede cambiar el largo fuera de ASCII: camino original
+                return street.toLowerCase(Locale.ROOT).indexOf(" unit ");
+            }
+        }
+        for (int i = 0; i + 6 <= street.length(); i++) {
+            if (street.charAt(i) == ' ' && street.regionMatches(true, i, " unit ", 0, 6)) return i;
+        }
+        return -1;
+    }
+
     private static String extractZip(String s) {
         if (s == null) return null;
         // keep digits only (ej: "35207" o "35207-1234")
@@ -0,0 +1,67 @@
+package com.romertec.fsdata.support;
+
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoUtils() {}
+
+    /** Latitud en grados desde el texto del CSV; null si está vacía, no es numérica o está fuera de [-90, 90]. */
+    public static Double parseLatitude(String s) {
+        return parseCoordinate(s, 90);
+    }
+
+    /** Longitud en grados; null si está vacía, no es numérica o está fuera de [-180, 180]. */
+    public static Double parseLongitude(String s) {
+        return parseCoordinate(s, 180);
+    }
+
+    private static Double parseCoordinate(String s, double limit) {
+        if (s == null || s.isBlank()) return null;
+        double v;
+        try {
+            v = Double.parseDouble(s.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        // NaN no pasa ninguna de las dos comparaciones
+        return v >= -limit && v <= limit ? v : null;
+    }
+
+    /** Geohash estándar (base32) de {@code precision} caracteres: 7 ~ 150m, 8 ~ 40m. */
+    public static String geohash(double lat, double lng, int precision) {
+        double latMin = -90, latMax = 90;
+        double lngMin = -180, lngMax = 180;
+        char[] out = new char[precision];
+        boolean even = true; // bits pares = longitud
+        int bit = 0, ch = 0;
+        for (int i = 0; i < precision; ) {
+            if (even) {
+                double mid = (lngMin + lngMax) / 2;
+                if (lng >= mid) { ch = (ch << 1) | 1; lngMin = mid; } else { ch <<= 1; lngMax = mid; }
+            } else {
+                double mid = (latMin + latMax) / 2;
+                if (lat >= mid) { ch = (ch << 1) | 1; latMin = mid; } else { ch <<= 1; latMax = mid; }
+            }
+            even = !even;
+            if (++bit == 5) {
+                out[i++] = BASE32[ch];
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return new String(out);
+    }
+
+    /** Distancia great-circle (haversine) en metros. */
+    public static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLng = Math.sin(dLng / 2);
+        double a = sinLat * sinLat + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLng * sinLng;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,116 @@
+package com.romertec.fsdata.support;
+
+import org.apache.commons.text.translate.EntityArrays;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decoder de entidades HTML con el mismo resultado que {@code StringEscapeUtils.unescapeHtml4}, sin Writer ni
+ * búsqueda por cada largo posible de entidad.
+ * <p>
+ * Mismas tablas que commons-text (BASIC + ISO8859_1 + HTML40_EXTENDED) y mismas reglas numéricas que
+ * NumericEntityUnescaper por defecto: {@code &#123;} / {@code &#x7B;} con ';' obligatorio; valores inválidos se
+ * dejan tal cual y un code point fuera de rango falla igual que en commons-text (IllegalArgumentException).
+ * Todas las entidades con nombre terminan en el primer ';', así que alcanza con un lookup por '&'.
+ */
+public final class HtmlEntityDecoder {
+
+    private static final Map<String, String> NAMED = new HashMap<>();
+    private static final int LONGEST_NAMED;
+
+    static {
+        int longest = 0;
+        for (Map<CharSequence, CharSequence> table : List.of(
+                EntityArrays.BASIC_UNESCAPE, EntityArrays.ISO8859_1_UNESCAPE, EntityArrays.HTML40_EXTENDED_UNESCAPE)) {
+            for (Map.Entry<CharSequence, CharSequence> e : table.entrySet()) {
+                // primera tabla gana, como en el AggregateTranslator
+                NAMED.putIfAbsent(e.getKey().toString(), e.getValue().toString());
+                longest = Math.max(longest, e.getKey().length());
+            }
+        }
+        LONGEST_NAMED = longest;
+    }
+
+    private HtmlEntityDecoder() {}
+
+    /** @return {@code s} mismo si no hay nada que decodificar. */
+    public static String unescape(String s) {
+        if (s == null) return null;
+        int amp = s.indexOf('&');
+        if (amp < 0) return s;
+
+        StringBuilder out = null;
+        int copiedUpTo = 0;
+        int len = s.length();
+        for (int i = amp; i < len; i++) {
+            if (s.charAt(i) != '&') continue;
+
+            int consumed = named(s, i);
+            String replacement;
+            if (consumed > 0) {
+                replacement = NAMED.get(s.substring(i, i + consumed));
+            } else {
+                long numeric = numeric(s, i);
+                if (numeric < 0) continue;
+                consumed = (int) (numeric >>> 32);
+                int codePoint = (int) numeric;
+                replacement = codePoint > 0xFFFF ? new String(Character.toChars(codePoint)) : String.valueOf((char) codePoint);
+            }
+
+            if (out == null) out = new StringBuilder(len);
+            out.append(s, copiedUpTo, i).append(replacement);
+            copiedUpTo = i + consumed;
+            i = copiedUpTo - 1;
+        }
+        if (out == null) return s;
+        return out.append(s, copiedUpTo, len).toString();
+    }
+
+    /** Largo de la entidad con nombre que empieza en {@code i}, o 0. */
+    private static int named(String s, int i) {
+        int max = Math.min(s.length(), i + LONGEST_NAMED);
+        for (int j = i + 1; j < max; j++) {
+            if (s.charAt(j) == ';') {
+                return NAMED.containsKey(s.substring(i, j + 1)) ? j + 1 - i : 0;
+            }
+        }
+        return 0;
+    }
+
+    /** Entidad numérica en {@code i}: (largo << 32 | code point), o -1. */
+    private static long numeric(String s, int i) {
+        int len = s.length();
+        if (!(i < len - 2 && s.charAt(i + 1) == '#')) return -1;
+
+        int start = i + 2;
+        boolean hex = false;
+        char first = s.charAt(start);
+        if (first == 'x' || first == 'X') {
+            start++;
+            hex = true;
+            if (start == len) return -1;
+        }
+        // igual que commons-text: junta [0-9a-fA-F] también en decimal (y después el parse falla)
+        int end = start;
+        while (end < len && isHexDigit(s.charAt(end))) end++;
+        if (end == len || s.charAt(end) != ';') return -1;
+
+        int value;
+        try {
+            value = Integer.parseInt(s, start, end, hex ? 16 : 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        if (value > 0xFFFF && !Character.isValidCodePoint(value)) {
+            Character.toChars(value); // mismo IllegalArgumentException que commons-text
+        }
+        long consumed = 2 + (end - start) + (hex ? 1 : 0) + 1;
+        return (consumed << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+}
@@ -0,0 +1,12 @@
+package com.romertec.fsdata.support;
+
+/**
+ * Entrega ids enteros para filas nuevas.
+ * <p>
+ * Las implementaciones deben ser thread-safe y nunca repetir un id,
+ * ni dentro de la misma ejecución ni entre ejecuciones (restart incluido).
+ */
+public interface IdAllocator {
+
+    int nextId();
+}
@@ -0,0 +1,123 @@
+package com.romertec.fsdata.support;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Bitset de ids enteros no negativos que crece según el id más alto (1 bit por id: 1M ids = 125KB).
+ * <p>
+ * add() es synchronized (lo llaman varias particiones a la vez). contains() no toma lock: se consulta en un step
+ * posterior al que lo llenó (el arranque del step siguiente ya publica las escrituras).
+ * <p>
+ * toCompressedBytes(): deflate de los words; ids consecutivos (el caso normal) comprimen a casi nada.
+ */
+public class IdBitSet {
+
+    private volatile long[] words = new long[16];
+    private int cardinality;
+
+    public synchronized void add(int id) {
+        if (id < 0) return;
+        int w = id >>> 6;
+        long[] current = words;
+        if (w >= current.length) {
+            current = Arrays.copyOf(current, Math.max(w + 1, current.length * 2));
+        }
+        long bit = 1L << id;
+        if ((current[w] & bit) == 0) {
+            current[w] |= bit;
+            cardinality++;
+        }
+        words = current;
+    }
+
+    public boolean contains(Integer id) {
+        if (id == null || id < 0) return false;
+        long[] current = words;
+        int w = id >>> 6;
+        return w < current.length && (current[w] & (1L << id)) != 0;
+    }
+
+    public synchronized int cardinality() {
+        return cardinality;
+    }
+
+    public synchronized boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    public synchronized void clear() {
+        words = new long[16];
+        cardinality = 0;
+    }
+
+    public synchronized void addAll(IdBitSet other) {
+        long[] theirs = other.words;
+        long[] current = words.length >= theirs.length ? words : Arrays.copyOf(words, theirs.length);
+        int count = 0;
+        for (int i = 0; i < current.length; i++) {
+            if (i < theirs.length) current[i] |= theirs[i];
+            count += Long.bitCount(current[i]);
+        }
+        cardinality = count;
+        words = current;
+    }
+
+    // ========= forma compacta =========
+
+    public synchronized byte[] toCompressedBytes() {
+        long[] current = words;
+        int used = current.length;
+        while (used > 0 && current[used - 1] == 0) used--;
+
+        ByteBuffer raw = ByteBuffer.allocate(used * Long.BYTES);
+        for (int i = 0; i < used; i++) raw.putLong(current[i]);
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw.array());
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.capacity() / 16));
+            byte[] buf = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buf, 0, deflater.deflate(buf));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static IdBitSet fromCompressedBytes(byte[] compressed) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 8);
+            byte[] buf = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                out.write(buf, 0, n);
+            }
+            ByteBuffer raw = ByteBuffer.wrap(out.toByteArray());
+            IdBitSet set = new IdBitSet();
+            long[] words = new long[Math.max(16, raw.remaining() / Long.BYTES)];
+            int count = 0;
+            for (int i = 0; raw.remaining() >= Long.BYTES; i++) {
+                words[i] = raw.getLong();
+                count += Long.bitCount(words[i]);
+            }
+            set.words = words;
+            set.cardinality = count;
+            return set;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid compressed id set", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.romertec.fsdata.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Archivos de entrada de fooddata.input.restaurants / fooddata.input.menus, relativos a fooddata.base-dir.
+ * <p>
+ * - Un nombre (restaurant-menus.csv): ese archivo, o su .gz / .zst (ver CompressedInput).
+ * - Un glob sobre el nombre (restaurant-menus-*.csv, shards/menus-????.csv): todos los shards que coinciden,
+ *   ordenados por nombre. Un shard comprimido coincide por su nombre sin .gz / .zst; si están las dos versiones
+ *   gana la sin comprimir. El glob aplica solo a la última parte del path.
+ */
+public final class InputFiles {
+
+    private static final String[] COMPRESSED_SUFFIXES = {".gz", ".zst"};
+
+    private InputFiles() {}
+
+    public static boolean isPattern(String input) {
+        return input.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+    }
+
+    public static List<Path> resolve(Path baseDir, String input) {
+        if (!isPattern(input)) {
+            return List.of(CompressedInput.resolve(baseDir.resolve(input)));
+        }
+        int slash = input.lastIndexOf('/');
+        Path dir = slash < 0 ? baseDir : baseDir.resolve(input.substring(0, slash));
+        String glob = input.substring(slash + 1);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+
+        // nombre lógico (sin .gz / .zst) -> archivo
+        Map<String, Path> shards = new LinkedHashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String logical = stripCompressedSuffix(name);
+                if (!matcher.matches(Path.of(logical))) {
+                    continue;
+                }
+                Path previous = shards.get(logical);
+                if (previous == null || name.equals(logical)) {
+                    shards.put(logical, file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list input files " + input + " in " + dir, e);
+        }
+        if (shards.isEmpty()) {
+            throw new IllegalStateException("No input files match " + input + " in " + dir.toAbsolutePath());
+        }
+        List<Path> sorted = new ArrayList<>(shards.values());
+        sorted.sort(Comparator.comparing(p -> p.getFileName().toString()));
+        return sorted;
+    }
+
+    private static String stripCompressedSuffix(String name) {
+        for (String suffix : COMPRESSED_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return name.substring(0, name.length() - suffix.length());
+            }
+        }
+        return name;
+    }
+}
@@ -0,0 +1,291 @@
+package com.romertec.fsdata.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Índice invertido inmutable para buscar menus por palabra (name, category, description).
+ * <p>
+ * - Cada documento tiene un ordinal 0..N-1 (orden de alta); {@code docIds[ordinal]} es el id del menu.
+ * - Posting list por término: bytes con (delta del ordinal en varint, tf en 1 byte), ordinales crecientes.
+ *   tf ya viene ponderado por campo (name x3, category x2, description x1).
+ * - Ranking BM25 sobre el tf ponderado; primero los que tienen más términos de la consulta.
+ * <p>
+ * Archivo: magic + versión, docIds, largos, y por término (texto, df, bytes). Se lee entero en memoria.
+ */
+public final class InvertedIndex {
+
+    public record Hit(int id, double score) {}
+
+    private static final int MAGIC = 0x4D494458; // "MIDX"
+    private static final int VERSION = 1;
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final class Postings {
+        byte[] bytes;
+        int size;
+        int df;
+        int lastDoc = -1;
+
+        Postings(byte[] bytes, int size, int df) {
+            this.bytes = bytes;
+            this.size = size;
+            this.df = df;
+        }
+    }
+
+    private final int[] docIds;
+    private final int[] docLengths;
+    private final Map<String, Postings> terms;
+    private final double avgLength;
+
+    private InvertedIndex(int[] docIds, int[] docLengths, Map<String, Postings> terms) {
+        this.docIds = docIds;
+        this.docLengths = docLengths;
+        this.terms = terms;
+        long total = 0;
+        for (int l : docLengths) total += l;
+        this.avgLength = docLengths.length == 0 ? 1 : Math.max(1, (double) total / docLengths.length);
+    }
+
+    public static InvertedIndex empty() {
+        return new InvertedIndex(new int[0], new int[0], Map.of());
+    }
+
+    public int documents() {
+        return docIds.length;
+    }
+
+    public int termCount() {
+        return terms.size();
+    }
+
+    // ========= búsqueda =========
+
+    /** Top-k por relevancia para la consulta (tokenizada igual que los documentos). */
+    public List<Hit> search(String query, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be >= 1: " + k);
+        }
+        List<String> tokens = new ArrayList<>();
+        SearchTokenizer.tokenize(query, t -> {
+            if (!tokens.contains(t)) tokens.add(t);
+        });
+
+        List<Cursor> cursors = new ArrayList<>(tokens.size());
+        for (String t : tokens) {
+            Postings p = terms.get(t);
+            if (p != null) {
+                double idf = Math.log(1 + (docIds.length - p.df + 0.5) / (p.df + 0.5));
+                cursors.add(new Cursor(p, idf));
+            }
+        }
+        if (cursors.isEmpty()) return List.of();
+
+        // min-heap de tamaño k: (términos encontrados, score)
+        PriorityQueue<double[]> top = new PriorityQueue<>(k + 1, (a, b) ->
+                a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+        while (true) {
+            int doc = Integer.MAX_VALUE;
+            for (Cursor c : cursors) {
+                if (c.doc < doc) doc = c.doc;
+            }
+            if (doc == Integer.MAX_VALUE) break;
+
+            double score = 0;
+            int matched = 0;
+            double norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+            for (Cursor c : cursors) {
+                if (c.doc != doc) continue;
+                score += c.idf * (c.tf * (K1 + 1)) / (c.tf + norm);
+                matched++;
+                c.advance();
+            }
+            if (top.size() < k) {
+                top.add(new double[]{matched, score, doc});
+            } else {
+                double[] worst = top.peek();
+                if (matched > worst[0] || (matched == worst[0] && score > worst[1])) {
+                    top.poll();
+                    top.add(new double[]{matched, score, doc});
+                }
+            }
+        }
+
+        Hit[] out = new Hit[top.size()];
+        for (int i = out.length - 1; i >= 0; i--) {
+            double[] e = top.poll();
+            out[i] = new Hit(docIds[(int) e[2]], e[1]);
+        }
+        return Arrays.asList(out);
+    }
+
+    private static final class Cursor {
+        final Postings postings;
+        final double idf;
+        int pos;
+        int doc = -1;
+        int tf;
+
+        Cursor(Postings postings, double idf) {
+            this.postings = postings;
+            this.idf = idf;
+            advance();
+        }
+
+        void advance() {
+            if (pos >= postings.size) {
+                doc = Integer.MAX_VALUE;
+                return;
+            }
+            byte[] b = postings.bytes;
+            int delta = 0, shift = 0;
+            int v;
+            do {
+                v = b[pos++];
+                delta |= (v & 0x7F) << shift;
+                shift += 7;
+            } while ((v & 0x80) != 0);
+            doc = (doc < 0 ? 0 : doc) + delta;
+            tf = b[pos++] & 0xFF;
+        }
+    }
+
+    // ========= archivo =========
+
+    /** Escritura atómica (tmp + move). */
+    public void writeTo(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(docIds.length);
+            for (int i = 0; i < docIds.length; i++) {
+                out.writeInt(docIds[i]);
+                out.writeInt(docLengths[i]);
+            }
+            out.writeInt(terms.size());
+            for (Map.Entry<String, Postings> e : terms.entrySet()) {
+                Postings p = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeInt(p.df);
+                out.writeInt(p.size);
+                out.write(p.bytes, 0, p.size);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static InvertedIndex readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a menu search index (or unsupported version): " + file);
+            }
+            int docs = in.readInt();
+            int[] docIds = new int[docs];
+            int[] docLengths = new int[docs];
+            for (int i = 0; i < docs; i++) {
+                docIds[i] = in.readInt();
+                docLengths[i] = in.readInt();
+            }
+            int termCount = in.readInt();
+            Map<String, Postings> terms = new HashMap<>(termCount * 4 / 3 + 1);
+            for (int i = 0; i < termCount; i++) {
+                String term = in.readUTF();
+                int df = in.readInt();
+                int size = in.readInt();
+                byte[] bytes = new byte[size];
+                in.readFully(bytes);
+                terms.put(term, new Postings(bytes, size, df));
+            }
+            return new InvertedIndex(docIds, docLengths, terms);
+        }
+    }
+
+    // ========= construcción =========
+
+    /** Se llena fila a fila durante el import; add() es synchronized (particiones, pipeline). */
+    public static final class Builder {
+
+        private final Map<String, Postings> terms = new HashMap<>();
+        private int[] docIds = new int[1 << 16];
+        private int[] docLengths = new int[1 << 16];
+        private int docs;
+
+        public void add(int id, String name, String category, String description) {
+            // tokenizar fuera del lock
+            Map<String, int[]> tf = new HashMap<>();
+            int[] length = {0};
+            SearchTokenizer.tokenize(name, t -> count(tf, length, t, NAME_WEIGHT));
+            SearchTokenizer.tokenize(category, t -> count(tf, length, t, CATEGORY_WEIGHT));
+            SearchTokenizer.tokenize(description, t -> count(tf, length, t, DESCRIPTION_WEIGHT));
+            if (tf.isEmpty()) return;
+
+            synchronized (this) {
+                if (docs == docIds.length) {
+                    docIds = Arrays.copyOf(docIds, docs * 2);
+                    docLengths = Arrays.copyOf(docLengths, docs * 2);
+                }
+                int doc = docs++;
+                docIds[doc] = id;
+                docLengths[doc] = length[0];
+                for (Map.Entry<String, int[]> e : tf.entrySet()) {
+                    Postings p = terms.computeIfAbsent(e.getKey(), t -> new Postings(new byte[8], 0, 0));
+                    append(p, doc, Math.min(255, e.getValue()[0]));
+                }
+            }
+        }
+
+        private static void count(Map<String, int[]> tf, int[] length, String token, int weight) {
+            tf.computeIfAbsent(token, t -> new int[1])[0] += weight;
+            length[0] += weight;
+        }
+
+        private static void append(Postings p, int doc, int tf) {
+            if (p.bytes.length - p.size < 6) {
+                p.bytes = Arrays.copyOf(p.bytes, p.bytes.length * 2);
+            }
+            int delta = p.lastDoc < 0 ? doc : doc - p.lastDoc;
+            while ((delta & ~0x7F) != 0) {
+                p.bytes[p.size++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            p.bytes[p.size++] = (byte) delta;
+            p.bytes[p.size++] = (byte) tf;
+            p.lastDoc = doc;
+            p.df++;
+        }
+
+        public synchronized int documents() {
+            return docs;
+        }
+
+        /** Recorta los buffers; el builder no se puede seguir usando. */
+        public synchronized InvertedIndex build() {
+            for (Postings p : terms.values()) {
+                if (p.bytes.length != p.size) p.bytes = Arrays.copyOf(p.bytes, p.size);
+            }
+            return new InvertedIndex(Arrays.copyOf(docIds, docs), Arrays.copyOf(docLengths, docs), terms);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.romertec.fsdata.support;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cache LRU acotado por peso (p. ej. cantidad de filas: un restaurant pesa 1, una lista de 200 menus pesa 200).
+ * Al pasar {@code maxWeight} se desalojan las entradas usadas hace más tiempo.
+ * <p>
+ * get() carga fuera del lock: dos threads pueden cargar la misma key a la vez (gana el último), pero una carga
+ * lenta no bloquea al resto. invalidate() sube la generación y descarta las cargas que empezaron antes: no vuelve
+ * a entrar un valor leído antes de la invalidación.
+ */
+public class LruCache<K, V> {
+
+    public record Stats(long hits, long misses, long evictions, int entries, long weight, long maxWeight) {}
+
+    private final long maxWeight;
+    private final ToIntFunction<V> weigher;
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private long weight;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(long maxWeight, ToIntFunction<V> weigher) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be >= 1: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            V cached = entries.get(key);
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+            loadGeneration = generation;
+        }
+
+        V value = loader.get();
+        if (value == null) {
+            return null;
+        }
+        int w = Math.max(1, weigher.applyAsInt(value));
+        synchronized (this) {
+            // más pesado que todo el cache, o invalidado mientras se cargaba: se devuelve sin guardar
+            if (w > maxWeight || loadGeneration != generation) {
+                return value;
+            }
+            V previous = entries.put(key, value);
+            if (previous != null) weight -= Math.max(1, weigher.applyAsInt(previous));
+            weight += w;
+            evict();
+        }
+        return value;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        weight = 0;
+        generation++;
+    }
+
+    public synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), weight, maxWeight);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<K, V>> it = entries.entrySet().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            Map.Entry<K, V> eldest = it.next();
+            weight -= Math.max(1, weigher.applyAsInt(eldest.getValue()));
+            it.remove();
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.romertec.fsdata.support;
+
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+
+/**
+ * Mapper por posición para restaurant-menus.csv, sin BeanWrapper ni reflection.
+ * <p>
+ * Columnas: restaurantId, category, itemName (-> name), description, price
+ * <p>
+ * Da el mismo resultado que BeanWrapperFieldSetMapper: Strings recortados (trim), restaurantId vía {@link CsvUtils#toInteger}.
+ */
+public class MenuCsvRowFieldSetMapper implements FieldSetMapper<MenuCsvRow> {
+
+    @Override
+    public MenuCsvRow mapFieldSet(FieldSet fs) {
+        MenuCsvRow row = new MenuCsvRow();
+        row.setRestaurantId(CsvUtils.toInteger(fs.readString(0)));
+        row.setCategory(fs.readString(1));
+        row.setName(fs.readString(2));
+        row.setDescription(fs.readString(3));
+        row.setPrice(fs.readString(4));
+        return row;
+    }
+}
@@ -0,0 +1,64 @@
+package com.romertec.fsdata.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+
+/**
+ * Chequeos de esquema para cambios idempotentes (MySQL no tiene ADD COLUMN IF NOT EXISTS ni
+ * ADD INDEX IF NOT EXISTS). Siempre sobre el schema de la conexión.
+ * <p>
+ * Van por DatabaseMetaData (en MySQL, Connector/J lo resuelve con information_schema / SHOW INDEX): así también
+ * funcionan en el H2 en modo MySQL del benchmark, que no tiene information_schema.STATISTICS.
+ */
+public final class MySqlSchema {
+
+    private static final Logger log = LoggerFactory.getLogger(MySqlSchema.class);
+
+    private MySqlSchema() {}
+
+    /** Corre un script de migración del classpath (db/*.sql), sentencia por sentencia. */
+    public static void migrate(JdbcTemplate jdbcTemplate, String script) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            ScriptUtils.executeSqlScript(con, new ClassPathResource(script));
+            return null;
+        });
+        log.info("Applied schema migration {}", script);
+    }
+
+    public static boolean hasColumn(JdbcTemplate jdbcTemplate, String table, String column) {
+        Boolean found = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            DatabaseMetaData meta = con.getMetaData();
+            try (ResultSet rs = meta.getColumns(con.getCatalog(), con.getSchema(), table, column)) {
+                return rs.next();
+            }
+        });
+        return Boolean.TRUE.equals(found);
+    }
+
+    /** Collation de la columna (information_schema.COLUMNS), o null si no tiene o no existe. */
+    public static String columnCollation(JdbcTemplate jdbcTemplate, String table, String column) {
+        return jdbcTemplate.query("SELECT COLLATION_NAME FROM information_schema.COLUMNS"
+                        + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?",
+                rs -> rs.next() ? rs.getString(1) : null, table, column);
+    }
+
+    public static boolean hasIndex(JdbcTemplate jdbcTemplate, String table, String index) {
+        Boolean found = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            DatabaseMetaData meta = con.getMetaData();
+            try (ResultSet rs = meta.getIndexInfo(con.getCatalog(), con.getSchema(), table, false, true)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) return true;
+                }
+                return false;
+            }
+        });
+        return Boolean.TRUE.equals(found);
+    }
+}
@@ -0,0 +1,360 @@
+package com.romertec.fsdata.support;
+
+import io.airlift.compress.zstd.ZstdDecompressor;
+import io.airlift.compress.zstd.ZstdInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Descomprime un .gz / .zst como stream, con los bloques independientes decodificados en paralelo.
+ * <p>
+ * Bloques independientes = se pueden decodificar sin los anteriores:
+ * - zstd: cada frame (zstd -B / --long, pzstd, formato seekable). Los límites salen de los headers de frame y de
+ *   bloque, sin descomprimir; los skippable frames (ej. la tabla del formato seekable) se saltean.
+ * - gzip: miembros BGZF (bgzip), que traen el largo comprimido en el campo extra "BC".
+ * Los bloques chicos se agrupan en tareas de ~{@link #TASK_BYTES} comprimidos; hasta {@code maxInFlight} tareas
+ * se decodifican por adelantado en el executor y se entregan en orden. Memoria: ~maxInFlight tareas descomprimidas.
+ * <p>
+ * Lo que no se puede cortar (gzip común, incluso multi-miembro; un frame zstd de más de
+ * {@link #MAX_IN_MEMORY_BLOCK}) se descomprime en streaming en el thread que lee, como GZIPInputStream.
+ * <p>
+ * Checkpoint: el stream recuerda en qué offset comprimido empieza cada tarea y en qué offset descomprimido cae.
+ * {@link #checkpoint(long)} da el inicio de tarea más cercano a una posición descomprimida: un restart abre el
+ * archivo ahí y saltea solo lo que falta hasta la posición (un gzip sin bloques vuelve a descomprimir desde el
+ * principio, pero sin parsear).
+ */
+public class ParallelBlockInputStream extends InputStream {
+
+    /** Dónde reabrir para llegar a una posición descomprimida: offset comprimido + posición descomprimida ahí. */
+    public record Checkpoint(long compressedOffset, long decodedStart) {}
+
+    static final int TASK_BYTES = 4 * 1024 * 1024;
+    static final int MAX_IN_MEMORY_BLOCK = 64 * 1024 * 1024;
+
+    private static final int STREAM_BUFFER = 1024 * 1024;
+
+    private static final int ZSTD_MAGIC = 0xFD2FB528;
+    private static final int ZSTD_SKIPPABLE_MASK = 0xFFFFFFF0;
+    private static final int ZSTD_SKIPPABLE_MAGIC = 0x184D2A50;
+
+    private final Path file;
+    private final CompressedInput.Format format;
+    private final FileChannel channel;
+    private final long size;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final ByteBuffer header = ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN);
+
+    private final ArrayDeque<Segment> pending = new ArrayDeque<>();
+    private final TreeMap<Long, Long> boundaries = new TreeMap<>();   // posición descomprimida -> offset comprimido
+    private long nextOffset;         // primer offset comprimido todavía no asignado a un segmento
+    private InputStream current;
+    private long position;           // posición descomprimida del próximo byte a entregar
+    private boolean closed;
+
+    /**
+     * @param compressedOffset inicio de bloque (0 o un {@link Checkpoint#compressedOffset()})
+     * @param decodedStart     posición descomprimida de ese bloque
+     */
+    public ParallelBlockInputStream(Path file, CompressedInput.Format format, long compressedOffset, long decodedStart,
+                                    Executor executor, int maxInFlight) throws IOException {
+        if (format == CompressedInput.Format.NONE) {
+            throw new IllegalArgumentException("Not a compressed file: " + file);
+        }
+        this.file = file;
+        this.format = format;
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.nextOffset = compressedOffset;
+        this.position = decodedStart;
+        boundaries.put(decodedStart, compressedOffset);
+    }
+
+    public long getPosition() { return position; }
+
+    /**
+     * Inicio de bloque desde el que se llega a {@code decodedPosition} (que no puede ser anterior a un checkpoint ya
+     * pedido: lo anterior se descarta).
+     */
+    public Checkpoint checkpoint(long decodedPosition) {
+        Map.Entry<Long, Long> floor = boundaries.floorEntry(decodedPosition);
+        if (floor == null) {
+            throw new IllegalArgumentException("Position " + decodedPosition + " is before the last checkpoint");
+        }
+        boundaries.headMap(floor.getKey()).clear();
+        return new Checkpoint(floor.getValue(), floor.getKey());
+    }
+
+    // ========= InputStream =========
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        while (true) {
+            if (current == null && !nextSegment()) {
+                return -1;
+            }
+            int n = current.read(b, off, len);
+            if (n > 0) {
+                position += n;
+                return n;
+            }
+            closeCurrent();
+        }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            if (current == null && !nextSegment()) {
+                break;
+            }
+            long s = current.skip(n - skipped);
+            if (s <= 0) {
+                // skip() de GZIPInputStream / ZstdInputStream puede devolver 0 sin estar en EOF
+                if (current.read() < 0) {
+                    closeCurrent();
+                    continue;
+                }
+                s = 1;
+            }
+            skipped += s;
+            position += s;
+        }
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        for (Segment s : pending) {
+            if (s.task != null) s.task.cancel(true);
+        }
+        pending.clear();
+        try {
+            closeCurrent();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ========= segmentos =========
+
+    /** Un tramo [start, end) del archivo: decodificado en el executor (task) o en streaming al llegar a él. */
+    private record Segment(long start, long end, FutureTask<byte[]> task) {}
+
+    private boolean nextSegment() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+        schedule();
+        Segment s = pending.poll();
+        if (s == null) {
+            return false;
+        }
+        boundaries.put(position, s.start());
+        current = s.task() == null ? openStreaming(s.start(), s.end()) : new ByteArrayInputStream(await(s.task()));
+        schedule();
+        return true;
+    }
+
+    private void closeCurrent() throws IOException {
+        if (current != null) {
+            InputStream c = current;
+            current = null;
+            c.close();
+        }
+    }
+
+    /** Arma tareas hasta tener maxInFlight pendientes (o llegar al final del archivo). */
+    private void schedule() throws IOException {
+        while (pending.size() < maxInFlight && nextOffset < size) {
+            long start = nextOffset;
+            long end = start;
+            List<long[]> blocks = new ArrayList<>();
+            boolean streaming = false;
+            while (end < size && end - start < TASK_BYTES) {
+                long[] block = nextBlock(end);               // {largo, 1 si es skippable}
+                if (block == null || block[0] > MAX_IN_MEMORY_BLOCK) {
+                    if (end == start) {
+                        streaming = true;
+                        end = block == null ? size : start + block[0];
+                    }
+                    break;
+                }
+                blocks.add(new long[]{end, block[0], block[1]});
+                end += block[0];
+            }
+            nextOffset = end;
+            if (streaming) {
+                pending.add(new Segment(start, end, null));
+                continue;
+            }
+            long taskStart = start;
+            long taskEnd = end;
+            FutureTask<byte[]> task = new FutureTask<>(() -> decode(taskStart, taskEnd, blocks));
+            executor.execute(task);
+            pending.add(new Segment(start, end, task));
+        }
+    }
+
+    private byte[] await(FutureTask<byte[]> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decoding " + file);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) throw io;
+            throw new IOException("Could not decode " + file + ": " + cause, cause);
+        }
+    }
+
+    // ========= límites de bloque =========
+
+    /** Largo del bloque independiente que empieza en {@code offset}, o null si no se puede cortar ahí. */
+    private long[] nextBlock(long offset) throws IOException {
+        return format == CompressedInput.Format.ZSTD ? zstdFrame(offset) : bgzfMember(offset);
+    }
+
+    /** Miembro gzip con subcampo extra BC (BGZF): BSIZE = largo total - 1. */
+    private long[] bgzfMember(long offset) throws IOException {
+        if (!readHeader(offset, 18)) return null;
+        boolean magic = (header.get(0) & 0xFF) == 0x1F && (header.get(1) & 0xFF) == 0x8B && header.get(2) == 8;
+        boolean extra = (header.get(3) & 0x04) != 0;
+        if (!magic || !extra || (header.getShort(10) & 0xFFFF) < 6) return null;
+        if (header.get(12) != 'B' || header.get(13) != 'C' || (header.getShort(14) & 0xFFFF) != 2) return null;
+        long length = (header.getShort(16) & 0xFFFF) + 1L;
+        return offset + length <= size ? new long[]{length, 0} : null;
+    }
+
+    /** Frame zstd: header + bloques (3 bytes de header c/u) + checksum opcional. */
+    private long[] zstdFrame(long offset) throws IOException {
+        if (!readHeader(offset, 8)) {
+            throw new IOException("Truncated zstd frame at offset " + offset + " of " + file);
+        }
+        int magic = header.getInt(0);
+        if ((magic & ZSTD_SKIPPABLE_MASK) == ZSTD_SKIPPABLE_MAGIC) {
+            return new long[]{8 + (header.getInt(4) & 0xFFFFFFFFL), 1};
+        }
+        if (magic != ZSTD_MAGIC) {
+            throw new IOException("Not a zstd frame at offset " + offset + " of " + file);
+        }
+        int descriptor = header.get(4) & 0xFF;
+        int contentSizeFlag = descriptor >>> 6;
+        boolean singleSegment = (descriptor & 0x20) != 0;
+        boolean checksum = (descriptor & 0x04) != 0;
+        int dictionaryIdFlag = descriptor & 0x03;
+
+        long p = offset + 5;
+        if (!singleSegment) p++;                                     // window descriptor
+        p += new int[]{0, 1, 2, 4}[dictionaryIdFlag];
+        p += switch (contentSizeFlag) {
+            case 0 -> singleSegment ? 1 : 0;
+            case 1 -> 2;
+            case 2 -> 4;
+            default -> 8;
+        };
+        while (true) {
+            if (!readHeader(p, 3)) {
+                throw new IOException("Truncated zstd frame at offset " + offset + " of " + file);
+            }
+            int block = (header.get(0) & 0xFF) | (header.get(1) & 0xFF) << 8 | (header.get(2) & 0xFF) << 16;
+            boolean last = (block & 1) != 0;
+            int type = (block >>> 1) & 3;
+            if (type == 3) {
+                throw new IOException("Invalid zstd block at offset " + p + " of " + file);
+            }
+            p += 3 + (type == 1 ? 1 : block >>> 3);                  // RLE: 1 byte en el archivo
+            if (last) break;
+        }
+        if (checksum) p += 4;
+        if (p > size) {
+            throw new IOException("Truncated zstd frame at offset " + offset + " of " + file);
+        }
+        return new long[]{p - offset, 0};
+    }
+
+    private boolean readHeader(long offset, int length) throws IOException {
+        header.clear().limit(length);
+        long p = offset;
+        while (header.hasRemaining()) {
+            int n = channel.read(header, p);
+            if (n < 0) return false;
+            p += n;
+        }
+        return true;
+    }
+
+    // ========= decodificación =========
+
+    /** Corre en el executor: lee el tramo y decodifica sus bloques en orden. */
+    private byte[] decode(long start, long end, List<long[]> blocks) throws IOException {
+        ByteBuffer compressed = ByteBuffer.allocate((int) (end - start));
+        while (compressed.hasRemaining()) {
+            if (channel.read(compressed, start + compressed.position()) < 0) {
+                throw new EOFException("Unexpected end of " + file + " at offset " + (start + compressed.position()));
+            }
+        }
+        byte[] in = compressed.array();
+        if (format == CompressedInput.Format.GZIP) {
+            try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(in), 64 * 1024)) {
+                return gzip.readAllBytes();                          // miembros concatenados
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(in.length * 4);
+        for (long[] block : blocks) {
+            if (block[2] == 1) continue;                             // skippable frame
+            int from = (int) (block[0] - start);
+            int length = (int) block[1];
+            long decodedSize = ZstdDecompressor.getDecompressedSize(in, from, length);
+            if (decodedSize >= 0 && decodedSize <= Integer.MAX_VALUE - 8) {
+                byte[] frame = new byte[(int) decodedSize];
+                int n = new ZstdDecompressor().decompress(in, from, length, frame, 0, frame.length);
+                out.write(frame, 0, n);
+            } else {
+                try (InputStream zstd = new ZstdInputStream(new ByteArrayInputStream(in, from, length))) {
+                    zstd.transferTo(out);
+                }
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /** Tramo que no se puede cortar: streaming en el thread que lee. */
+    private InputStream openStreaming(long start, long end) throws IOException {
+        InputStream raw = new BufferedInputStream(new ByteRangeResource(file, start, end).getInputStream(), STREAM_BUFFER);
+        return format == CompressedInput.Format.GZIP
+                ? new GZIPInputStream(raw, 64 * 1024)
+                : new ZstdInputStream(raw);
+    }
+}
@@ -1,9 +1,13 @@
 package com.romertec.fsdata.support;
 
+import java.util.Currency;
 import java.util.Locale;
 
 public final class PriceParser {
 
+    /** Precio numérico: monto en unidades menores de la moneda (centavos para USD) + código ISO 4217. */
+    public record Price(long minorUnits, String currency) {}
+
     private PriceParser() {}
 
     /**
@@ -16,16 +20,111 @@ public final class PriceParser {
         String v = CsvUtils.clean(priceRaw);
         if (v == null) return null;
 
-        // Normalización mínima: espacios simples y moneda en mayúscula si existe
-        v = v.replaceAll("\\s+", " ").trim();
+        // Normalización mínima: espacios simples y moneda en mayúscula si existe.
+        // Mismo resultado que replaceAll("\\s+", " ") + split(" ") quedándose con los dos primeros tokens,
+        // pero recorriendo por índice (clean ya recortó los extremos).
+        int amountEnd = nextWhitespace(v, 0);
+        if (amountEnd == v.length()) {
+            return v;
+        }
+        int currencyStart = amountEnd;
+        while (isRegexWhitespace(v.charAt(currencyStart))) currencyStart++;
+        int currencyEnd = nextWhitespace(v, currencyStart);
 
         // Si termina en una moneda, la sube a uppercase (USD, COP, etc.)
-        String[] parts = v.split(" ");
-        if (parts.length >= 2) {
-            String amount = parts[0];
-            String currency = parts[1].toUpperCase(Locale.ROOT);
-            return amount + " " + currency;
+        String currency = upperCase(v, currencyStart, currencyEnd);
+        if (currency == null && currencyEnd == v.length() && v.charAt(amountEnd) == ' ' && currencyStart == amountEnd + 1) {
+            return v; // ya normalizado: "15.99 USD"
+        }
+        if (currency == null) currency = v.substring(currencyStart, currencyEnd);
+        return v.substring(0, amountEnd) + " " + currency;
+    }
+
+    private static int nextWhitespace(String v, int from) {
+        int i = from;
+        while (i < v.length() && !isRegexWhitespace(v.charAt(i))) i++;
+        return i;
+    }
+
+    // \s de java.util.regex (sin UNICODE_CHARACTER_CLASS)
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /** v[from, to) en mayúsculas, o null si ya lo está. */
+    private static String upperCase(String v, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = v.charAt(i);
+            if (c >= 0x80) {
+                String token = v.substring(from, to);
+                String upper = token.toUpperCase(Locale.ROOT);
+                return upper.equals(token) ? null : upper;
+            }
+            if (c >= 'a' && c <= 'z') {
+                return v.substring(from, to).toUpperCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parsea un precio ya normalizado ("15.99 USD", "1,299.00 USD", "$4.50", "12") a unidades menores.
+     * Sin moneda se usa {@code defaultCurrency} ("$" solo = USD). Retorna null si no es un monto simple
+     * (rangos, texto, negativos, más decimales que la moneda, overflow).
+     */
+    public static Price parse(String normalized, String defaultCurrency) {
+        if (normalized == null || normalized.isEmpty()) return null;
+
+        int space = normalized.indexOf(' ');
+        String amount = space < 0 ? normalized : normalized.substring(0, space);
+        String currency = space < 0 ? null : normalized.substring(space + 1);
+
+        if (amount.startsWith("$")) {
+            amount = amount.substring(1);
+            if (currency == null) currency = "USD";
+        }
+        if (currency == null) currency = defaultCurrency;
+        int fractionDigits = fractionDigits(currency);
+        if (fractionDigits < 0) return null;
+
+        long units = 0;
+        int decimals = -1;              // -1 = todavía en la parte entera
+        int digits = 0;
+        for (int i = 0; i < amount.length(); i++) {
+            char c = amount.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (decimals >= 0 && ++decimals > fractionDigits) {
+                    if (c != '0') return null;  // "15.990" sí, "15.999" no
+                    continue;
+                }
+                if (units > (Long.MAX_VALUE - 9) / 10) return null;
+                units = units * 10 + (c - '0');
+                digits++;
+            } else if (c == ',' && decimals < 0 && digits > 0) {
+                // separador de miles: se ignora
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else {
+                return null;
+            }
+        }
+        if (digits == 0) return null;
+
+        for (int d = Math.max(decimals, 0); d < fractionDigits; d++) {
+            if (units > Long.MAX_VALUE / 10) return null;
+            units *= 10;
+        }
+        return new Price(units, currency);
+    }
+
+    /** Decimales de la moneda (2 si ISO no define), o -1 si no es un código ISO 4217 válido. */
+    private static int fractionDigits(String currency) {
+        if (currency == null || currency.length() != 3) return -1;
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits < 0 ? 2 : digits;
+        } catch (IllegalArgumentException e) {
+            return -1;
         }
-        return v;
     }
 }
@@ -0,0 +1,32 @@
+package com.romertec.fsdata.support;
+
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.FieldSet;
+
+/**
+ * Mapper por posición para restaurants.csv, sin BeanWrapper ni reflection.
+ * <p>
+ * Columnas (mismo orden que los names del reader):
+ * id, position, name, score, ratings, category, priceRange, fullAddress, zipCode, lat, lng
+ * <p>
+ * Da el mismo resultado que BeanWrapperFieldSetMapper: Strings recortados (trim), id vía {@link CsvUtils#toInteger}.
+ */
+public class RestaurantCsvRowFieldSetMapper implements FieldSetMapper<RestaurantCsvRow> {
+
+    @Override
+    public RestaurantCsvRow mapFieldSet(FieldSet fs) {
+        RestaurantCsvRow row = new RestaurantCsvRow();
+        row.setId(CsvUtils.toInteger(fs.readString(0)));
+        row.setPosition(fs.readString(1));
+        row.setName(fs.readString(2));
+        row.setScore(fs.readString(3));
+        row.setRatings(fs.readString(4));
+        row.setCategory(fs.readString(5));
+        row.setPriceRange(fs.readString(6));
+        row.setFullAddress(fs.readString(7));
+        row.setZipCode(fs.readString(8));
+        row.setLat(fs.readString(9));
+        row.setLng(fs.readString(10));
+        return row;
+    }
+}
@@ -0,0 +1,61 @@
+package com.romertec.fsdata.support;
+
+/**
+ * Hash de 64 bits sobre campos de texto (FNV-1a + mezcla final), sin armar strings intermedios.
+ * <p>
+ * Uso: {@code long h = RowFingerprint.start(); h = RowFingerprint.add(h, campo); ... RowFingerprint.finish(h)}.
+ * Cada campo termina con un separador y null se distingue de "", así ("ab", null) != ("a", "b").
+ */
+public final class RowFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final char FIELD_END = '\u001F';  // unit separator
+    private static final char NULL_MARK = '\uFFFF';  // no es un carácter válido en texto
+
+    private RowFingerprint() {}
+
+    public static long start() {
+        return FNV_OFFSET;
+    }
+
+    public static long add(long h, String s) {
+        if (s == null) {
+            h = mix(h, NULL_MARK);
+        } else {
+            for (int i = 0; i < s.length(); i++) {
+                h = mix(h, s.charAt(i));
+            }
+        }
+        return mix(h, FIELD_END);
+    }
+
+    public static long add(long h, Integer v) {
+        if (v == null) {
+            return mix(mix(h, NULL_MARK), FIELD_END);
+        }
+        int x = v;
+        h = mix(h, (char) (x >>> 16));
+        h = mix(h, (char) x);
+        return mix(h, FIELD_END);
+    }
+
+    /** Avalancha final (fmix64 de MurmurHash3): FNV solo tiene bits bajos flojos. */
+    public static long finish(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static long mix(long h, char c) {
+        h ^= c & 0xFF;
+        h *= FNV_PRIME;
+        h ^= c >>> 8;
+        h *= FNV_PRIME;
+        return h;
+    }
+}
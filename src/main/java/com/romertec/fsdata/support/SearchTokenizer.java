@@ -0,0 +1,52 @@
+package com.romertec.fsdata.support;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Tokenizer del índice de búsqueda de menus: corta en todo lo que no sea letra o dígito, pasa a minúsculas,
+ * saca acentos ("jalapeño" -> "jalapeno") y descarta tokens de 1 carácter y stopwords en inglés comunes.
+ * Lo usan el import y las consultas: los dos lados tienen que tokenizar igual.
+ */
+public final class SearchTokenizer {
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "by", "for", "from", "in", "is", "of", "on", "or", "the", "to",
+            "w", "with"
+    );
+
+    private SearchTokenizer() {}
+
+    public static void tokenize(String text, Consumer<String> sink) {
+        if (text == null || text.isEmpty()) return;
+        int len = text.length();
+        int i = 0;
+        while (i < len) {
+            while (i < len && !Character.isLetterOrDigit(text.charAt(i))) i++;
+            int start = i;
+            boolean ascii = true;
+            while (i < len && Character.isLetterOrDigit(text.charAt(i))) {
+                if (text.charAt(i) >= 0x80) ascii = false;
+                i++;
+            }
+            if (i - start < 2) continue;
+            String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+            if (!ascii) token = stripAccents(token);
+            if (token.length() >= 2 && !STOPWORDS.contains(token)) {
+                sink.accept(token);
+            }
+        }
+    }
+
+    private static String stripAccents(String token) {
+        String decomposed = Normalizer.normalize(token, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) out.append(c);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.romertec.fsdata.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Allocator "pooled" sobre una tabla seq de MySQL con 1 fila:
+ * CREATE TABLE menu_seq (next_val bigint DEFAULT NULL);
+ * <p>
+ * Estrategia:
+ * - next_val es siempre el próximo id libre.
+ * - Reserva bloques de {@code blockSize} ids con un solo UPDATE ... LAST_INSERT_ID(next_val + N).
+ * - La reserva corre en su propia transacción (REQUIRES_NEW) y se commitea antes de entregar
+ *   ids: si el chunk hace rollback o el job se reinicia, el bloque ya está consumido en la tabla
+ *   y nunca se vuelve a entregar (a lo sumo quedan huecos).
+ * - Los ids del bloque se entregan desde memoria.
+ */
+public class SeqTableIdAllocator implements IdAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String seqTableName;
+    private final int blockSize;
+
+    // Bloque actual: [next, limit)
+    private long next;
+    private long limit;
+
+    public SeqTableIdAllocator(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               String seqTableName,
+                               int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be >= 1: " + blockSize);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.seqTableName = seqTableName;
+        this.blockSize = blockSize;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public synchronized int nextId() {
+        if (next >= limit) {
+            reserveBlock();
+        }
+        long id = next++;
+        if (id > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Sequence overflow in " + seqTableName + ": " + id);
+        }
+        return (int) id;
+    }
+
+    private void reserveBlock() {
+        // LAST_INSERT_ID(x) guarda x por conexión: UPDATE y SELECT deben ir en la misma transacción
+        Long newVal = transactionTemplate.execute(status -> {
+            String update = "UPDATE " + seqTableName + " SET next_val = LAST_INSERT_ID(next_val + " + blockSize + ")";
+
+            int updated = jdbcTemplate.update(update);
+            if (updated == 0) {
+                // Tabla vacía: inicializa y reintenta
+                jdbcTemplate.update("INSERT INTO " + seqTableName + " (next_val) VALUES (1)");
+                jdbcTemplate.update(update);
+            }
+            return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        });
+
+        if (newVal == null || newVal - blockSize < 1) {
+            throw new IllegalStateException("Could not reserve ids from " + seqTableName
+                    + " (next_val is NULL or invalid): " + newVal);
+        }
+        next = newVal - blockSize;
+        limit = newVal;
+    }
+}
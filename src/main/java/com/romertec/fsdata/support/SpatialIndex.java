@@ -0,0 +1,290 @@
+package com.romertec.fsdata.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice espacial inmutable en arrays primitivos: k-d tree implícito sobre los puntos llevados a vectores
+ * unitarios 3D (x, y, z).
+ * <p>
+ * - En 3D la distancia euclídea (cuerda) crece igual que la great-circle: no hay casos especiales en los polos
+ *   ni en el antimeridiano, y se compara sin trigonometría por punto. Solo el resultado se pasa a metros.
+ * - Implícito: los arrays quedan ordenados de forma que el nodo de [lo, hi) es la mediana {@code (lo + hi) / 2}
+ *   por el eje de mayor dispersión ({@code axes[mid]}); no hay objetos por nodo. Hojas de hasta LEAF_SIZE puntos.
+ * - A diferencia de una grilla uniforme, se adapta a la densidad (centros de ciudad y zonas rurales en el mismo
+ *   índice): k vecinos en O(log n + k) visitas típicas.
+ */
+public final class SpatialIndex {
+
+    public record Neighbor(int id, double distanceMeters) {}
+
+    private static final int LEAF_SIZE = 8;
+
+    private final int[] ids;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final byte[] axes;
+
+    private SpatialIndex(int[] ids, double[] xs, double[] ys, double[] zs) {
+        this.ids = ids;
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.axes = new byte[ids.length];
+        build(0, ids.length);
+    }
+
+    /** Usa los primeros {@code n} elementos de cada array (no los modifica). Coordenadas en grados. */
+    public static SpatialIndex build(int[] ids, double[] lats, double[] lngs, int n) {
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] zs = new double[n];
+        for (int i = 0; i < n; i++) {
+            double lat = Math.toRadians(lats[i]);
+            double lng = Math.toRadians(lngs[i]);
+            xs[i] = Math.cos(lat) * Math.cos(lng);
+            ys[i] = Math.cos(lat) * Math.sin(lng);
+            zs[i] = Math.sin(lat);
+        }
+        return new SpatialIndex(Arrays.copyOf(ids, n), xs, ys, zs);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    // ========= k vecinos =========
+
+    /** Los {@code k} puntos más cercanos, de menor a mayor distancia. */
+    public List<Neighbor> nearest(double lat, double lng, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be >= 1: " + k);
+        }
+        Query q = new Query(lat, lng, Math.min(k, ids.length));
+        if (q.limit == 0) return List.of();
+        nearest(q, 0, ids.length);
+
+        // heap máximo -> orden ascendente
+        Neighbor[] out = new Neighbor[q.size];
+        for (int n = q.size; n > 0; n--) {
+            out[n - 1] = new Neighbor(ids[q.heapIdx[0]], toMeters(q.heapDist[0]));
+            q.heapIdx[0] = q.heapIdx[n - 1];
+            q.heapDist[0] = q.heapDist[n - 1];
+            siftDown(q.heapIdx, q.heapDist, n - 1);
+        }
+        return Arrays.asList(out);
+    }
+
+    private void nearest(Query q, int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int p = lo; p < hi; p++) q.offer(p, chord2(q, p));
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double delta = q.coord(axes[mid]) - coord(axes[mid], mid);
+        q.offer(mid, chord2(q, mid));
+        if (delta < 0) {
+            nearest(q, lo, mid);
+            if (q.size < q.limit || delta * delta < q.heapDist[0]) nearest(q, mid + 1, hi);
+        } else {
+            nearest(q, mid + 1, hi);
+            if (q.size < q.limit || delta * delta < q.heapDist[0]) nearest(q, lo, mid);
+        }
+    }
+
+    // ========= radio =========
+
+    /** Puntos a no más de {@code meters}, de menor a mayor distancia. */
+    public List<Neighbor> withinRadius(double lat, double lng, double meters) {
+        if (ids.length == 0 || !(meters >= 0)) return List.of();
+        Query q = new Query(lat, lng, 0);
+        double angle = Math.min(Math.PI, meters / GeoUtils.EARTH_RADIUS_METERS);
+        double chord = 2 * Math.sin(angle / 2);
+        q.radius2 = chord * chord;
+        q.hitIdx = new int[16];
+        q.hitDist = new double[16];
+        withinRadius(q, 0, ids.length);
+
+        Integer[] order = new Integer[q.hits];
+        for (int i = 0; i < q.hits; i++) order[i] = i;
+        double[] dist = q.hitDist;
+        Arrays.sort(order, (a, b) -> Double.compare(dist[a], dist[b]));
+        List<Neighbor> out = new ArrayList<>(q.hits);
+        for (Integer i : order) {
+            out.add(new Neighbor(ids[q.hitIdx[i]], toMeters(q.hitDist[i])));
+        }
+        return out;
+    }
+
+    private void withinRadius(Query q, int lo, int hi) {
+        if (hi - lo <= LEAF_SIZE) {
+            for (int p = lo; p < hi; p++) q.hit(p, chord2(q, p));
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double delta = q.coord(axes[mid]) - coord(axes[mid], mid);
+        q.hit(mid, chord2(q, mid));
+        if (delta < 0 || delta * delta <= q.radius2) withinRadius(q, lo, mid);
+        if (delta >= 0 || delta * delta <= q.radius2) withinRadius(q, mid + 1, hi);
+    }
+
+    // ========= consulta =========
+
+    private static final class Query {
+        final double x, y, z;
+        final int limit;
+
+        // nearest: heap máximo por distancia (cuerda al cuadrado)
+        final int[] heapIdx;
+        final double[] heapDist;
+        int size;
+
+        // withinRadius
+        double radius2;
+        int[] hitIdx;
+        double[] hitDist;
+        int hits;
+
+        Query(double lat, double lng, int limit) {
+            double la = Math.toRadians(lat);
+            double ln = Math.toRadians(lng);
+            this.x = Math.cos(la) * Math.cos(ln);
+            this.y = Math.cos(la) * Math.sin(ln);
+            this.z = Math.sin(la);
+            this.limit = limit;
+            this.heapIdx = new int[limit];
+            this.heapDist = new double[limit];
+        }
+
+        double coord(int axis) {
+            return axis == 0 ? x : axis == 1 ? y : z;
+        }
+
+        void offer(int p, double d) {
+            if (size < limit) {
+                heapIdx[size] = p;
+                heapDist[size] = d;
+                siftUp(heapIdx, heapDist, size++);
+            } else if (d < heapDist[0]) {
+                heapIdx[0] = p;
+                heapDist[0] = d;
+                siftDown(heapIdx, heapDist, size);
+            }
+        }
+
+        void hit(int p, double d) {
+            if (d > radius2) return;
+            if (hits == hitIdx.length) {
+                hitIdx = Arrays.copyOf(hitIdx, hits * 2);
+                hitDist = Arrays.copyOf(hitDist, hits * 2);
+            }
+            hitIdx[hits] = p;
+            hitDist[hits++] = d;
+        }
+    }
+
+    private double chord2(Query q, int p) {
+        double dx = xs[p] - q.x, dy = ys[p] - q.y, dz = zs[p] - q.z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static double toMeters(double chord2) {
+        return 2 * GeoUtils.EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(chord2) / 2));
+    }
+
+    private double coord(int axis, int p) {
+        return axis == 0 ? xs[p] : axis == 1 ? ys[p] : zs[p];
+    }
+
+    // ========= construcción =========
+
+    private void build(int lo, int hi) {
+        while (hi - lo > LEAF_SIZE) {
+            int axis = widestAxis(lo, hi);
+            int mid = (lo + hi) >>> 1;
+            select(axis, lo, hi - 1, mid);
+            axes[mid] = (byte) axis;
+            build(lo, mid);
+            lo = mid + 1;
+        }
+    }
+
+    private int widestAxis(int lo, int hi) {
+        int best = 0;
+        double bestSpread = -1;
+        for (int axis = 0; axis < 3; axis++) {
+            double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+            for (int p = lo; p < hi; p++) {
+                double v = coord(axis, p);
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            if (max - min > bestSpread) {
+                bestSpread = max - min;
+                best = axis;
+            }
+        }
+        return best;
+    }
+
+    /** Quickselect: deja en {@code k} el elemento que le corresponde por {@code axis} en [left, right]. */
+    private void select(int axis, int left, int right, int k) {
+        while (right > left) {
+            // pivote: mediana de tres
+            int m = (left + right) >>> 1;
+            if (coord(axis, m) < coord(axis, left)) swap(m, left);
+            if (coord(axis, right) < coord(axis, left)) swap(right, left);
+            if (coord(axis, right) < coord(axis, m)) swap(right, m);
+            double pivot = coord(axis, m);
+
+            int i = left, j = right;
+            while (i <= j) {
+                while (coord(axis, i) < pivot) i++;
+                while (coord(axis, j) > pivot) j--;
+                if (i <= j) swap(i++, j--);
+            }
+            if (k <= j) right = j;
+            else if (k >= i) left = i;
+            else return;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int ti = ids[a]; ids[a] = ids[b]; ids[b] = ti;
+        double t = xs[a]; xs[a] = xs[b]; xs[b] = t;
+        t = ys[a]; ys[a] = ys[b]; ys[b] = t;
+        t = zs[a]; zs[a] = zs[b]; zs[b] = t;
+    }
+
+    private static void siftUp(int[] idx, double[] dist, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (dist[parent] >= dist[i]) break;
+            swapHeap(idx, dist, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] idx, double[] dist, int size) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1, r = l + 1, largest = i;
+            if (l < size && dist[l] > dist[largest]) largest = l;
+            if (r < size && dist[r] > dist[largest]) largest = r;
+            if (largest == i) return;
+            swapHeap(idx, dist, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swapHeap(int[] idx, double[] dist, int a, int b) {
+        int ti = idx[a];
+        idx[a] = idx[b];
+        idx[b] = ti;
+        double td = dist[a];
+        dist[a] = dist[b];
+        dist[b] = td;
+    }
+}
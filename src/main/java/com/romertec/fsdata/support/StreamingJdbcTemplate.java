@@ -0,0 +1,37 @@
+package com.romertec.fsdata.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * JdbcTemplate para recorrer tablas grandes sin cargar el resultado entero en memoria.
+ * <p>
+ * MySQL (Connector/J): fetchSize Integer.MIN_VALUE = resultado fila a fila. Otros drivers (el H2 del benchmark) no
+ * aceptan un fetchSize negativo: usan {@link #FALLBACK_FETCH_SIZE}. El driver se detecta una vez, en la primera
+ * consulta.
+ */
+public class StreamingJdbcTemplate extends JdbcTemplate {
+
+    private static final int FALLBACK_FETCH_SIZE = 10_000;
+
+    private volatile Integer streamingFetchSize;
+
+    public StreamingJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        Integer fetchSize = streamingFetchSize;
+        if (fetchSize == null) {
+            String product = stmt.getConnection().getMetaData().getDatabaseProductName();
+            fetchSize = product != null && product.startsWith("MySQL") ? Integer.MIN_VALUE : FALLBACK_FETCH_SIZE;
+            streamingFetchSize = fetchSize;
+        }
+        stmt.setFetchSize(fetchSize);
+    }
+}
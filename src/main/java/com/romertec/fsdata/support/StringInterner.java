@@ -0,0 +1,65 @@
+package com.romertec.fsdata.support;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache de interning acotado para valores de baja cardinalidad (category, city, state, priceRange).
+ * <p>
+ * Direct-mapped: cada valor tiene un único slot según su hash; si el slot tiene el mismo valor se devuelve esa
+ * instancia y el String recién leído queda como basura de vida corta. Si no, lo reemplaza. Memoria fija
+ * ({@code capacity} referencias), sin locks y sin crecer con valores raros (a diferencia de {@link String#intern()}
+ * o un HashMap). Las lecturas/escrituras del array sin sincronizar son seguras: String es inmutable y una
+ * carrera solo cuesta un miss.
+ * <p>
+ * Valores más largos que {@code maxLength} no se cachean (no son de baja cardinalidad).
+ */
+public class StringInterner {
+
+    private final String[] slots;
+    private final int mask;
+    private final int maxLength;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /** @param capacity cantidad de slots, se redondea a potencia de 2 */
+    public StringInterner(int capacity, int maxLength) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.min(capacity, 1 << 30));
+        if (size < capacity) size <<= 1;
+        this.slots = new String[size];
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    public String intern(String s) {
+        if (s == null || s.length() > maxLength) return s;
+        int h = s.hashCode();
+        int idx = (h ^ (h >>> 16)) & mask;
+        String cached = slots[idx];
+        if (cached != null && cached.hashCode() == h && cached.equals(s)) {
+            hits.increment();
+            return cached;
+        }
+        slots[idx] = s;
+        misses.increment();
+        return s;
+    }
+
+    public void clear() {
+        Arrays.fill(slots, null);
+        hits.reset();
+        misses.reset();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+}
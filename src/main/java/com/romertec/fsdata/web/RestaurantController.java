@@ -0,0 +1,95 @@
+package com.romertec.fsdata.web;
+
+import com.romertec.fsdata.service.MenuSearchService;
+import com.romertec.fsdata.service.NearbyRestaurantService;
+import com.romertec.fsdata.service.RestaurantQueryService;
+import com.romertec.fsdata.service.RestaurantQueryService.MenuView;
+import com.romertec.fsdata.service.RestaurantQueryService.RestaurantView;
+import com.romertec.fsdata.support.LruCache;
+import com.romertec.fsdata.support.SpatialIndex;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * API de lectura (bajo server.servlet.context-path): todo pasa por el cache de {@link RestaurantQueryService}.
+ */
+@RestController
+@RequestMapping("/api")
+public class RestaurantController {
+
+    // Radio máximo de /restaurants/nearby (metros): la respuesta no es paginada
+    private static final double MAX_RADIUS_METERS = 100_000;
+
+    private final RestaurantQueryService queryService;
+    private final NearbyRestaurantService nearbyService;
+    private final MenuSearchService menuSearchService;
+
+    public RestaurantController(RestaurantQueryService queryService,
+                                NearbyRestaurantService nearbyService,
+                                MenuSearchService menuSearchService) {
+        this.queryService = queryService;
+        this.nearbyService = nearbyService;
+        this.menuSearchService = menuSearchService;
+    }
+
+    @GetMapping("/restaurants/{id}")
+    public RestaurantView restaurant(@PathVariable int id) {
+        return queryService.restaurant(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Restaurant not found: " + id));
+    }
+
+    @GetMapping("/restaurants/{id}/menus")
+    public List<MenuView> menus(@PathVariable int id) {
+        return queryService.menus(id);
+    }
+
+    @GetMapping("/restaurants")
+    public List<RestaurantView> search(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        if (city == null && category == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "city or category is required");
+        }
+        return queryService.search(city, category, limit);
+    }
+
+    /** k más cercanos, o todos dentro de radius (metros) si viene. */
+    @GetMapping("/restaurants/nearby")
+    public List<SpatialIndex.Neighbor> nearby(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(required = false) Double radius
+    ) {
+        if (radius != null) {
+            if (!(radius >= 0 && radius <= MAX_RADIUS_METERS)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "radius must be between 0 and " + MAX_RADIUS_METERS);
+            }
+            return nearbyService.withinRadius(lat, lng, radius);
+        }
+        return nearbyService.nearest(lat, lng, Math.max(1, Math.min(k, RestaurantQueryService.MAX_LIMIT)));
+    }
+
+    /** Menus por palabras ("vegan burrito"), los k más relevantes. */
+    @GetMapping("/menus/search")
+    public List<MenuSearchService.MenuHit> searchMenus(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int k
+    ) {
+        return menuSearchService.search(q, Math.max(1, Math.min(k, RestaurantQueryService.MAX_LIMIT)));
+    }
+
+    @GetMapping("/cache/stats")
+    public LruCache.Stats cacheStats() {
+        return queryService.cacheStats();
+    }
+}
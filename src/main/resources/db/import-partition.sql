@@ -0,0 +1,13 @@
+-- Coordinación de particiones remotas (fooddata.partition.mode=remote): una fila por ejecución de partición mientras
+-- corre el step del manager. La crea el manager o el worker si falta.
+CREATE TABLE IF NOT EXISTS import_partition (
+    step_execution_id BIGINT NOT NULL PRIMARY KEY,
+    job_execution_id BIGINT NOT NULL,
+    manager_execution_id BIGINT NOT NULL,
+    worker_step VARCHAR(100) NOT NULL,
+    state VARCHAR(10) NOT NULL,
+    owner VARCHAR(255) NULL,
+    heartbeat DATETIME(6) NOT NULL,
+    manager_heartbeat DATETIME(6) NOT NULL,
+    INDEX idx_import_partition_state (state, worker_step)
+) ENGINE=InnoDB;
@@ -0,0 +1,5 @@
+-- Precio numérico de menu (fooddata.price.enabled). Correrlo una vez antes de habilitarlo, o dejar que lo corra el
+-- job con fooddata.price.migrate-schema=true. Las filas existentes las completa el job (price_currency NULL).
+ALTER TABLE menu ADD COLUMN price_amount BIGINT NULL;
+ALTER TABLE menu ADD COLUMN price_currency CHAR(3) NULL;
+ALTER TABLE menu ADD INDEX idx_menu_price (price_currency, price_amount);
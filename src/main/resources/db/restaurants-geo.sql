@@ -0,0 +1,6 @@
+-- Coordenadas tipadas de restaurants (fooddata.geo.enabled). Correrlo una vez antes de habilitarlo, o dejar que lo
+-- corra el job con fooddata.geo.migrate-schema=true. Las filas existentes las completa el job (geohash NULL).
+ALTER TABLE restaurants ADD COLUMN latitude DOUBLE NULL;
+ALTER TABLE restaurants ADD COLUMN longitude DOUBLE NULL;
+ALTER TABLE restaurants ADD COLUMN geohash CHAR(8) NULL;
+ALTER TABLE restaurants ADD INDEX idx_restaurants_geohash (geohash);
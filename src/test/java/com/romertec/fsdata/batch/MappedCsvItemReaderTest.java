@@ -0,0 +1,156 @@
+package com.romertec.fsdata.batch;
+
+import com.romertec.fsdata.policy.CsvRecordLexer;
+import com.romertec.fsdata.policy.QuoteBalancedRecordSeparatorPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
+import org.springframework.batch.item.file.FlatFileItemReader;
+import org.springframework.batch.item.file.mapping.DefaultLineMapper;
+import org.springframework.batch.item.file.mapping.FieldSetMapper;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * MappedCsvItemReader contra el camino FlatFileItemReader + QuoteBalancedRecordSeparatorPolicy +
+ * DelimitedLineTokenizer (strict=false) y contra el CsvFileItemReader con CsvRecordLexer que arma
+ * ImportReaderConfig: mismos items y mismas fallas, record por record.
+ */
+class MappedCsvItemReaderTest {
+
+    private static final int FILES = 300;
+    private static final int RECORDS = 100;
+
+    private static final String[] NAMES = {"a", "b", "c", "d"};
+    private static final int[] INCLUDED = {0, 2, 3};
+
+    private static final String[] FRAGMENTS = {
+            "x", "ab", "a b", " ", "\t", "\"", "\"\"", "\"\"\"\"", ",", ",,", "\"q\"", " \"q\" ", "\"a,b\"",
+            "\"a\"\"b\"", "x\"y", "é", "ñandú", "#", "\"multi\nline\"", "\"crlf\r\nline\""
+    };
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void quotedFieldEdgeCases() throws Exception {
+        String csv = String.join("\n", "a,b,c,d",
+                "\"\"\"\",x,y,z", "\"a\"\"b\",c", " \"a\" ,b", "\" \",\"\" , \"\"", "a,b,", "a,\"b,\"",
+                "1,2,3,4,\"", "1,2,3,4,5,\"\"\"\"", "\"", "#comment \"", "x\"\"y,\"\"\"\"z\"",
+                "\"multi", "line\",2", "last,\"");
+        assertSameReads(write(csv), null);
+        assertSameReads(write(csv), INCLUDED);
+    }
+
+    @Test
+    void generatedFiles() throws Exception {
+        Random random = new Random(20240117L);
+        StringBuilder sb = new StringBuilder();
+        for (int f = 0; f < FILES; f++) {
+            sb.setLength(0);
+            sb.append("a,b,c,d\n");
+            for (int r = 0; r < RECORDS; r++) {
+                int parts = random.nextInt(10);
+                for (int p = 0; p < parts; p++) {
+                    sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                }
+                sb.append(random.nextInt(8) == 0 ? "\r\n" : "\n");
+            }
+            Path file = write(sb.toString());
+            assertSameReads(file, null);
+            assertSameReads(file, INCLUDED);
+        }
+    }
+
+    private void assertSameReads(Path file, int[] included) throws Exception {
+        List<String> expected = readAll(flatReader(file, included));
+        assertEquals(expected, readAll(mappedReader(file, included)),
+                () -> "mapped: file " + file + " included=" + Arrays.toString(included));
+        assertEquals(expected, readAll(lexerReader(file, included)),
+                () -> "lexer: file " + file + " included=" + Arrays.toString(included));
+    }
+
+    private static ItemStreamReader<String> flatReader(Path file, int[] included) {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setStrict(false);
+        tokenizer.setNames(NAMES);
+        if (included != null) tokenizer.setIncludedFields(included);
+        DefaultLineMapper<String> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(tokenizer);
+        lineMapper.setFieldSetMapper(MAPPER);
+
+        FlatFileItemReader<String> reader = new FlatFileItemReader<>();
+        reader.setName("flat");
+        reader.setResource(new FileSystemResource(file));
+        reader.setLinesToSkip(1);
+        reader.setRecordSeparatorPolicy(new QuoteBalancedRecordSeparatorPolicy());
+        reader.setLineMapper(lineMapper);
+        return reader;
+    }
+
+    private static ItemStreamReader<String> lexerReader(Path file, int[] included) {
+        CsvRecordLexer lexer = new CsvRecordLexer(',', '"');
+        lexer.setNames(NAMES);
+        if (included != null) lexer.setIncludedFields(included);
+        DefaultLineMapper<String> lineMapper = new DefaultLineMapper<>();
+        lineMapper.setLineTokenizer(lexer);
+        lineMapper.setFieldSetMapper(MAPPER);
+
+        CsvFileItemReader<String> reader = new CsvFileItemReader<>();
+        reader.setName("lexer");
+        reader.setResource(new FileSystemResource(file));
+        reader.setLinesToSkip(1);
+        reader.setLexer(lexer);
+        reader.setLineMapper(lineMapper);
+        return reader;
+    }
+
+    private static ItemStreamReader<String> mappedReader(Path file, int[] included) {
+        MappedCsvItemReader<String> reader = new MappedCsvItemReader<>();
+        reader.setName("mapped");
+        reader.setPath(file);
+        reader.setLinesToSkip(1);
+        reader.setNames(NAMES);
+        if (included != null) reader.setIncludedFields(included);
+        reader.setFieldSetMapper(MAPPER);
+        return reader;
+    }
+
+    private static final FieldSetMapper<String> MAPPER = fs -> Arrays.toString(fs.getValues());
+
+    /** Cada read: el item, o la excepción y su causa. Después de una falla se sigue leyendo, como en un skip. */
+    private static List<String> readAll(ItemStreamReader<String> reader) {
+        List<String> reads = new ArrayList<>();
+        reader.open(new ExecutionContext());
+        try {
+            for (int i = 0; i < RECORDS * 3; i++) {
+                try {
+                    String item = reader.read();
+                    if (item == null) break;
+                    reads.add(item);
+                } catch (Exception e) {
+                    reads.add("! " + e.getClass().getSimpleName()
+                            + (e.getCause() != null ? " <- " + e.getCause().getClass().getSimpleName() : ""));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return reads;
+    }
+
+    private Path write(String csv) throws Exception {
+        return Files.writeString(Files.createTempFile(dir, "records", ".csv"), csv, StandardCharsets.UTF_8);
+    }
+}
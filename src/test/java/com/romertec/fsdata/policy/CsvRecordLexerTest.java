@@ -0,0 +1,118 @@
+package com.romertec.fsdata.policy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.item.file.transform.DelimitedLineTokenizer;
+import org.springframework.batch.item.file.transform.FieldSet;
+import org.springframework.batch.item.file.transform.LineTokenizer;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CsvRecordLexer contra DelimitedLineTokenizer (strict=false), tokenizando directo y a través de isEndOfRecord,
+ * con y sin names / includedFields.
+ */
+class CsvRecordLexerTest {
+
+    private static final int GENERATED = 100_000;
+
+    private static final String[] NAMES = {"a", "b", "c", "d"};
+    private static final int[] INCLUDED = {0, 2, 3};
+
+    private static final String[] FRAGMENTS = {
+            "x", "ab", "a b", " ", "  ", "\t", "\"", "\"\"", "\"\"\"", "\"\"\"\"", ",", ",,", "\"q\"", " \"q\" ",
+            "\"a,b\"", "\"a\"\"b\"", "x\"y", "é", ";"
+    };
+
+    @Test
+    void quotedFieldEdgeCases() {
+        String[] lines = {
+                "", "\"", "\"\"", "\"\"\"", "\"\"\"\"", "\"\"\"\"\"\"", "a,\"\"\"\"", "\"a\"\"b\",c", " \"a\" ,b",
+                "\" \"", "\"\" , \"\"", "a,b,", "a,\"b,\"", "a,\"", "\",a", "x\"\"y,\"\"\"\"z\"", "a,b,c,d,e,f"
+        };
+        for (String line : lines) {
+            assertSameTokens(line);
+        }
+    }
+
+    @Test
+    void generatedLines() {
+        Random random = new Random(20240117L);
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < GENERATED; n++) {
+            sb.setLength(0);
+            int parts = random.nextInt(10);
+            for (int p = 0; p < parts; p++) {
+                sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSameTokens(sb.toString());
+        }
+    }
+
+    @Test
+    void multiLineRecordIsTokenizedLikeTheJoinedRecord() {
+        CsvRecordLexer lexer = new CsvRecordLexer();
+        lexer.setNames(NAMES);
+        String record = "1,\"first";
+        assertFalse(lexer.isEndOfRecord(record));
+        record = record + "\n\"\"second\"\"";
+        assertFalse(lexer.isEndOfRecord(record));
+        record = record + "\nthird\",x,\"\"\"\"";
+        assertTrue(lexer.isEndOfRecord(record));
+
+        assertEquals(outcome(tokenizer(NAMES, null), record), outcome(lexer, record));
+    }
+
+    private static void assertSameTokens(String line) {
+        assertSameTokens(line, null, null);
+        assertSameTokens(line, NAMES, null);
+        assertSameTokens(line, NAMES, INCLUDED);
+    }
+
+    private static void assertSameTokens(String line, String[] names, int[] included) {
+        String expected = outcome(tokenizer(names, included), line);
+
+        CsvRecordLexer direct = lexer(names, included);
+        assertEquals(expected, outcome(direct, line), () -> "tokenize " + show(line, names, included));
+
+        // como en el reader: primero el separador, después tokenize sobre el mismo record
+        CsvRecordLexer separated = lexer(names, included);
+        if (separated.isEndOfRecord(line)) {
+            assertEquals(expected, outcome(separated, line), () -> "isEndOfRecord + tokenize " + show(line, names, included));
+        }
+    }
+
+    private static DelimitedLineTokenizer tokenizer(String[] names, int[] included) {
+        DelimitedLineTokenizer tokenizer = new DelimitedLineTokenizer();
+        tokenizer.setStrict(false);
+        if (names != null) tokenizer.setNames(names);
+        if (included != null) tokenizer.setIncludedFields(included);
+        return tokenizer;
+    }
+
+    private static CsvRecordLexer lexer(String[] names, int[] included) {
+        CsvRecordLexer lexer = new CsvRecordLexer(',', '"');
+        if (names != null) lexer.setNames(names);
+        if (included != null) lexer.setIncludedFields(included);
+        return lexer;
+    }
+
+    /** Valores y names, o la clase de la excepción. */
+    private static String outcome(LineTokenizer tokenizer, String line) {
+        try {
+            FieldSet fs = tokenizer.tokenize(line);
+            return Arrays.toString(fs.getValues()) + (fs.hasNames() ? " " + Arrays.toString(fs.getNames()) : "");
+        } catch (RuntimeException e) {
+            return "! " + e.getClass().getName();
+        }
+    }
+
+    private static String show(String line, String[] names, int[] included) {
+        return "'" + line.replace("\t", "\\t") + "' names=" + Arrays.toString(names)
+                + " included=" + Arrays.toString(included);
+    }
+}
@@ -0,0 +1,154 @@
+package com.romertec.fsdata.support;
+
+import org.apache.commons.text.StringEscapeUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * HtmlEntityDecoder, CsvUtils y PriceParser.normalize contra commons-text y la implementación anterior
+ * (replaceAll / split), sobre casos fijos y strings generados con entidades válidas y rotas, espacios y comas.
+ */
+class TextNormalizationDifferentialTest {
+
+    private static final int GENERATED = 100_000;
+
+    private static final String[] FRAGMENTS = {
+            "&amp;", "&lt;", "&gt;", "&quot;", "&apos;", "&nbsp;", "&eacute;", "&Eacute;", "&hellip;", "&euro;",
+            "&amp", "&nbsp", "&unknown;", "&;", "&", ";", "#", "&#", "&#x", "&#X", "&#65;", "&#x41;", "&#X41;",
+            "&#65", "&#x;", "&#xZZ;", "&#0;", "&#128512;", "&#x1F600;", "&#1114112;", "&#99999999999;",
+            " ", "  ", "\t", "\n", "\r", "\u000B", "\f", "\u00A0", "\u2003", ",", ", ", " unit ", " Unit ", " UNIT ",
+            "unit", "15.99", "3", "usd", "USD", "cop", "Birmingham", "AL", "35207", "35207-1234", "é", "ß", "İ", "Ω",
+            "\uD83D\uDE00", "a", "B", "-", "$"
+    };
+
+    @Test
+    void fixedCases() {
+        String[] inputs = {
+                null, "", " ", "plain", "  padded  ", "Fish &amp; Chips", "caf&eacute;", "&#x1F600; &#128512;",
+                "&amp", "&#65", "&#xZZ;", "&nbsp;", "15.99 usd", "15.99\t usd extra", " 3.99 ", "&#36;4.50 cop",
+                "224 Daniel Payne Drive, Birmingham, AL, 35207",
+                "1024 20th Street South Unit 101, Birmingham, AL, 35205",
+                "1 İstiklal Cd unit 4, Istanbul, , ", "a,,,", ",,,,", " UNIT 7", "Main St unit , City"
+        };
+        for (String input : inputs) {
+            assertAllEqual(input);
+        }
+    }
+
+    @Test
+    void generatedStrings() {
+        Random random = new Random(20240117L);
+        StringBuilder sb = new StringBuilder();
+        for (int n = 0; n < GENERATED; n++) {
+            sb.setLength(0);
+            int parts = random.nextInt(12);
+            for (int p = 0; p < parts; p++) {
+                sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertAllEqual(sb.toString());
+        }
+    }
+
+    @Test
+    void unchangedInputIsReturnedAsIs() {
+        String clean = "Fish and Chips";
+        assertSame(clean, HtmlEntityDecoder.unescape(clean));
+        assertSame(clean, CsvUtils.clean(clean));
+        String price = "15.99 USD";
+        assertSame(price, PriceParser.normalize(price));
+    }
+
+    private static void assertAllEqual(String input) {
+        assertEquals(outcome(() -> StringEscapeUtils.unescapeHtml4(input)),
+                outcome(() -> HtmlEntityDecoder.unescape(input)), () -> "unescape " + show(input));
+        assertEquals(outcome(() -> OldCsvUtils.clean(input)),
+                outcome(() -> CsvUtils.clean(input)), () -> "clean " + show(input));
+        assertEquals(outcome(() -> OldPriceParser.normalize(input)),
+                outcome(() -> PriceParser.normalize(input)), () -> "normalize " + show(input));
+        assertEquals(outcome(() -> OldCsvUtils.parseFullAddress(input, "zip")),
+                outcome(() -> CsvUtils.parseFullAddress(input, "zip")), () -> "parseFullAddress " + show(input));
+    }
+
+    /** Resultado o clase de la excepción: un code point fuera de rango tiene que fallar igual en los dos. */
+    private static String outcome(Supplier<Object> call) {
+        try {
+            return "= " + Objects.toString(call.get());
+        } catch (RuntimeException e) {
+            return "! " + e.getClass().getName();
+        }
+    }
+
+    private static String show(String s) {
+        return s == null ? "null" : "'" + s.replace("\n", "\\n").replace("\r", "\\r").replace("\t", "\\t") + "'";
+    }
+
+    // ========= implementación anterior =========
+
+    private static final class OldCsvUtils {
+
+        static String clean(String s) {
+            if (s == null) return null;
+            String v = StringEscapeUtils.unescapeHtml4(s).trim();
+            return v.isEmpty() ? null : v;
+        }
+
+        static CsvUtils.AddressParts parseFullAddress(String fullAddressRaw, String zipFallbackRaw) {
+            String fullAddress = clean(fullAddressRaw);
+            String zipFallback = clean(zipFallbackRaw);
+
+            if (fullAddress == null) {
+                return new CsvUtils.AddressParts(null, null, null, zipFallback, null);
+            }
+
+            String[] parts = fullAddress.split(",");
+            String street = parts.length > 0 ? clean(parts[0]) : null;
+            String city   = parts.length > 1 ? clean(parts[1]) : null;
+            String state  = parts.length > 2 ? clean(parts[2]) : null;
+            String zip    = parts.length > 3 ? extractZip(clean(parts[3])) : zipFallback;
+
+            String unit = null;
+            if (street != null) {
+                String lower = street.toLowerCase(Locale.ROOT);
+                int idx = lower.indexOf(" unit ");
+                if (idx >= 0) {
+                    unit = clean(street.substring(idx + " unit ".length()));
+                    street = clean(street.substring(0, idx));
+                }
+            }
+
+            return new CsvUtils.AddressParts(street, city, state, zip, unit);
+        }
+
+        private static String extractZip(String s) {
+            if (s == null) return null;
+            String v = s.trim();
+            if (v.isEmpty()) return null;
+            return v;
+        }
+    }
+
+    private static final class OldPriceParser {
+
+        static String normalize(String priceRaw) {
+            String v = OldCsvUtils.clean(priceRaw);
+            if (v == null) return null;
+
+            v = v.replaceAll("\\s+", " ").trim();
+
+            String[] parts = v.split(" ");
+            if (parts.length >= 2) {
+                String amount = parts[0];
+                String currency = parts[1].toUpperCase(Locale.ROOT);
+                return amount + " " + currency;
+            }
+            return v;
+        }
+    }
+}